@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import com.b3dgs.lionengine.game.Configurer;
+
+/**
+ * Production cost, read from the <code>cost</code> node.
+ */
+public final class Cost
+{
+    /** Cost node. */
+    public static final String NODE_COST = "cost";
+    /** Wood attribute. */
+    public static final String ATT_WOOD = "wood";
+    /** Gold attribute. */
+    public static final String ATT_GOLD = "gold";
+    /** Food attribute. */
+    public static final String ATT_FOOD = "food";
+
+    /**
+     * Import cost from configuration, missing attributes are considered as free.
+     * 
+     * @param configurer The configurer reference.
+     * @return The imported cost.
+     */
+    public static Cost imports(Configurer configurer)
+    {
+        return new Cost(configurer.getIntegerDefault(0, ATT_WOOD, NODE_COST),
+                        configurer.getIntegerDefault(0, ATT_GOLD, NODE_COST),
+                        configurer.getIntegerDefault(0, ATT_FOOD, NODE_COST));
+    }
+
+    private final int[] amounts;
+
+    /**
+     * Create cost.
+     * 
+     * @param wood The wood amount.
+     * @param gold The gold amount.
+     * @param food The food amount.
+     */
+    public Cost(int wood, int gold, int food)
+    {
+        super();
+
+        amounts = new int[]
+        {
+            wood, gold, food
+        };
+    }
+
+    /**
+     * Get amount of resource.
+     * 
+     * @param kind The resource kind (see {@link Ledger}).
+     * @return The amount.
+     */
+    public int get(int kind)
+    {
+        return amounts[kind];
+    }
+}
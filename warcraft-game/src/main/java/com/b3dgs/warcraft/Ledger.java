@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.warcraft.constant.Constant;
+
+/**
+ * Player economy ledger, storing resources with income and expense history.
+ * <p>
+ * Costs of queued production are reserved first, so they are no more available for other orders, and then committed
+ * when production really starts, or cancelled. Food is handled as a capacity: income increases capacity, expense and
+ * reservations consume it.
+ * </p>
+ */
+public final class Ledger implements Updatable
+{
+    /** Wood kind. */
+    public static final int WOOD = 0;
+    /** Gold kind. */
+    public static final int GOLD = 1;
+    /** Food kind. */
+    public static final int FOOD = 2;
+    /** Number of history entries in seconds. */
+    public static final int HISTORY = 60;
+    /** No reservation. */
+    public static final int NONE = -1;
+
+    private static final String ERROR_RESERVATION = "Invalid reservation: ";
+    private static final int KINDS = 3;
+    private static final int[] MAX =
+    {
+        99999, 99999, 99
+    };
+    private static final int INITIAL_RESERVATIONS = 16;
+
+    private final int[] stock = new int[KINDS];
+    private final int[] reserved = new int[KINDS];
+    private final int[][] income = new int[KINDS][HISTORY];
+    private final int[][] expense = new int[KINDS][HISTORY];
+    private final double second = Constant.NATIVE.getRate();
+
+    private int[][] reservations = new int[INITIAL_RESERVATIONS][KINDS];
+    private int[] reservationsNext = new int[INITIAL_RESERVATIONS];
+    private boolean[] reservationsUsed = new boolean[INITIAL_RESERVATIONS];
+    private int reservationsFree = NONE;
+    private int reservationsCount;
+    private int capacity;
+    private int current;
+    private double elapsed;
+
+    /**
+     * Create ledger.
+     */
+    public Ledger()
+    {
+        super();
+    }
+
+    /**
+     * Add income.
+     * 
+     * @param kind The resource kind.
+     * @param amount The amount to add.
+     */
+    public void income(int kind, int amount)
+    {
+        if (kind == FOOD)
+        {
+            capacity = Math.min(MAX[FOOD], capacity + amount);
+        }
+        stock[kind] = Math.min(MAX[kind], stock[kind] + amount);
+        income[kind][current] += amount;
+    }
+
+    /**
+     * Add expense, not reserved.
+     * 
+     * @param kind The resource kind.
+     * @param amount The amount to remove.
+     */
+    public void expense(int kind, int amount)
+    {
+        stock[kind] = Math.max(0, stock[kind] - amount);
+        expense[kind][current] += amount;
+    }
+
+    /**
+     * Reserve cost if available.
+     * 
+     * @param cost The cost to reserve.
+     * @return The reservation id, {@link #NONE} if not enough resources.
+     */
+    public int reserve(Cost cost)
+    {
+        for (int kind = 0; kind < KINDS; kind++)
+        {
+            if (getAvailable(kind) < cost.get(kind))
+            {
+                return NONE;
+            }
+        }
+        final int reservation = allocate();
+        for (int kind = 0; kind < KINDS; kind++)
+        {
+            reservations[reservation][kind] = cost.get(kind);
+            reserved[kind] += cost.get(kind);
+        }
+        return reservation;
+    }
+
+    /**
+     * Commit reservation, removing its cost from stock.
+     * 
+     * @param reservation The reservation id.
+     * @throws LionEngineException If invalid reservation.
+     */
+    public void commit(int reservation)
+    {
+        check(reservation);
+        for (int kind = 0; kind < KINDS; kind++)
+        {
+            final int amount = reservations[reservation][kind];
+            reserved[kind] -= amount;
+            expense(kind, amount);
+        }
+        release(reservation);
+    }
+
+    /**
+     * Cancel reservation, making its cost available again.
+     * 
+     * @param reservation The reservation id.
+     * @throws LionEngineException If invalid reservation.
+     */
+    public void cancel(int reservation)
+    {
+        check(reservation);
+        for (int kind = 0; kind < KINDS; kind++)
+        {
+            reserved[kind] -= reservations[reservation][kind];
+        }
+        release(reservation);
+    }
+
+    /**
+     * Set stock directly, without history and reservations.
+     * 
+     * @param wood The wood stock.
+     * @param gold The gold stock.
+     * @param capacity The food capacity.
+     * @param consumed The consumed food.
+     */
+    public void set(int wood, int gold, int capacity, int consumed)
+    {
+        stock[WOOD] = wood;
+        stock[GOLD] = gold;
+        this.capacity = capacity;
+        stock[FOOD] = capacity - consumed;
+        Arrays.fill(reserved, 0);
+        Arrays.fill(reservationsUsed, false);
+        reservationsFree = NONE;
+        reservationsCount = 0;
+    }
+
+    /**
+     * Get stock, including reserved amount.
+     * 
+     * @param kind The resource kind.
+     * @return The stock.
+     */
+    public int getStock(int kind)
+    {
+        return stock[kind];
+    }
+
+    /**
+     * Get reserved amount.
+     * 
+     * @param kind The resource kind.
+     * @return The reserved amount.
+     */
+    public int getReserved(int kind)
+    {
+        return reserved[kind];
+    }
+
+    /**
+     * Get available amount, which is stock minus reserved.
+     * 
+     * @param kind The resource kind.
+     * @return The available amount.
+     */
+    public int getAvailable(int kind)
+    {
+        return stock[kind] - reserved[kind];
+    }
+
+    /**
+     * Get food capacity.
+     * 
+     * @return The food capacity.
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Get income over the last seconds.
+     * 
+     * @param kind The resource kind.
+     * @param seconds The number of seconds (up to {@link #HISTORY}).
+     * @return The income.
+     */
+    public int getIncome(int kind, int seconds)
+    {
+        return sum(income[kind], seconds);
+    }
+
+    /**
+     * Get expense over the last seconds.
+     * 
+     * @param kind The resource kind.
+     * @param seconds The number of seconds (up to {@link #HISTORY}).
+     * @return The expense.
+     */
+    public int getExpense(int kind, int seconds)
+    {
+        return sum(expense[kind], seconds);
+    }
+
+    /**
+     * Sum history entries, current second included.
+     * 
+     * @param history The history entries.
+     * @param seconds The number of seconds.
+     * @return The sum.
+     */
+    private int sum(int[] history, int seconds)
+    {
+        final int count = Math.min(HISTORY, seconds);
+        int total = 0;
+        for (int i = 0; i < count; i++)
+        {
+            total += history[(current - i + HISTORY) % HISTORY];
+        }
+        return total;
+    }
+
+    /**
+     * Allocate reservation from pool.
+     * 
+     * @return The reservation id.
+     */
+    private int allocate()
+    {
+        final int reservation;
+        if (reservationsFree != NONE)
+        {
+            reservation = reservationsFree;
+            reservationsFree = reservationsNext[reservation];
+        }
+        else
+        {
+            if (reservationsCount == reservations.length)
+            {
+                final int size = reservationsCount * 2;
+                reservations = Arrays.copyOf(reservations, size);
+                for (int i = reservationsCount; i < size; i++)
+                {
+                    reservations[i] = new int[KINDS];
+                }
+                reservationsNext = Arrays.copyOf(reservationsNext, size);
+                reservationsUsed = Arrays.copyOf(reservationsUsed, size);
+            }
+            reservation = reservationsCount;
+            reservationsCount++;
+        }
+        reservationsUsed[reservation] = true;
+        return reservation;
+    }
+
+    /**
+     * Release reservation to pool.
+     * 
+     * @param reservation The reservation id.
+     */
+    private void release(int reservation)
+    {
+        reservationsUsed[reservation] = false;
+        reservationsNext[reservation] = reservationsFree;
+        reservationsFree = reservation;
+    }
+
+    /**
+     * Check reservation is pending.
+     * 
+     * @param reservation The reservation id.
+     * @throws LionEngineException If invalid reservation.
+     */
+    private void check(int reservation)
+    {
+        if (reservation < 0 || reservation >= reservationsCount || !reservationsUsed[reservation])
+        {
+            throw new LionEngineException(ERROR_RESERVATION + reservation);
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        elapsed += extrp;
+        while (elapsed >= second)
+        {
+            elapsed -= second;
+            current = (current + 1) % HISTORY;
+            for (int kind = 0; kind < KINDS; kind++)
+            {
+                income[kind][current] = 0;
+                expense[kind][current] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.b3dgs.lionengine.Context;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.SequenceGame;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.engine.SourceResolutionProvider;
+import com.b3dgs.warcraft.command.Orders;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.net.Lockstep;
+import com.b3dgs.warcraft.net.TransportUdp;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.scenario.Scenario;
+import com.b3dgs.warcraft.world.WorldChecksum;
+
+/**
+ * Lockstep loopback harness, running two worlds in lockstep over local datagram channels, without rendering.
+ * <p>
+ * Each peer controls one side of the same scenario and issues random move orders to one of its units, or regularly to
+ * all of them as a large selection would. Both worlds only receive orders through their session, so their tick
+ * checksums must be equal. Compared ticks, mismatches and sent bytes are logged at the end.
+ * </p>
+ */
+public final class LockstepHarness extends SequenceGame
+{
+    private static final Level LEVEL = Level.FOREST;
+    private static final int UNITS = 40;
+    private static final int PEERS = 2;
+    private static final int TICKS = 1_800;
+    private static final int TICKS_PER_FRAME = 10;
+    private static final int ORDER_PERIOD = 15;
+    private static final int GROUP_PERIOD = 4;
+    private static final long SEED = 42L;
+    private static final String ERROR_TRANSPORT = "Unable to open lockstep transport";
+    private static final String INFO_RESULT = "Lockstep harness: ";
+
+    private final World[] worlds = new World[PEERS];
+    private final int[] locals = new int[PEERS];
+    private final Random random = new Random(SEED);
+    private int compared;
+    private int mismatches;
+    private int steps;
+
+    /**
+     * Create harness.
+     * 
+     * @param context The context reference.
+     */
+    public LockstepHarness(Context context)
+    {
+        super(context, Constant.NATIVE, World::new);
+
+        worlds[0] = (World) world;
+        final Services peer = new Services();
+        peer.add(services.get(Context.class));
+        peer.add(services.get(SourceResolutionProvider.class));
+        worlds[1] = new World(peer);
+    }
+
+    /**
+     * Issue random move order to one or all local units of peer.
+     * 
+     * @param peer The peer index.
+     */
+    private void issueOrders(int peer)
+    {
+        final World current = worlds[peer];
+        final EntityTypes types = current.getService(EntityTypes.class);
+        final List<EntityModel> units = new ArrayList<>();
+        for (final EntityModel model : current.getService(Handler.class).get(EntityModel.class))
+        {
+            if (model.getOwner() == locals[peer] && types.get(model.getFeaturable().getMedia()).isMobile())
+            {
+                units.add(model);
+            }
+        }
+        if (!units.isEmpty())
+        {
+            final MapTile map = current.getService(MapTile.class);
+            final Orders orders = current.getService(Orders.class);
+            final int tx = random.nextInt(map.getInTileWidth());
+            final int ty = random.nextInt(map.getInTileHeight());
+            if (steps / ORDER_PERIOD % GROUP_PERIOD == 0)
+            {
+                for (final EntityModel unit : units)
+                {
+                    orders.move(unit, tx, ty);
+                }
+            }
+            else
+            {
+                orders.move(units.get(random.nextInt(units.size())), tx, ty);
+            }
+        }
+    }
+
+    /**
+     * Compare tick checksums computed by both peers.
+     */
+    private void compare()
+    {
+        final WorldChecksum first = worlds[0].getService(WorldChecksum.class);
+        final WorldChecksum second = worlds[1].getService(WorldChecksum.class);
+        final int ticks = Math.min(first.getTick(), second.getTick());
+        while (compared < ticks)
+        {
+            if (first.get(compared) != second.get(compared))
+            {
+                mismatches++;
+            }
+            compared++;
+        }
+    }
+
+    @Override
+    public void load()
+    {
+        if (!LEVEL.getFile().exists())
+        {
+            Scene.importLevelAndSave(LEVEL);
+        }
+        final Scenario scenario = Scenario.scale(LEVEL, UNITS);
+        for (final World peer : worlds)
+        {
+            peer.setScenario(scenario);
+            peer.loadFromFile(LEVEL.getFile());
+        }
+
+        final Players players = worlds[0].getService(Players.class);
+        locals[0] = players.getLocal();
+        locals[1] = players.getDefault(Constant.RACE_COMPUTER);
+        try
+        {
+            final InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+            final TransportUdp[] transports = new TransportUdp[PEERS];
+            for (int i = 0; i < PEERS; i++)
+            {
+                transports[i] = new TransportUdp(loopback);
+            }
+            transports[0].addPeer(transports[1].getAddress());
+            transports[1].addPeer(transports[0].getAddress());
+            for (int i = 0; i < PEERS; i++)
+            {
+                worlds[i].getService(Lockstep.class).start(transports[i], locals[i], locals);
+            }
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, ERROR_TRANSPORT);
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        for (int i = 0; i < TICKS_PER_FRAME; i++)
+        {
+            for (int peer = 0; peer < PEERS; peer++)
+            {
+                if (steps % ORDER_PERIOD == 0)
+                {
+                    issueOrders(peer);
+                }
+                worlds[peer].update(1.0);
+            }
+            steps++;
+        }
+        compare();
+
+        if (compared >= TICKS)
+        {
+            final Lockstep lockstep = worlds[0].getService(Lockstep.class);
+            Verbose.info(INFO_RESULT,
+                         String.valueOf(compared),
+                         " ticks, ",
+                         String.valueOf(mismatches),
+                         " mismatches, ",
+                         String.valueOf(lockstep.getSentBytes()),
+                         " bytes sent");
+            for (final World peer : worlds)
+            {
+                peer.getService(Lockstep.class).stop();
+            }
+            end();
+        }
+    }
+
+    @Override
+    public void render(Graphic g)
+    {
+        // Nothing rendered, only lockstep is checked
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.constant.Constant;
+
+/**
+ * Players, identified by a compact id, each one with its race and resources.
+ * <p>
+ * Player {@link #NEUTRAL} owns neutral entities such as gold mines, and is hostile to nobody. The local player uses the
+ * {@link Resources} service displayed on HUD. Ids fit in a byte, so owners can be stored in primitive arrays.
+ * </p>
+ */
+public class Players implements Updatable
+{
+    /** Neutral player id. */
+    public static final int NEUTRAL = 0;
+    /** Maximum number of players, neutral included, so eight players can play. */
+    public static final int MAX = 9;
+
+    private static final String ERROR_MAX = "Too many players, maximum is: ";
+    private static final String ERROR_LOCAL = "Invalid local player: ";
+
+    private final Resources[] resources = new Resources[MAX];
+    private final String[] races = new String[MAX];
+    private int local;
+    private int count;
+
+    /**
+     * Create players, with neutral and local players.
+     * 
+     * @param services The services reference.
+     */
+    public Players(Services services)
+    {
+        super();
+
+        add(Constant.RACE_NEUTRAL, new Resources());
+        local = add(Constant.RACE_PLAYER, services.get(Resources.class));
+    }
+
+    /**
+     * Add a player.
+     * 
+     * @param race The player race.
+     * @return The player id.
+     * @throws LionEngineException If too many players.
+     */
+    public int add(String race)
+    {
+        return add(race, new Resources());
+    }
+
+    /**
+     * Get first player of race, added on first use.
+     * 
+     * @param race The player race (<code>null</code> or neutral race for {@link #NEUTRAL}).
+     * @return The player id.
+     * @throws LionEngineException If too many players.
+     */
+    public int getDefault(String race)
+    {
+        if (race == null)
+        {
+            return NEUTRAL;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            if (race.equals(races[i]))
+            {
+                return i;
+            }
+        }
+        return add(race);
+    }
+
+    /**
+     * Get player resources.
+     * 
+     * @param player The player id.
+     * @return The player resources.
+     */
+    public Resources get(int player)
+    {
+        return resources[player];
+    }
+
+    /**
+     * Get player race.
+     * 
+     * @param player The player id.
+     * @return The player race.
+     */
+    public String getRace(int player)
+    {
+        return races[player];
+    }
+
+    /**
+     * Set local player, such as the player controlled by peer in a session. Resources are exchanged with previous local
+     * player, so local resources stay in the {@link Resources} service displayed on HUD. Must be called before any
+     * cost is reserved.
+     * 
+     * @param player The player id.
+     * @throws LionEngineException If neutral or unknown player.
+     */
+    public void setLocal(int player)
+    {
+        if (player <= NEUTRAL || player >= count)
+        {
+            throw new LionEngineException(ERROR_LOCAL + player);
+        }
+        if (player != local)
+        {
+            final Resources shown = resources[local];
+            final Resources other = resources[player];
+            final int wood = shown.getStockWood();
+            final int gold = shown.getStockGold();
+            final int availableFood = shown.getAvailableFood();
+            final int consumedFood = shown.getConsumedFood();
+            shown.set(other.getStockWood(), other.getStockGold(), other.getAvailableFood(), other.getConsumedFood());
+            other.set(wood, gold, availableFood, consumedFood);
+            resources[local] = other;
+            resources[player] = shown;
+            local = player;
+        }
+    }
+
+    /**
+     * Get local player.
+     * 
+     * @return The local player id.
+     */
+    public int getLocal()
+    {
+        return local;
+    }
+
+    /**
+     * Get number of players, neutral included.
+     * 
+     * @return The players number.
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Check if player is the local player.
+     * 
+     * @param player The player id.
+     * @return <code>true</code> if local player, <code>false</code> else.
+     */
+    public boolean isLocal(int player)
+    {
+        return player == local;
+    }
+
+    /**
+     * Check if players are hostile, being different and not neutral.
+     * 
+     * @param player The player id.
+     * @param other The other player id.
+     * @return <code>true</code> if hostile, <code>false</code> else.
+     */
+    public boolean isHostile(int player, int other)
+    {
+        return player != other && player != NEUTRAL && other != NEUTRAL;
+    }
+
+    /**
+     * Add a player with its resources.
+     * 
+     * @param race The player race.
+     * @param resources The player resources.
+     * @return The player id.
+     * @throws LionEngineException If too many players.
+     */
+    private int add(String race, Resources resources)
+    {
+        if (count >= MAX)
+        {
+            throw new LionEngineException(ERROR_MAX + MAX);
+        }
+        races[count] = race;
+        this.resources[count] = resources;
+        count++;
+        return count - 1;
+    }
+
+    /**
+     * {@inheritDoc} Local resources are updated by the world.
+     */
+    @Override
+    public void update(double extrp)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (i != local)
+            {
+                resources[i].update(extrp);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.UtilMath;
+
+/**
+ * Displayed resource value, increasing smoothly to its target.
+ * <p>
+ * Text is only built when the rounded value changes, and nothing is computed once target has been reached.
+ * </p>
+ */
+public final class ResourceDisplay implements Updatable
+{
+    private static final int SPEED = 15;
+
+    private double current;
+    private int target;
+    private int value;
+    private String text = String.valueOf(0);
+
+    /**
+     * Create display.
+     */
+    public ResourceDisplay()
+    {
+        super();
+    }
+
+    /**
+     * Set target value. Increase is animated, decrease is immediate.
+     * 
+     * @param target The target value.
+     */
+    public void setTarget(int target)
+    {
+        this.target = target;
+        if (target < current)
+        {
+            current = target;
+            refresh();
+        }
+    }
+
+    /**
+     * Set value immediately.
+     * 
+     * @param value The value.
+     */
+    public void set(int value)
+    {
+        target = value;
+        current = value;
+        refresh();
+    }
+
+    /**
+     * Get displayed value.
+     * 
+     * @return The displayed value.
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Get displayed text.
+     * 
+     * @return The displayed text.
+     */
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * Update text if rounded value has changed.
+     */
+    private void refresh()
+    {
+        final int rounded = (int) Math.round(current);
+        if (rounded != value)
+        {
+            value = rounded;
+            text = String.valueOf(rounded);
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (current < target)
+        {
+            current = Math.ceil(UtilMath.curveValue(current, target, SPEED) * 10) / 10.0;
+            if (Math.round(current) >= target)
+            {
+                current = target;
+            }
+            refresh();
+        }
+    }
+}
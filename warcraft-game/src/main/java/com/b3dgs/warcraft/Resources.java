@@ -17,12 +17,9 @@
 package com.b3dgs.warcraft;
 
 import com.b3dgs.lionengine.Updatable;
-import com.b3dgs.lionengine.UpdatableVoid;
-import com.b3dgs.lionengine.UtilMath;
-import com.b3dgs.lionengine.game.Alterable;
 
 /**
- * Describes the resources.
+ * Describes the resources of a player, backed by its {@link Ledger}.
  */
 public final class Resources implements Updatable
 {
@@ -31,19 +28,9 @@ public final class Resources implements Updatable
     /** Gold type. */
     public static final String TYPE_GOLD = "gold";
 
-    private final Alterable wood = new Alterable(99999);
-    private final Alterable gold = new Alterable(99999);
-    private final Alterable available = new Alterable(99);
-    private final Alterable consumed = new Alterable(99);
-
-    private final Updatable updateWood;
-    private final Updatable updateGold;
-
-    private Updatable updaterWood = UpdatableVoid.getInstance();
-    private Updatable updaterGold = UpdatableVoid.getInstance();
-
-    private double currentGold;
-    private double currentWood;
+    private final Ledger ledger = new Ledger();
+    private final ResourceDisplay wood = new ResourceDisplay();
+    private final ResourceDisplay gold = new ResourceDisplay();
 
     /**
      * Create resources data.
@@ -51,32 +38,6 @@ public final class Resources implements Updatable
     public Resources()
     {
         super();
-
-        updateWood = extrp ->
-        {
-            if (getWood() < wood.getCurrent())
-            {
-                currentWood = (int) Math.ceil(UtilMath.curveValue(currentWood, wood.getCurrent(), 15) * 10) / 10.0;
-            }
-            else
-            {
-                currentWood = wood.getCurrent();
-                updaterWood = UpdatableVoid.getInstance();
-            }
-        };
-
-        updateGold = extrp ->
-        {
-            if (getGold() < gold.getCurrent())
-            {
-                currentGold = (int) Math.ceil(UtilMath.curveValue(currentGold, gold.getCurrent(), 15) * 10) / 10.0;
-            }
-            else
-            {
-                currentGold = gold.getCurrent();
-                updaterGold = UpdatableVoid.getInstance();
-            }
-        };
     }
 
     /**
@@ -86,8 +47,8 @@ public final class Resources implements Updatable
      */
     public void increaseWood(int amount)
     {
-        wood.increase(amount);
-        updaterWood = updateWood;
+        ledger.income(Ledger.WOOD, amount);
+        refresh();
     }
 
     /**
@@ -97,8 +58,8 @@ public final class Resources implements Updatable
      */
     public void decreaseWood(int amount)
     {
-        wood.decrease(amount);
-        updaterWood = updateWood;
+        ledger.expense(Ledger.WOOD, amount);
+        refresh();
     }
 
     /**
@@ -108,8 +69,8 @@ public final class Resources implements Updatable
      */
     public void increaseGold(int amount)
     {
-        gold.increase(amount);
-        updaterGold = updateGold;
+        ledger.income(Ledger.GOLD, amount);
+        refresh();
     }
 
     /**
@@ -119,8 +80,58 @@ public final class Resources implements Updatable
      */
     public void decreaseGold(int amount)
     {
-        gold.decrease(amount);
-        updaterGold = updateGold;
+        ledger.expense(Ledger.GOLD, amount);
+        refresh();
+    }
+
+    /**
+     * Reserve production cost.
+     * 
+     * @param cost The cost to reserve.
+     * @return The reservation id, {@link Ledger#NONE} if not enough resources.
+     */
+    public int reserve(Cost cost)
+    {
+        final int reservation = ledger.reserve(cost);
+        refresh();
+        return reservation;
+    }
+
+    /**
+     * Commit reserved production cost.
+     * 
+     * @param reservation The reservation id.
+     */
+    public void commit(int reservation)
+    {
+        ledger.commit(reservation);
+        refresh();
+    }
+
+    /**
+     * Cancel reserved production cost.
+     * 
+     * @param reservation The reservation id.
+     */
+    public void cancel(int reservation)
+    {
+        ledger.cancel(reservation);
+        refresh();
+    }
+
+    /**
+     * Set all resources at once, display included.
+     * 
+     * @param wood The stored wood.
+     * @param gold The stored gold.
+     * @param availableFood The available food.
+     * @param consumedFood The consumed food.
+     */
+    public void set(int wood, int gold, int availableFood, int consumedFood)
+    {
+        ledger.set(wood, gold, availableFood, consumedFood);
+        this.wood.set(wood);
+        this.gold.set(gold);
     }
 
     /**
@@ -128,7 +139,7 @@ public final class Resources implements Updatable
      */
     public void increaseFood()
     {
-        available.increase(1);
+        ledger.income(Ledger.FOOD, 1);
     }
 
     /**
@@ -136,7 +147,17 @@ public final class Resources implements Updatable
      */
     public void consumeFood()
     {
-        consumed.increase(1);
+        ledger.expense(Ledger.FOOD, 1);
+    }
+
+    /**
+     * Get the ledger.
+     * 
+     * @return The ledger.
+     */
+    public Ledger getLedger()
+    {
+        return ledger;
     }
 
     /**
@@ -146,37 +167,57 @@ public final class Resources implements Updatable
      */
     public int getAvailableFood()
     {
-        return available.getCurrent();
+        return ledger.getCapacity();
     }
 
     /**
-     * Get consumed food.
+     * Get consumed food, reserved included.
      * 
      * @return The consumed food.
      */
     public int getConsumedFood()
     {
-        return consumed.getCurrent();
+        return ledger.getCapacity() - ledger.getAvailable(Ledger.FOOD);
     }
 
     /**
-     * Get current wood resource.
+     * Get displayed wood resource.
      * 
-     * @return The current wood resource.
+     * @return The displayed wood resource.
      */
-    public int getWood()
+    public ResourceDisplay getWood()
     {
-        return (int) Math.round(currentWood);
+        return wood;
     }
 
     /**
-     * Get current gold resource.
+     * Get displayed gold resource.
      * 
-     * @return The current gold resource.
+     * @return The displayed gold resource.
      */
-    public int getGold()
+    public ResourceDisplay getGold()
     {
-        return (int) Math.round(currentGold);
+        return gold;
+    }
+
+    /**
+     * Get stored wood resource, reserved included.
+     * 
+     * @return The stored wood resource.
+     */
+    public int getStockWood()
+    {
+        return ledger.getStock(Ledger.WOOD);
+    }
+
+    /**
+     * Get stored gold resource, reserved included.
+     * 
+     * @return The stored gold resource.
+     */
+    public int getStockGold()
+    {
+        return ledger.getStock(Ledger.GOLD);
     }
 
     /**
@@ -186,7 +227,7 @@ public final class Resources implements Updatable
      */
     public boolean isAvailableFood()
     {
-        return consumed.getCurrent() < available.getCurrent();
+        return ledger.getAvailable(Ledger.FOOD) > 0;
     }
 
     /**
@@ -197,7 +238,7 @@ public final class Resources implements Updatable
      */
     public boolean isAvailableWood(int amount)
     {
-        return wood.isEnough(amount);
+        return ledger.getAvailable(Ledger.WOOD) >= amount;
     }
 
     /**
@@ -208,13 +249,23 @@ public final class Resources implements Updatable
      */
     public boolean isAvailableGold(int amount)
     {
-        return gold.isEnough(amount);
+        return ledger.getAvailable(Ledger.GOLD) >= amount;
+    }
+
+    /**
+     * Update displayed targets to available resources.
+     */
+    private void refresh()
+    {
+        wood.setTarget(ledger.getAvailable(Ledger.WOOD));
+        gold.setTarget(ledger.getAvailable(Ledger.GOLD));
     }
 
     @Override
     public void update(double extrp)
     {
-        updaterWood.update(extrp);
-        updaterGold.update(extrp);
+        ledger.update(extrp);
+        wood.update(extrp);
+        gold.update(extrp);
     }
 }
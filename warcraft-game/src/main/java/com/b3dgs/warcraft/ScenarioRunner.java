@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Context;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.SequenceGame;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.constant.Extension;
+import com.b3dgs.warcraft.profiler.TracerCounter;
+import com.b3dgs.warcraft.scenario.Scenario;
+
+/**
+ * Scaling runner, stepping each scenario world without rendering nor input, and recording one result line per run.
+ * <p>
+ * Runs go through all levels and scales, one sequence per run. World is stepped with a fixed extrapolation, several
+ * ticks per frame, so results only depend on the scenario. Tick time percentiles, heap used after collection and path
+ * searches are measured after a warm-up.
+ * </p>
+ */
+public final class ScenarioRunner extends SequenceGame
+{
+    /** Results file. */
+    public static final String FILE_RESULTS = "scaling" + Extension.CSV;
+
+    private static final int[] SCALES =
+    {
+        10, 100, 1_000, 10_000
+    };
+    private static final Level[] LEVELS =
+    {
+        Level.FOREST, Level.SWAMP
+    };
+    private static final int RUNS = SCALES.length * LEVELS.length;
+    private static final int WARMUP = 120;
+    private static final int MEASURE = 600;
+    private static final int TICKS_PER_FRAME = 10;
+    private static final int HIGH = 99;
+    private static final int PERCENT = 100;
+    private static final long NANO_PER_MICRO = 1_000L;
+    private static final String CSV_SEPARATOR = ",";
+    private static final String CSV_HEADER = "level,units,entities,p50_us,p99_us,max_us,heap_bytes,path_searches";
+    private static final String ERROR_EXPORT = "Unable to export scaling results: ";
+    private static final String INFO_RUN = "Scaling run ";
+    private static final TracerCounter COUNTER = TracerCounter.install();
+
+    /**
+     * Get scenario of run.
+     * 
+     * @param run The run index.
+     * @return The run scenario.
+     */
+    private static Scenario getScenario(int run)
+    {
+        return Scenario.scale(LEVELS[run / SCALES.length], SCALES[run % SCALES.length]);
+    }
+
+    private final long[] times = new long[MEASURE];
+    private final int run;
+    private final Scenario scenario;
+    private int tick;
+    private long searches;
+
+    /**
+     * Create runner, starting with first run.
+     * 
+     * @param context The context reference.
+     */
+    public ScenarioRunner(Context context)
+    {
+        this(context, Integer.valueOf(0));
+    }
+
+    /**
+     * Create runner.
+     * 
+     * @param context The context reference.
+     * @param run The run index.
+     */
+    public ScenarioRunner(Context context, Integer run)
+    {
+        super(context, Constant.NATIVE, World::new);
+
+        this.run = run.intValue();
+        scenario = getScenario(this.run);
+    }
+
+    /**
+     * Record run results.
+     */
+    private void record()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        final long heap = runtime.totalMemory() - runtime.freeMemory();
+        Arrays.sort(times);
+
+        final Media media = Medias.create(FILE_RESULTS);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(media.getFile(), run > 0),
+                                                                       StandardCharsets.UTF_8)))
+        {
+            if (run == 0)
+            {
+                writer.write(CSV_HEADER);
+                writer.write(System.lineSeparator());
+            }
+            writer.write(scenario.getLevel().name());
+            writer.write(CSV_SEPARATOR);
+            writer.write(String.valueOf(scenario.getUnits()));
+            writer.write(CSV_SEPARATOR);
+            writer.write(String.valueOf(COUNTER.getEntities()));
+            writer.write(CSV_SEPARATOR);
+            writer.write(String.valueOf(times[MEASURE / 2] / NANO_PER_MICRO));
+            writer.write(CSV_SEPARATOR);
+            writer.write(String.valueOf(times[MEASURE * HIGH / PERCENT] / NANO_PER_MICRO));
+            writer.write(CSV_SEPARATOR);
+            writer.write(String.valueOf(times[MEASURE - 1] / NANO_PER_MICRO));
+            writer.write(CSV_SEPARATOR);
+            writer.write(String.valueOf(heap));
+            writer.write(CSV_SEPARATOR);
+            writer.write(String.valueOf(COUNTER.getPathSearches() - searches));
+            writer.write(System.lineSeparator());
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_EXPORT, media.getPath());
+        }
+    }
+
+    @Override
+    public void load()
+    {
+        final Level level = scenario.getLevel();
+        if (!level.getFile().exists())
+        {
+            Scene.importLevelAndSave(level);
+        }
+        Verbose.info(INFO_RUN, String.valueOf(run + 1), "/", String.valueOf(RUNS));
+        ((World) world).setScenario(scenario);
+        world.loadFromFile(level.getFile());
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        for (int i = 0; i < TICKS_PER_FRAME && tick < WARMUP + MEASURE; i++)
+        {
+            if (tick == WARMUP)
+            {
+                searches = COUNTER.getPathSearches();
+            }
+            final long start = System.nanoTime();
+            world.update(1.0);
+            if (tick >= WARMUP)
+            {
+                times[tick - WARMUP] = System.nanoTime() - start;
+            }
+            tick++;
+        }
+
+        if (tick == WARMUP + MEASURE)
+        {
+            record();
+            if (run + 1 < RUNS)
+            {
+                end(ScenarioRunner.class, Integer.valueOf(run + 1));
+            }
+            else
+            {
+                end();
+            }
+        }
+    }
+
+    @Override
+    public void render(Graphic g)
+    {
+        // Nothing rendered, only world update is measured
+    }
+}
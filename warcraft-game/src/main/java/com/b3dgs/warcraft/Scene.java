@@ -17,12 +17,12 @@
 package com.b3dgs.warcraft;
 
 import java.io.IOException;
+import java.util.Locale;
 
 import com.b3dgs.lionengine.Context;
 import com.b3dgs.lionengine.Verbose;
 import com.b3dgs.lionengine.game.feature.Factory;
 import com.b3dgs.lionengine.game.feature.Handler;
-import com.b3dgs.lionengine.game.feature.HandlerPersister;
 import com.b3dgs.lionengine.game.feature.SequenceGame;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
@@ -31,6 +31,10 @@ import com.b3dgs.lionengine.game.feature.tile.map.persister.MapTilePersister;
 import com.b3dgs.lionengine.game.feature.tile.map.persister.MapTilePersisterModel;
 import com.b3dgs.lionengine.io.FileWriting;
 import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.profiler.Tracer;
+import com.b3dgs.warcraft.profiler.Tracing;
+import com.b3dgs.warcraft.world.WorldAutosave;
+import com.b3dgs.warcraft.world.WorldSnapshot;
 
 /**
  * Game scene implementation.
@@ -38,13 +42,14 @@ import com.b3dgs.warcraft.constant.Constant;
 public class Scene extends SequenceGame
 {
     private static final String ERROR_SAVING_MAP = "Error on saving map !";
+    private static final String AUTOSAVE = "autosave_";
 
     /**
      * Import the level and save it.
      * 
      * @param level The level to import.
      */
-    private static void importLevelAndSave(Level level)
+    static void importLevelAndSave(Level level)
     {
         final Services services = new Services();
         services.add(new Factory(services));
@@ -52,13 +57,12 @@ public class Scene extends SequenceGame
 
         final MapTile map = services.create(MapTileGame.class);
         final MapTilePersister mapPersister = map.addFeatureAndGet(new MapTilePersisterModel(services));
-        final HandlerPersister handlerPersister = new HandlerPersister(services);
         map.create(level.getRip());
 
         try (FileWriting output = new FileWriting(level.getFile()))
         {
             mapPersister.save(output);
-            handlerPersister.save(output);
+            WorldSnapshot.saveEmpty(output);
         }
         catch (final IOException exception)
         {
@@ -83,10 +87,25 @@ public class Scene extends SequenceGame
     @Override
     public void load()
     {
+        final Tracer tracer = Tracing.get();
         if (!level.getFile().exists())
         {
+            tracer.beginLoad("import");
             importLevelAndSave(level);
+            tracer.endLoad();
         }
+        tracer.beginLoad("world");
+        ((World) world).setAutosave(AUTOSAVE + level.name().toLowerCase(Locale.ENGLISH),
+                                    Boolean.getBoolean(WorldAutosave.PROPERTY_RESUME));
         world.loadFromFile(level.getFile());
+        tracer.endLoad();
+    }
+
+    @Override
+    public void onTerminated(boolean hasNextSequence)
+    {
+        super.onTerminated(hasNextSequence);
+
+        ((World) world).terminate();
     }
 }
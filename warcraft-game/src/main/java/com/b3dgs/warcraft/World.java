@@ -17,19 +17,24 @@
 package com.b3dgs.warcraft;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.b3dgs.lionengine.Align;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.Verbose;
 import com.b3dgs.lionengine.game.Cursor;
 import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.LayerableModel;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.WorldGame;
 import com.b3dgs.lionengine.game.feature.collidable.ComponentCollision;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Hud;
+import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selector;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
@@ -42,11 +47,39 @@ import com.b3dgs.lionengine.io.FileReading;
 import com.b3dgs.lionengine.io.FileWriting;
 import com.b3dgs.lionengine.io.InputDeviceDirectional;
 import com.b3dgs.lionengine.io.InputDevicePointer;
+import com.b3dgs.warcraft.action.ActionAssets;
+import com.b3dgs.warcraft.ai.AiPlayer;
+import com.b3dgs.warcraft.ai.AiScheduler;
+import com.b3dgs.warcraft.command.Commands;
+import com.b3dgs.warcraft.command.Orders;
 import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.constant.Extension;
 import com.b3dgs.warcraft.constant.Folder;
+import com.b3dgs.warcraft.hud.GlyphText;
+import com.b3dgs.warcraft.hud.HudCache;
+import com.b3dgs.warcraft.net.Lockstep;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityPool;
+import com.b3dgs.warcraft.object.EntityScheduler;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.object.Owners;
+import com.b3dgs.warcraft.profiler.Phase;
+import com.b3dgs.warcraft.profiler.Profiler;
+import com.b3dgs.warcraft.profiler.Tracer;
+import com.b3dgs.warcraft.profiler.Tracing;
+import com.b3dgs.warcraft.scenario.Scenario;
+import com.b3dgs.warcraft.scenario.ScenarioGenerator;
+import com.b3dgs.warcraft.world.WorldAutosave;
+import com.b3dgs.warcraft.world.WorldChecksum;
+import com.b3dgs.warcraft.world.WorldCorpses;
+import com.b3dgs.warcraft.world.WorldFog;
+import com.b3dgs.warcraft.world.WorldInfluence;
 import com.b3dgs.warcraft.world.WorldMap;
 import com.b3dgs.warcraft.world.WorldMinimap;
 import com.b3dgs.warcraft.world.WorldNavigator;
+import com.b3dgs.warcraft.world.WorldOccupancy;
+import com.b3dgs.warcraft.world.WorldReferences;
+import com.b3dgs.warcraft.world.WorldSnapshot;
 
 /**
  * World game representation.
@@ -61,17 +94,45 @@ public class World extends WorldGame
     private static final int RESOURCES_WOOD_X = 170;
     private static final int RESOURCES_GOLD_X = 270;
     private static final int RESOURCES_Y = 2;
+    private static final int START_WOOD = 1000;
+    private static final int START_GOLD = 2000;
+    private static final String FILE_PROFILE = "profile" + Extension.CSV;
+    private static final String ERROR_RESUME = "Unable to resume from autosave !";
 
+    private final Tracer tracer = Tracing.get();
     private final Text text = services.add(Graphics.createText("Verdana", 9, TextStyle.NORMAL));
     private final WorldMap worldMap = new WorldMap(services);
     private final MapTile map = services.get(MapTile.class);
+    private final Resources resources = services.create(Resources.class);
+    private final Players players = services.create(Players.class);
+    private final Owners owners = services.create(Owners.class);
     private final WorldMinimap minimap = new WorldMinimap(services);
     private final Cursor cursor = services.create(Cursor.class);
-    private final Resources resources = services.create(Resources.class);
+    private final HudCache hudCache = services.add(new HudCache(source.getWidth(), source.getHeight()));
+    private final EntityTypes types = services.create(EntityTypes.class);
+    private final EntityPool pool = services.create(EntityPool.class);
+    private final EntityScheduler scheduler = services.create(EntityScheduler.class);
+    private final WorldCorpses corpses = services.create(WorldCorpses.class);
+    private final WorldFog fog = services.create(WorldFog.class);
+    private final WorldInfluence influence = services.create(WorldInfluence.class);
+    private final AiScheduler ai = services.create(AiScheduler.class);
+    private final WorldOccupancy occupancy = services.create(WorldOccupancy.class);
+    private final WorldSnapshot snapshot = new WorldSnapshot(services);
+    private final GlyphText glyphs;
+    private final Profiler profiler;
     private final Hud hud;
     private final Selector selector;
     private final WorldNavigator navigator;
+    private final WorldChecksum checksum;
+    private final Lockstep lockstep;
     private final InputDevicePointer pointer = services.add(getInputDevice(InputDevicePointer.class));
+    private int shownWood;
+    private int shownGold;
+    private int shownFoodConsumed;
+    private int shownFoodAvailable;
+    private Scenario scenario;
+    private WorldAutosave autosave;
+    private boolean resume;
 
     /**
      * Create the world.
@@ -88,6 +149,14 @@ public class World extends WorldGame
 
         handler.addComponent(services.add(new ComponentCollision()));
 
+        types.load();
+        services.create(WorldReferences.class);
+        checksum = services.create(WorldChecksum.class);
+        services.create(Commands.class);
+        services.create(Orders.class);
+        lockstep = services.create(Lockstep.class);
+        services.create(ActionAssets.class).prewarm();
+
         hud = services.add(factory.create(Medias.create("Hud.xml")));
         handler.add(hud);
 
@@ -98,6 +167,15 @@ public class World extends WorldGame
         selector.setClickableArea(camera);
         selector.setSelectionColor(ColorRgba.GREEN);
         selector.setClickSelection(1);
+        selector.addListener(selection ->
+        {
+            final int n = selection.size();
+            for (int i = 0; i < n; i++)
+            {
+                selection.get(i).getFeature(EntityModel.class).wake();
+            }
+            filterSelection(selection);
+        });
 
         hud.addListener(() ->
         {
@@ -109,19 +187,168 @@ public class World extends WorldGame
 
         text.setLocation(TEXT_X, TEXT_Y);
         text.setColor(TEXT_COLOR);
+        glyphs = services.add(new GlyphText(text));
+        profiler = services.create(Profiler.class);
+        profiler.setAllocationTracking(Boolean.getBoolean(Profiler.PROPERTY_ALLOCATIONS));
+        if (Tracing.isEnabled())
+        {
+            handler.addListener(new HandlerListener()
+            {
+                @Override
+                public void notifyHandlableAdded(Featurable featurable)
+                {
+                    if (featurable.hasFeature(EntityModel.class))
+                    {
+                        tracer.notifySpawned(featurable.getFeature(Identifiable.class).getId().intValue(),
+                                             featurable.getMedia().getPath());
+                    }
+                }
+
+                @Override
+                public void notifyHandlableRemoved(Featurable featurable)
+                {
+                    if (featurable.hasFeature(EntityModel.class))
+                    {
+                        tracer.notifyDespawned(featurable.getFeature(Identifiable.class).getId().intValue(),
+                                               featurable.getMedia().getPath());
+                    }
+                }
+            });
+        }
+        hudCache.add(g ->
+        {
+            glyphs.draw(g, RESOURCES_WOOD_X, RESOURCES_Y, Align.RIGHT, shownWood);
+            glyphs.draw(g, RESOURCES_GOLD_X, RESOURCES_Y, Align.RIGHT, shownGold);
+        });
+    }
+
+    /**
+     * Keep only local player entities when selection contains some. Selection of other players entities is kept for
+     * inspection only, without any menu.
+     * 
+     * @param selection The current selection.
+     */
+    private void filterSelection(List<Selectable> selection)
+    {
+        boolean local = false;
+        final int n = selection.size();
+        for (int i = 0; i < n && !local; i++)
+        {
+            local = owners.isLocal(selection.get(i).getFeature(Identifiable.class).getId().intValue());
+        }
+        if (local)
+        {
+            for (int i = n - 1; i >= 0; i--)
+            {
+                final Selectable selectable = selection.get(i);
+                if (!owners.isLocal(selectable.getFeature(Identifiable.class).getId().intValue()))
+                {
+                    selection.remove(i);
+                    selectable.onSelection(false);
+                }
+            }
+        }
+        else
+        {
+            hud.clearMenus();
+        }
+    }
+
+    /**
+     * Get world service.
+     * 
+     * @param <S> The service type.
+     * @param service The service class.
+     * @return The service instance.
+     * @throws LionEngineException If service not found.
+     */
+    <S> S getService(Class<S> service)
+    {
+        return services.get(service);
+    }
+
+    /**
+     * Set scenario spawned on next loading instead of the level entities. Computer players are not created.
+     * 
+     * @param scenario The scenario to spawn (<code>null</code> to use level entities).
+     */
+    public void setScenario(Scenario scenario)
+    {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Enable periodic autosave, with tick hashes logged next to it for replay checks, disabled by default. Must be
+     * called before loading.
+     * 
+     * @param name The autosave name, unique per world instance as files are named after it.
+     * @param resume <code>true</code> to restore last autosave on loading if any, <code>false</code> else.
+     */
+    public void setAutosave(String name, boolean resume)
+    {
+        autosave = new WorldAutosave(services, name);
+        checksum.startLog(Medias.create(name + Extension.HASHES), resume);
+        this.resume = resume;
+    }
+
+    /**
+     * Terminate world, stopping its background tasks and exporting profile. Must be called when world ends.
+     */
+    public void terminate()
+    {
+        if (autosave != null)
+        {
+            autosave.close();
+            checksum.stopLog();
+        }
+        profiler.export(Medias.create(FILE_PROFILE));
+    }
+
+    /**
+     * Load last autosave if resume is enabled.
+     * 
+     * @return The autosave snapshot, <code>null</code> if none or resume disabled.
+     */
+    private WorldSnapshot loadAutosave()
+    {
+        if (autosave != null && resume)
+        {
+            try
+            {
+                return autosave.load();
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, ERROR_RESUME);
+            }
+        }
+        return null;
     }
 
     @Override
     protected void saving(FileWriting file) throws IOException
     {
         worldMap.save(file);
+
+        snapshot.capture();
+        snapshot.save(file);
     }
 
     @Override
     protected void loading(FileReading file) throws IOException
     {
+        tracer.beginLoad("map");
         worldMap.load(file);
+        tracer.endLoad();
+
+        tracer.beginLoad("systems");
         minimap.load();
+        checksum.load();
+        occupancy.load();
+        corpses.clear();
+        fog.load();
+        influence.load();
+        tracer.endLoad();
 
         camera.setLimits(map);
 
@@ -132,9 +359,33 @@ public class World extends WorldGame
         cursor.setInputDevice(pointer);
         cursor.setViewer(camera);
 
-        final int baseX = 10;
-        final int baseY = 10;
-        createBase(baseX, baseY);
+        tracer.beginLoad("entities");
+        snapshot.load(file);
+        if (scenario != null)
+        {
+            services.create(ScenarioGenerator.class).generate(scenario);
+        }
+        else
+        {
+            final WorldSnapshot saved = loadAutosave();
+            if (saved != null)
+            {
+                saved.restore();
+            }
+            else if (snapshot.isEmpty())
+            {
+                final int baseX = 10;
+                final int baseY = 10;
+                createBase(baseX, baseY);
+                createComputerBase(map.getInTileWidth() - baseX, map.getInTileHeight() - baseY);
+            }
+            else
+            {
+                snapshot.restore();
+            }
+            createComputers();
+        }
+        tracer.endLoad();
     }
 
     /**
@@ -145,14 +396,46 @@ public class World extends WorldGame
      */
     private void createBase(int tx, int ty)
     {
+        resources.set(START_WOOD, START_GOLD, 0, 0);
+
         spawn(Medias.create(Folder.ORCS, "Peon.xml"), tx, ty);
-        spawn(Medias.create(Folder.ORCS, "TownHallOrc.xml"), tx + 6, ty - 5);
+        spawn(Medias.create(Folder.ORCS, "TownhallOrc.xml"), tx + 6, ty - 5);
         spawn(Medias.create(Folder.NEUTRAL, "GoldMine.xml"), tx + 4, ty);
 
         final Transformable grunt = spawn(Medias.create(Folder.ORCS, "Grunt.xml"), tx + 2, ty + 1);
         camera.teleport(grunt.getX() - camera.getWidth() / 2, grunt.getY() - camera.getHeight() / 2);
     }
 
+    /**
+     * Create computer player base, mirrored from the player base.
+     * 
+     * @param tx The horizontal tile base.
+     * @param ty The vertical tile base.
+     */
+    private void createComputerBase(int tx, int ty)
+    {
+        players.get(players.getDefault(Constant.RACE_COMPUTER)).set(START_WOOD, START_GOLD, 0, 0);
+
+        spawn(Medias.create(Folder.HUMANS, "Peasant.xml"), tx, ty);
+        spawn(Medias.create(Folder.HUMANS, "TownhallHuman.xml"), tx - 8, ty - 5);
+        spawn(Medias.create(Folder.NEUTRAL, "GoldMine.xml"), tx - 6, ty);
+        spawn(Medias.create(Folder.HUMANS, "Footman.xml"), tx - 2, ty + 1);
+    }
+
+    /**
+     * Create computer players.
+     */
+    private void createComputers()
+    {
+        ai.add(new AiPlayer(services,
+                            players.getDefault(Constant.RACE_COMPUTER),
+                            Medias.create(Folder.HUMANS, "Peasant.xml"),
+                            Medias.create(Folder.HUMANS, "Footman.xml"),
+                            Medias.create(Folder.HUMANS, "TownhallHuman.xml"),
+                            Medias.create(Folder.HUMANS, "BarracksHuman.xml"),
+                            Medias.create(Folder.HUMANS, "FarmHuman.xml")));
+    }
+
     /**
      * Spawn a {@link Featurable} at specified location. Must have {@link Transformable} feature.
      * 
@@ -167,37 +450,98 @@ public class World extends WorldGame
         final int tw = map.getTileWidth();
         final int th = map.getTileHeight();
 
-        final Featurable featurable = super.spawn(media, tx * tw, ty * th);
+        final Featurable featurable = pool.acquire(media);
+        featurable.getFeature(Transformable.class).teleport(tx * tw, ty * th);
         featurable.getFeature(Pathfindable.class).setLocation(tx, ty);
+        handler.add(featurable);
 
         return featurable.getFeature(Transformable.class);
     }
 
+    /**
+     * Invalidate HUD cache if displayed resources have changed.
+     */
+    private void updateHudResources()
+    {
+        final int wood = resources.getWood().getValue();
+        final int gold = resources.getGold().getValue();
+        final int consumed = resources.getConsumedFood();
+        final int available = resources.getAvailableFood();
+        if (wood != shownWood || gold != shownGold || consumed != shownFoodConsumed || available != shownFoodAvailable)
+        {
+            shownWood = wood;
+            shownGold = gold;
+            shownFoodConsumed = consumed;
+            shownFoodAvailable = available;
+            hudCache.invalidate();
+        }
+    }
+
     @Override
     public void update(double extrp)
     {
+        tracer.beginFrame();
         text.setText(com.b3dgs.lionengine.Constant.EMPTY_STRING);
 
+        long time = profiler.start();
         pointer.update(extrp);
+        time = profiler.lap(Phase.UPDATE_POINTER, time);
         cursor.update(extrp);
+        time = profiler.lap(Phase.UPDATE_CURSOR, time);
         navigator.update(extrp);
+        time = profiler.lap(Phase.UPDATE_NAVIGATOR, time);
         resources.update(extrp);
+        updateHudResources();
+        time = profiler.lap(Phase.UPDATE_RESOURCES, time);
 
+        if (lockstep.step())
+        {
+            simulate(lockstep.isActive() ? 1.0 : extrp, time);
+        }
+        profiler.update(extrp);
+    }
+
+    /**
+     * Advance simulation by one tick.
+     * 
+     * @param extrp The extrapolation value, fixed while in lockstep.
+     * @param start The profiler lap start.
+     */
+    private void simulate(double extrp, long start)
+    {
+        scheduler.update(extrp);
         super.update(extrp);
+        final long time = profiler.lap(Phase.UPDATE_HANDLER, start);
+
+        players.update(extrp);
+        influence.update(extrp);
+        ai.update(extrp);
+
+        checksum.update(extrp);
+        if (autosave != null)
+        {
+            autosave.update(extrp);
+        }
+        profiler.lap(Phase.UPDATE_SYSTEMS, time);
     }
 
     @Override
     public void render(Graphic g)
     {
+        long time = profiler.start();
         super.render(g);
+        time = profiler.lap(Phase.RENDER_WORLD, time);
 
         minimap.render(g);
+        time = profiler.lap(Phase.RENDER_MINIMAP, time);
         text.render(g);
-        text.draw(g, RESOURCES_WOOD_X, RESOURCES_Y, Align.RIGHT, String.valueOf(resources.getWood()));
-        text.draw(g, RESOURCES_GOLD_X, RESOURCES_Y, Align.RIGHT, String.valueOf(resources.getGold()));
+        time = profiler.lap(Phase.RENDER_TEXT, time);
         if (!cursor.hasClicked(2))
         {
             cursor.render(g);
         }
+        profiler.lap(Phase.RENDER_CURSOR, time);
+        profiler.render(g);
+        tracer.endFrame();
     }
 }
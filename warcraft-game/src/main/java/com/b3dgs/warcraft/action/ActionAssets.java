@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.action;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.game.feature.Factory;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.drawable.Drawable;
+import com.b3dgs.lionengine.graphic.drawable.SpriteAnimated;
+import com.b3dgs.lionengine.graphic.drawable.SpriteTiled;
+import com.b3dgs.warcraft.constant.Extension;
+import com.b3dgs.warcraft.constant.Folder;
+
+/**
+ * Shared action buttons assets.
+ * <p>
+ * Button background is decoded once, and icons sheets are shared through the factory setups. Sprites created from
+ * there only reference the shared surfaces, so buttons created on each selection change do not decode any image.
+ * </p>
+ */
+public class ActionAssets
+{
+    private static final int ICON_WIDTH = 27;
+    private static final int ICON_HEIGHT = 19;
+    private static final String[] RACES =
+    {
+        "orc", "human"
+    };
+
+    private final Set<Setup> prepared = new HashSet<>();
+    private final Factory factory;
+    private final ImageBuffer background;
+
+    /**
+     * Create assets.
+     * 
+     * @param services The services reference.
+     */
+    public ActionAssets(Services services)
+    {
+        super();
+
+        factory = services.get(Factory.class);
+        background = Graphics.getImageBuffer(Medias.create("action_background.png"));
+        background.prepare();
+    }
+
+    /**
+     * Load all actions setups and icons, so they are ready before first selection.
+     */
+    public void prewarm()
+    {
+        for (final String race : RACES)
+        {
+            for (final Media media : Medias.create(Folder.ACTIONS, race).getMedias())
+            {
+                if (media.getPath().endsWith(Extension.XML))
+                {
+                    prepare(factory.getSetup(media));
+                }
+            }
+        }
+    }
+
+    /**
+     * Create button background sprite, sharing pool surface.
+     * 
+     * @return The background sprite.
+     */
+    public SpriteAnimated createBackground()
+    {
+        return Drawable.loadSpriteAnimated(background, 2, 1);
+    }
+
+    /**
+     * Create button icon sprite, sharing setup surface.
+     * 
+     * @param setup The action setup.
+     * @return The icon sprite.
+     */
+    public SpriteTiled createIcon(Setup setup)
+    {
+        prepare(setup);
+        return Drawable.loadSpriteTiled(setup.getSurface(), ICON_WIDTH, ICON_HEIGHT);
+    }
+
+    /**
+     * Prepare setup surface once.
+     * 
+     * @param setup The action setup.
+     */
+    private void prepare(Setup setup)
+    {
+        if (prepared.add(setup))
+        {
+            setup.getSurface().prepare();
+        }
+    }
+}
@@ -18,7 +18,6 @@ package com.b3dgs.warcraft.action;
 
 import java.util.concurrent.atomic.AtomicReference;
 
-import com.b3dgs.lionengine.Medias;
 import com.b3dgs.lionengine.Updatable;
 import com.b3dgs.lionengine.game.Cursor;
 import com.b3dgs.lionengine.game.feature.Actionable;
@@ -26,6 +25,7 @@ import com.b3dgs.lionengine.game.feature.ActionableModel;
 import com.b3dgs.lionengine.game.feature.DisplayableModel;
 import com.b3dgs.lionengine.game.feature.FeaturableModel;
 import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.LayerableModel;
 import com.b3dgs.lionengine.game.feature.RefreshableModel;
 import com.b3dgs.lionengine.game.feature.Services;
@@ -34,14 +34,15 @@ import com.b3dgs.lionengine.game.feature.assignable.Assignable;
 import com.b3dgs.lionengine.game.feature.assignable.AssignableModel;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selector;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.Renderable;
 import com.b3dgs.lionengine.graphic.Text;
-import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.SpriteAnimated;
 import com.b3dgs.lionengine.graphic.drawable.SpriteTiled;
+import com.b3dgs.warcraft.command.Orders;
 import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.hud.HudCache;
+import com.b3dgs.warcraft.world.WorldOccupancy;
 
 /**
  * Action model implementation..
@@ -61,8 +62,8 @@ public class ActionModel extends FeaturableModel implements Updatable, Renderabl
     protected final Services services;
     /** Map reference. */
     protected final MapTile map;
-    /** Map path reference. */
-    protected final MapTilePath mapPath;
+    /** Occupancy reference. */
+    protected final WorldOccupancy occupancy;
     /** Cursor reference. */
     protected final Cursor cursor;
     /** Selector reference. */
@@ -71,6 +72,12 @@ public class ActionModel extends FeaturableModel implements Updatable, Renderabl
     protected final Handler handler;
     /** Text reference. */
     protected final Text text;
+    /** HUD cache reference. */
+    protected final HudCache hudCache;
+    /** Orders reference. */
+    protected final Orders orders;
+
+    private boolean enabled;
 
     /**
      * Create move action.
@@ -84,17 +91,18 @@ public class ActionModel extends FeaturableModel implements Updatable, Renderabl
 
         this.services = services;
         map = services.get(MapTile.class);
-        mapPath = services.get(MapTilePath.class);
+        occupancy = services.get(WorldOccupancy.class);
         cursor = services.get(Cursor.class);
         selector = services.get(Selector.class);
         handler = services.get(Handler.class);
         text = services.get(Text.class);
+        hudCache = services.get(HudCache.class);
+        orders = services.get(Orders.class);
 
         addFeature(new LayerableModel(Constant.LAYER_SELECTION, Constant.LAYER_MENUS_RENDER));
 
-        final SpriteAnimated background = Drawable.loadSpriteAnimated(Medias.create("action_background.png"), 2, 1);
-        background.load();
-        background.prepare();
+        final ActionAssets assets = services.get(ActionAssets.class);
+        final SpriteAnimated background = assets.createBackground();
 
         actionable = addFeatureAndGet(new ActionableModel(services, setup));
         state = new AtomicReference<>(actionable);
@@ -120,7 +128,7 @@ public class ActionModel extends FeaturableModel implements Updatable, Renderabl
             state.set(actionable);
         });
 
-        final SpriteTiled surface = Drawable.loadSpriteTiled(setup.getSurface(), 27, 19);
+        final SpriteTiled surface = assets.createIcon(setup);
         surface.setLocation(actionable.getButton().getX(), actionable.getButton().getY());
         background.setLocation(actionable.getButton().getX() - 2, actionable.getButton().getY() - 2);
 
@@ -130,16 +138,31 @@ public class ActionModel extends FeaturableModel implements Updatable, Renderabl
             {
                 text.setText(actionable.getDescription());
             }
+            if (enabled != actionable.isEnabled())
+            {
+                enabled = actionable.isEnabled();
+                hudCache.invalidate();
+            }
             state.get().update(extrp);
             ActionModel.this.update(extrp);
         }));
 
-        addFeature(new DisplayableModel(g ->
+        final Renderable button = g ->
         {
             if (actionable.isEnabled())
             {
                 background.render(g);
                 surface.render(g);
+                ActionModel.this.renderCached(g);
+            }
+        };
+        hudCache.add(button);
+        getFeature(Identifiable.class).addListener(id -> hudCache.remove(button));
+
+        addFeature(new DisplayableModel(g ->
+        {
+            if (actionable.isEnabled())
+            {
                 ActionModel.this.render(g);
             }
         }));
@@ -170,6 +193,16 @@ public class ActionModel extends FeaturableModel implements Updatable, Renderabl
         // Nothing by default
     }
 
+    /**
+     * Render on HUD cache, after button. Only called when cache is invalidated. Does nothing by default.
+     * 
+     * @param g The graphic output.
+     */
+    protected void renderCached(Graphic g)
+    {
+        // Nothing by default
+    }
+
     /**
      * {@inheritDoc} Does nothing by default.
      */
@@ -18,18 +18,20 @@ package com.b3dgs.warcraft.action;
 
 import java.util.List;
 
+import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.Transformable;
-import com.b3dgs.lionengine.game.feature.attackable.Attacker;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.object.Owners;
+import com.b3dgs.warcraft.world.WorldOccupancy;
 
 /**
  * Attack action.
  */
 public class Attack extends ActionModel
 {
+    private final Owners owners;
+
     /**
      * Create attack action.
      * 
@@ -39,6 +41,8 @@ public class Attack extends ActionModel
     public Attack(Services services, Setup setup)
     {
         super(services, setup);
+
+        owners = services.get(Owners.class);
     }
 
     @Override
@@ -46,16 +50,19 @@ public class Attack extends ActionModel
     {
         final List<Selectable> selection = selector.getSelection();
         final int n = selection.size();
+        final int tx = map.getInTileX(cursor);
+        final int ty = map.getInTileY(cursor);
         for (int i = 0; i < n; i++)
         {
-            final int tx = map.getInTileX(cursor);
-            final int ty = map.getInTileY(cursor);
-
-            for (final Integer id : mapPath.getObjectsId(tx, ty))
+            final Selectable unit = selection.get(i);
+            final int id = unit.getFeature(Identifiable.class).getId().intValue();
+            for (int slot = occupancy.first(tx, ty); slot != WorldOccupancy.NONE; slot = occupancy.next(slot))
             {
-                final Transformable transformable = handler.get(id).getFeature(Transformable.class);
-                selection.get(i).getFeature(Pathfindable.class).setDestination(transformable);
-                selection.get(i).getFeature(Attacker.class).attack(transformable);
+                if (owners.isHostile(id, occupancy.getId(slot)))
+                {
+                    orders.attack(unit, occupancy.getFeaturable(slot));
+                    break;
+                }
             }
         }
     }
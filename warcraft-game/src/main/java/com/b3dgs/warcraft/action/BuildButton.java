@@ -17,43 +17,31 @@
 package com.b3dgs.warcraft.action;
 
 import com.b3dgs.lionengine.Localizable;
-import com.b3dgs.lionengine.Media;
-import com.b3dgs.lionengine.Medias;
 import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.UtilMath;
 import com.b3dgs.lionengine.Viewer;
-import com.b3dgs.lionengine.Xml;
 import com.b3dgs.lionengine.game.SizeConfig;
-import com.b3dgs.lionengine.game.feature.Factory;
-import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Hud;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selector;
-import com.b3dgs.lionengine.game.feature.producible.Producer;
-import com.b3dgs.lionengine.game.feature.producible.ProducerListenerVoid;
-import com.b3dgs.lionengine.game.feature.producible.Producible;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.CoordTile;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.lionengine.geom.Rectangle;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.io.InputDevicePointer;
-import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
 
 /**
  * Build button action.
  */
 public class BuildButton extends ActionModel
 {
-    private final Media target;
+    private final EntityType target;
     private Rectangle area;
 
-    private final Factory factory;
     private final Viewer viewer;
     private final Selector selector;
     private final MapTile map;
@@ -70,20 +58,19 @@ public class BuildButton extends ActionModel
     {
         super(services, setup);
 
-        factory = services.get(Factory.class);
         viewer = services.get(Viewer.class);
         selector = services.get(Selector.class);
         map = services.get(MapTile.class);
         pointer = services.get(InputDevicePointer.class);
         hud = services.get(Hud.class);
 
-        target = Medias.create(setup.getText("media").split("/"));
+        target = services.get(EntityTypes.class).get(setup.getText("media"));
     }
 
     @Override
     protected void action()
     {
-        final SizeConfig size = SizeConfig.imports(new Xml(target));
+        final SizeConfig size = target.getSize();
         area = new Rectangle(0, 0, size.getWidth(), size.getHeight());
         cursor.setVisible(false);
         hud.setCancelShortcut(() -> pointer.hasClickedOnce(3));
@@ -92,44 +79,11 @@ public class BuildButton extends ActionModel
     @Override
     protected void assign()
     {
+        final int tx = (int) area.getX() / map.getTileWidth();
+        final int ty = (int) area.getY() / map.getTileHeight();
         for (final Selectable selectable : selector.getSelection())
         {
-            final Featurable building = factory.create(target);
-            final Producible producible = building.getFeature(Producible.class);
-            producible.setLocation(area.getX(), area.getY());
-
-            final Producer producer = selectable.getFeature(Producer.class);
-            final Transformable transformable = producer.getFeature(Transformable.class);
-            producer.setChecker(featurable -> UtilMath.getDistance(featurable.getFeature(Producible.class),
-                                                                   transformable) < map.getTileWidth());
-
-            producer.addToProductionQueue(building);
-
-            final Pathfindable pathfindable = producer.getFeature(Pathfindable.class);
-            pathfindable.setDestination(area);
-
-            final EntityModel model = producer.getFeature(EntityModel.class);
-            producer.addListener(new ProducerListenerVoid()
-            {
-                @Override
-                public void notifyStartProduction(Featurable featurable)
-                {
-                    model.setVisible(false);
-                }
-
-                @Override
-                public void notifyProduced(Featurable featurable)
-                {
-                    pathfindable.clearPath();
-
-                    final CoordTile coord = map.getFeature(MapTilePath.class)
-                                               .getFreeTileAround(pathfindable,
-                                                                  featurable.getFeature(Pathfindable.class));
-                    pathfindable.setLocation(coord);
-
-                    model.setVisible(true);
-                }
-            });
+            orders.build(selectable, target, tx, ty);
         }
         area = null;
         cursor.setVisible(true);
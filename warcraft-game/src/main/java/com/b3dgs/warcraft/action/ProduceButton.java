@@ -18,28 +18,20 @@ package com.b3dgs.warcraft.action;
 
 import java.util.List;
 
-import com.b3dgs.lionengine.Constant;
-import com.b3dgs.lionengine.Media;
-import com.b3dgs.lionengine.Medias;
 import com.b3dgs.lionengine.game.Bar;
 import com.b3dgs.lionengine.game.feature.Actionable;
-import com.b3dgs.lionengine.game.feature.Factory;
-import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.producible.Producer;
-import com.b3dgs.lionengine.game.feature.producible.Producible;
 import com.b3dgs.lionengine.game.feature.producible.ProducibleListener;
 import com.b3dgs.lionengine.game.feature.producible.ProducibleListenerVoid;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.CoordTile;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.lionengine.geom.Area;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
-import com.b3dgs.warcraft.Resources;
-import com.b3dgs.warcraft.object.feature.FoodConsumer;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.object.feature.Production;
 
 /**
  * Produce button action.
@@ -65,6 +57,8 @@ public class ProduceButton extends ActionModel
 
     /** Production progress bar. */
     private final Bar progress = createBar(actionable);
+    /** Displayed progress percent. */
+    private int percent;
 
     /**
      * Create build button action.
@@ -76,74 +70,55 @@ public class ProduceButton extends ActionModel
     {
         super(services, setup);
 
-        final Media target = Medias.create(setup.getText("media").split(Constant.SLASH));
-        final Factory factory = services.get(Factory.class);
-        final Resources food = services.get(Resources.class);
+        final EntityType target = services.get(EntityTypes.class).get(setup.getText("media"));
 
         actionable.setAction(() ->
         {
-            if (food.isAvailableFood())
+            final List<Selectable> selection = selector.getSelection();
+            final int n = selection.size();
+            for (int i = 0; i < n; i++)
             {
-                final Featurable entity = factory.create(target);
-                if (entity.hasFeature(FoodConsumer.class))
-                {
-                    food.consumeFood();
-                }
-                final Producible producible = entity.getFeature(Producible.class);
-                producible.addListener(createListener(producible));
-
-                final List<Selectable> selection = selector.getSelection();
-                final int n = selection.size();
-                for (int i = 0; i < n; i++)
-                {
-                    final Producer producer = selection.get(i).getFeature(Producer.class);
-                    producer.addToProductionQueue(entity);
-                }
+                orders.produce(selection.get(i),
+                               target,
+                               producible -> producible.getFeature(Production.class).setObserver(createListener()));
             }
         });
     }
 
     /**
-     * Create production listener.
+     * Create production progress listener. Listener is only notified for this production, as producible may be pooled
+     * and reused later.
      * 
-     * @param producible The producible in production.
      * @return The created listener.
      */
-    private ProducibleListener createListener(Producible producible)
+    private ProducibleListener createListener()
     {
         return new ProducibleListenerVoid()
         {
             @Override
             public void notifyProductionProgress(Producer producer)
             {
-                progress.setWidthPercent(producer.getProgressPercent());
+                final int current = producer.getProgressPercent();
+                if (current != percent)
+                {
+                    percent = current;
+                    progress.setWidthPercent(percent);
+                    hudCache.invalidate();
+                }
             }
 
             @Override
             public void notifyProductionEnded(Producer producer)
             {
-                teleportOutside(producible, producer);
+                percent = 0;
                 progress.setWidthPercent(0);
+                hudCache.invalidate();
             }
         };
     }
 
-    /**
-     * Teleport producer outside producible area.
-     * 
-     * @param producible The producible reference.
-     * @param producer The producer to teleport.
-     */
-    private void teleportOutside(Producible producible, Producer producer)
-    {
-        final Pathfindable pathfindable = producible.getFeature(Pathfindable.class);
-        final CoordTile coord = map.getFeature(MapTilePath.class)
-                                   .getFreeTileAround(pathfindable, producer.getFeature(Pathfindable.class));
-        pathfindable.setLocation(coord);
-    }
-
     @Override
-    public void render(Graphic g)
+    protected void renderCached(Graphic g)
     {
         progress.render(g);
     }
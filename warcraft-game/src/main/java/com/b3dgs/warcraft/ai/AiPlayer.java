@@ -0,0 +1,660 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.ai;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.producible.Producer;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractable;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.Ledger;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.Resources;
+import com.b3dgs.warcraft.command.Commands;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.object.state.StateIdle;
+import com.b3dgs.warcraft.world.WorldFog;
+import com.b3dgs.warcraft.world.WorldInfluence;
+import com.b3dgs.warcraft.world.WorldOccupancy;
+import com.b3dgs.warcraft.world.WorldReferences;
+
+/**
+ * Computer player, thinking in three steps so its work can be spread across frames by {@link AiScheduler}:
+ * <ul>
+ * <li>perceive: copy owned entities, enemies and resources into its view (main thread),</li>
+ * <li>decide: compute orders from view only (main or worker thread),</li>
+ * <li>apply: issue orders through {@link Commands} (main thread).</li>
+ * </ul>
+ * It gathers gold, builds a farm when out of food and a barracks, produces workers and soldiers, and attacks the
+ * closest and least supported enemy once enough soldiers are idle. Workers are sent to mines which are not threatened
+ * when possible, as read from {@link WorldInfluence}. Mobile enemies are only perceived while visible in its
+ * {@link WorldFog}, whereas enemy buildings are always known as they do not move.
+ */
+public class AiPlayer
+{
+    /** Worker role. */
+    static final int WORKER = 0;
+    /** Soldier role. */
+    static final int SOLDIER = 1;
+    /** Town hall role. */
+    static final int HALL = 2;
+    /** Barracks role. */
+    static final int BARRACKS = 3;
+    /** Farm role. */
+    static final int FARM = 4;
+    /** Other role. */
+    static final int OTHER = 5;
+
+    private static final int STEP_WAIT = 0;
+    private static final int STEP_DECIDE = 1;
+    private static final int STEP_PENDING = 2;
+    private static final int STEP_APPLY = 3;
+
+    private static final int ORDER_EXTRACT = 0;
+    private static final int ORDER_PRODUCE = 1;
+    private static final int ORDER_BUILD = 2;
+    private static final int ORDER_ATTACK = 3;
+    private static final int ORDERS_MAX = 64;
+
+    private static final int MAX_WORKERS = 5;
+    private static final int ATTACK_GROUP = 4;
+    private static final int BUILD_DELAY = 10;
+    private static final int BUILD_RADIUS = 8;
+    private static final int SUPPORT_PER_TILE = 10;
+    private static final String ERROR_DECIDE = "Computer player decision failed: ";
+
+    /**
+     * Get squared distance between two tiles.
+     * 
+     * @param x1 The first horizontal tile.
+     * @param y1 The first vertical tile.
+     * @param x2 The second horizontal tile.
+     * @param y2 The second vertical tile.
+     * @return The squared distance.
+     */
+    private static int distance(int x1, int y1, int x2, int y2)
+    {
+        final int dx = x2 - x1;
+        final int dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+
+    private final AiView view = new AiView();
+    private final int[] orderKind = new int[ORDERS_MAX];
+    private final int[] orderUnit = new int[ORDERS_MAX];
+    private final int[] orderTarget = new int[ORDERS_MAX];
+    private final int[] orderX = new int[ORDERS_MAX];
+    private final int[] orderY = new int[ORDERS_MAX];
+    private final EntityType[] roster = new EntityType[OTHER];
+    private final int player;
+    private final Players players;
+    private final Resources resources;
+    private final Handler handler;
+    private final MapTile map;
+    private final WorldOccupancy occupancy;
+    private final WorldInfluence influence;
+    private final WorldFog fog;
+    private final Commands commands;
+    private final WorldReferences references;
+
+    private int orders;
+    private int buildDelay;
+    private int step = STEP_WAIT;
+    private int lastThink;
+    private Future<?> pending;
+
+    /**
+     * Create computer player.
+     * 
+     * @param services The services reference.
+     * @param player The owned player id.
+     * @param worker The worker type media.
+     * @param soldier The soldier type media.
+     * @param hall The town hall type media.
+     * @param barracks The barracks type media.
+     * @param farm The farm type media.
+     */
+    public AiPlayer(Services services,
+                    int player,
+                    Media worker,
+                    Media soldier,
+                    Media hall,
+                    Media barracks,
+                    Media farm)
+    {
+        super();
+
+        this.player = player;
+        players = services.get(Players.class);
+        resources = players.get(player);
+        handler = services.get(Handler.class);
+        map = services.get(MapTile.class);
+        occupancy = services.get(WorldOccupancy.class);
+        influence = services.get(WorldInfluence.class);
+        fog = services.get(WorldFog.class);
+        commands = services.get(Commands.class);
+        references = services.get(WorldReferences.class);
+
+        final EntityTypes types = services.get(EntityTypes.class);
+        roster[WORKER] = types.get(worker);
+        roster[SOLDIER] = types.get(soldier);
+        roster[HALL] = types.get(hall);
+        roster[BARRACKS] = types.get(barracks);
+        roster[FARM] = types.get(farm);
+    }
+
+    /**
+     * Get owned player.
+     * 
+     * @return The owned player id.
+     */
+    public int getPlayer()
+    {
+        return player;
+    }
+
+    /**
+     * Set last think tick, used to stagger players.
+     * 
+     * @param tick The tick.
+     */
+    void setLastThink(int tick)
+    {
+        lastThink = tick;
+    }
+
+    /**
+     * Execute next thinking step.
+     * 
+     * @param tick The current tick.
+     * @param period The ticks between two thinks.
+     * @param executor The decision executor, <code>null</code> to decide on main thread (pending decision is awaited).
+     * @return <code>true</code> if a step has been executed, <code>false</code> if waiting.
+     */
+    boolean step(int tick, int period, ExecutorService executor)
+    {
+        switch (step)
+        {
+            case STEP_WAIT:
+                if (tick - lastThink < period)
+                {
+                    return false;
+                }
+                perceive();
+                step = STEP_DECIDE;
+                break;
+            case STEP_DECIDE:
+                if (executor == null)
+                {
+                    decide();
+                    step = STEP_APPLY;
+                }
+                else
+                {
+                    pending = executor.submit(this::decide);
+                    step = STEP_PENDING;
+                }
+                break;
+            case STEP_PENDING:
+                if (executor != null && !pending.isDone())
+                {
+                    return false;
+                }
+                complete();
+                step = STEP_APPLY;
+                break;
+            case STEP_APPLY:
+                apply();
+                lastThink = tick;
+                step = STEP_WAIT;
+                break;
+            default:
+                step = STEP_WAIT;
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Complete pending decision, discarding orders on failure.
+     */
+    private void complete()
+    {
+        try
+        {
+            pending.get();
+        }
+        catch (final ExecutionException exception)
+        {
+            Verbose.exception(exception, ERROR_DECIDE, String.valueOf(player));
+            orders = 0;
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            orders = 0;
+        }
+        pending = null;
+    }
+
+    /**
+     * Copy world state to view.
+     */
+    private void perceive()
+    {
+        view.clear();
+        for (final EntityModel model : handler.get(EntityModel.class))
+        {
+            if (!model.isDead())
+            {
+                perceive(model);
+            }
+        }
+        view.gold = resources.getLedger().getAvailable(Ledger.GOLD);
+        view.wood = resources.getLedger().getAvailable(Ledger.WOOD);
+        view.food = resources.getLedger().getAvailable(Ledger.FOOD);
+    }
+
+    /**
+     * Copy entity to view.
+     * 
+     * @param model The entity model.
+     */
+    private void perceive(EntityModel model)
+    {
+        final Featurable featurable = model.getFeaturable();
+        final Pathfindable pathfindable = featurable.getFeature(Pathfindable.class);
+        final int tx = pathfindable.getInTileX();
+        final int ty = pathfindable.getInTileY();
+        final int owner = model.getOwner();
+
+        if (owner == player)
+        {
+            final int role = getRole(model.getType());
+            view.addUnit(references.get(featurable), role, tx, ty, isIdle(model, role));
+        }
+        else if (featurable.hasFeature(Extractable.class))
+        {
+            view.addMine(tx, ty, influence.getThreat(player, tx, ty));
+        }
+        else if (players.isHostile(player, owner) && isKnown(model, tx, ty))
+        {
+            view.addEnemy(references.get(featurable), tx, ty, influence.getInfluence(owner, tx, ty));
+        }
+    }
+
+    /**
+     * Check if enemy is known by player. Buildings do not move, so they are always known, whereas units must be
+     * visible.
+     * 
+     * @param model The enemy model.
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return <code>true</code> if known, <code>false</code> else.
+     */
+    private boolean isKnown(EntityModel model, int tx, int ty)
+    {
+        return !model.getType().isMobile() || fog.isVisible(player, tx, ty);
+    }
+
+    /**
+     * Get role of type.
+     * 
+     * @param type The entity type.
+     * @return The role.
+     */
+    private int getRole(EntityType type)
+    {
+        for (int i = 0; i < roster.length; i++)
+        {
+            if (roster[i] == type)
+            {
+                return i;
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * Check if entity is idle.
+     * 
+     * @param model The entity model.
+     * @param role The entity role.
+     * @return <code>true</code> if idle, <code>false</code> else.
+     */
+    private boolean isIdle(EntityModel model, int role)
+    {
+        if (role == HALL || role == BARRACKS)
+        {
+            final Producer producer = model.getFeature(Producer.class);
+            return !producer.isProducing() && producer.getQueueLength() == 0;
+        }
+        return model.isVisible() && StateIdle.class.equals(model.getState());
+    }
+
+    /**
+     * Compute orders from view. Must only read view, as it may be called from another thread.
+     */
+    private void decide()
+    {
+        orders = 0;
+        buildDelay--;
+
+        int gold = view.gold;
+        int wood = view.wood;
+        int food = view.food;
+
+        for (int i = 0; i < view.units && view.mines > 0; i++)
+        {
+            if (view.role[i] == WORKER && view.idle[i])
+            {
+                addOrder(ORDER_EXTRACT, i, findClosestMine(i), 0, 0);
+            }
+        }
+
+        final int hall = view.find(HALL);
+        final int builder = view.find(WORKER);
+        if (hall > -1 && builder > -1 && buildDelay <= 0)
+        {
+            final int building;
+            if (food == 0)
+            {
+                building = FARM;
+            }
+            else if (view.count(BARRACKS) == 0)
+            {
+                building = BARRACKS;
+            }
+            else
+            {
+                building = OTHER;
+            }
+            if (building != OTHER && canAfford(building, gold, wood, Integer.MAX_VALUE))
+            {
+                addOrder(ORDER_BUILD, builder, building, view.unitX[hall], view.unitY[hall]);
+                gold -= roster[building].getCost().get(Ledger.GOLD);
+                wood -= roster[building].getCost().get(Ledger.WOOD);
+                buildDelay = BUILD_DELAY;
+            }
+        }
+
+        final int idleHall = view.findIdle(HALL);
+        if (idleHall > -1 && view.count(WORKER) < MAX_WORKERS && canAfford(WORKER, gold, wood, food))
+        {
+            addOrder(ORDER_PRODUCE, idleHall, WORKER, 0, 0);
+            gold -= roster[WORKER].getCost().get(Ledger.GOLD);
+            wood -= roster[WORKER].getCost().get(Ledger.WOOD);
+            food -= roster[WORKER].getCost().get(Ledger.FOOD);
+        }
+
+        final int idleBarracks = view.findIdle(BARRACKS);
+        if (idleBarracks > -1 && canAfford(SOLDIER, gold, wood, food))
+        {
+            addOrder(ORDER_PRODUCE, idleBarracks, SOLDIER, 0, 0);
+        }
+
+        decideAttack();
+    }
+
+    /**
+     * Send idle soldiers to their closest enemy once enough of them are ready.
+     */
+    private void decideAttack()
+    {
+        int ready = 0;
+        for (int i = 0; i < view.units; i++)
+        {
+            if (view.role[i] == SOLDIER && view.idle[i])
+            {
+                ready++;
+            }
+        }
+        if (ready >= ATTACK_GROUP && view.enemies > 0)
+        {
+            for (int i = 0; i < view.units; i++)
+            {
+                if (view.role[i] == SOLDIER && view.idle[i])
+                {
+                    addOrder(ORDER_ATTACK, i, findTarget(i), 0, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if role cost can be afforded.
+     * 
+     * @param role The role to produce.
+     * @param gold The available gold.
+     * @param wood The available wood.
+     * @param food The available food.
+     * @return <code>true</code> if affordable, <code>false</code> else.
+     */
+    private boolean canAfford(int role, int gold, int wood, int food)
+    {
+        return roster[role].getCost().get(Ledger.GOLD) <= gold
+               && roster[role].getCost().get(Ledger.WOOD) <= wood
+               && roster[role].getCost().get(Ledger.FOOD) <= food;
+    }
+
+    /**
+     * Find closest mine of unit, preferring those which are not threatened.
+     * 
+     * @param unit The unit index.
+     * @return The mine index.
+     */
+    private int findClosestMine(int unit)
+    {
+        int closest = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < view.mines; i++)
+        {
+            long current = distance(view.unitX[unit], view.unitY[unit], view.mineX[i], view.mineY[i]);
+            if (view.mineThreat[i] > 0)
+            {
+                current += Integer.MAX_VALUE;
+            }
+            if (current < best)
+            {
+                best = current;
+                closest = i;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Find enemy target of unit, weighting distance with enemy support.
+     * 
+     * @param unit The unit index.
+     * @return The enemy index.
+     */
+    private int findTarget(int unit)
+    {
+        int closest = 0;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < view.enemies; i++)
+        {
+            final int current = distance(view.unitX[unit], view.unitY[unit], view.enemyX[i], view.enemyY[i])
+                                + view.enemySupport[i] / SUPPORT_PER_TILE;
+            if (current < best)
+            {
+                best = current;
+                closest = i;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Add order if there is room left.
+     * 
+     * @param kind The order kind.
+     * @param unit The unit index.
+     * @param target The target index or role.
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void addOrder(int kind, int unit, int target, int tx, int ty)
+    {
+        if (orders < ORDERS_MAX)
+        {
+            orderKind[orders] = kind;
+            orderUnit[orders] = unit;
+            orderTarget[orders] = target;
+            orderX[orders] = tx;
+            orderY[orders] = ty;
+            orders++;
+        }
+    }
+
+    /**
+     * Issue computed orders, skipping those of entities which died meanwhile.
+     */
+    private void apply()
+    {
+        for (int i = 0; i < orders; i++)
+        {
+            final Featurable unit = references.getFeaturable(view.unit[orderUnit[i]]);
+            if (unit != null && isOwned(unit.getFeature(EntityModel.class)))
+            {
+                apply(i, unit);
+            }
+        }
+        orders = 0;
+    }
+
+    /**
+     * Issue order.
+     * 
+     * @param order The order index.
+     * @param unit The unit reference.
+     */
+    private void apply(int order, Featurable unit)
+    {
+        final int target = orderTarget[order];
+        switch (orderKind[order])
+        {
+            case ORDER_EXTRACT:
+                commands.extract(unit, view.mineX[target], view.mineY[target]);
+                break;
+            case ORDER_PRODUCE:
+                commands.produce(unit, roster[target]);
+                break;
+            case ORDER_BUILD:
+                build(unit, roster[target], orderX[order], orderY[order]);
+                break;
+            case ORDER_ATTACK:
+                attack(unit, references.getFeaturable(view.enemy[target]));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Check if entity is still alive and owned, as it may have been killed or converted since perception.
+     * 
+     * @param model The entity model.
+     * @return <code>true</code> if owned, <code>false</code> else.
+     */
+    private boolean isOwned(EntityModel model)
+    {
+        return !model.isDead() && model.getOwner() == player;
+    }
+
+    /**
+     * Attack enemy if still handled and alive.
+     * 
+     * @param unit The attacker.
+     * @param enemy The enemy (<code>null</code> if not handled anymore).
+     */
+    private void attack(Featurable unit, Featurable enemy)
+    {
+        if (enemy != null && !enemy.getFeature(EntityModel.class).isDead())
+        {
+            commands.attack(unit, enemy.getFeature(Transformable.class));
+        }
+    }
+
+    /**
+     * Build around location, on the first free area found.
+     * 
+     * @param unit The builder.
+     * @param type The building type.
+     * @param tx The horizontal center tile.
+     * @param ty The vertical center tile.
+     */
+    private void build(Featurable unit, EntityType type, int tx, int ty)
+    {
+        final int tw = type.getSize().getWidth() / map.getTileWidth();
+        final int th = type.getSize().getHeight() / map.getTileHeight();
+        for (int radius = 1; radius <= BUILD_RADIUS; radius++)
+        {
+            for (int y = ty - radius; y <= ty + radius; y++)
+            {
+                for (int x = tx - radius; x <= tx + radius; x++)
+                {
+                    if (isFree(x - 1, y - 1, tw + 2, th + 2))
+                    {
+                        commands.build(unit, type, x, y);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if area is inside map and not occupied.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @param tw The width in tile.
+     * @param th The height in tile.
+     * @return <code>true</code> if free, <code>false</code> else.
+     */
+    private boolean isFree(int tx, int ty, int tw, int th)
+    {
+        if (tx < 0 || ty < 0 || tx + tw > map.getInTileWidth() || ty + th > map.getInTileHeight())
+        {
+            return false;
+        }
+        for (int y = ty; y < ty + th; y++)
+        {
+            for (int x = tx; x < tx + tw; x++)
+            {
+                if (occupancy.isOccupied(x, y))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
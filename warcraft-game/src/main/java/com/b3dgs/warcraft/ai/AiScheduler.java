@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Services;
+
+/**
+ * Computer players scheduler, spreading their thinking steps across frames.
+ * <p>
+ * Each player thinks once per period, one step at a time. On each tick, players are visited in round robin from where
+ * the previous tick stopped, until the time budget is spent, so a slow decision never delays the main loop by more
+ * than one step. Decisions can be run on a worker thread, as they only read the player view.
+ * </p>
+ * <p>
+ * While in lockstep, computer players are simulated on every peer, so scheduling must not depend on timing: each player
+ * runs exactly one step per tick on main thread, see {@link #setDeterministic(boolean)}.
+ * </p>
+ */
+public class AiScheduler implements Updatable
+{
+    /** Default time budget per tick in milliseconds. */
+    public static final double DEFAULT_BUDGET = 1.0;
+    /** Default ticks between two thinks of a player. */
+    public static final int DEFAULT_PERIOD = 15;
+
+    private static final String THREAD_NAME = "Computer players";
+    private static final long NANO_PER_MILLI = 1_000_000L;
+    private static final int STAGGER = 3;
+
+    private final List<AiPlayer> players = new ArrayList<>();
+    private ExecutorService executor;
+    private long budget = (long) (DEFAULT_BUDGET * NANO_PER_MILLI);
+    private int period = DEFAULT_PERIOD;
+    private int tick;
+    private int cursor;
+    private boolean deterministic;
+
+    /**
+     * Create scheduler.
+     * 
+     * @param services The services reference.
+     */
+    public AiScheduler(Services services)
+    {
+        super();
+    }
+
+    /**
+     * Add player, staggered with the previous ones.
+     * 
+     * @param player The player to add.
+     */
+    public void add(AiPlayer player)
+    {
+        player.setLastThink(tick - players.size() * period / STAGGER % period);
+        players.add(player);
+    }
+
+    /**
+     * Set time budget per tick.
+     * 
+     * @param milli The budget in milliseconds.
+     */
+    public void setBudget(double milli)
+    {
+        budget = (long) (milli * NANO_PER_MILLI);
+    }
+
+    /**
+     * Set ticks between two thinks of a player.
+     * 
+     * @param ticks The period in ticks.
+     */
+    public void setPeriod(int ticks)
+    {
+        period = ticks;
+    }
+
+    /**
+     * Enable or disable decisions on a worker thread.
+     * 
+     * @param threaded <code>true</code> to decide on worker thread, <code>false</code> on main thread.
+     */
+    public void setThreaded(boolean threaded)
+    {
+        if (threaded && executor == null)
+        {
+            executor = Executors.newSingleThreadExecutor(runnable ->
+            {
+                final Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        else if (!threaded && executor != null)
+        {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Enable or disable deterministic scheduling. When enabled, time budget and worker thread are ignored, and each
+     * player runs one step per tick on main thread.
+     * 
+     * @param deterministic <code>true</code> for deterministic scheduling, <code>false</code> for time budget.
+     */
+    public void setDeterministic(boolean deterministic)
+    {
+        this.deterministic = deterministic;
+    }
+
+    /**
+     * Get players number.
+     * 
+     * @return The players number.
+     */
+    public int getPlayers()
+    {
+        return players.size();
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        tick++;
+        final int n = players.size();
+        if (deterministic)
+        {
+            for (int i = 0; i < n; i++)
+            {
+                players.get(i).step(tick, period, null);
+            }
+        }
+        else
+        {
+            final long start = System.nanoTime();
+            for (int visited = 0; visited < n && System.nanoTime() - start < budget; visited++)
+            {
+                players.get(cursor).step(tick, period, executor);
+                cursor = (cursor + 1) % n;
+            }
+        }
+    }
+}
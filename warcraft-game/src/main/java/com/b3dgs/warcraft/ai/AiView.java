@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.ai;
+
+import java.util.Arrays;
+
+/**
+ * Computer player perception, copied from world on main thread.
+ * <p>
+ * Decision only reads primitive fields, so it can run on another thread while world keeps updating. Entities are
+ * designated by their stable reference, resolved back on main thread to apply orders, so an entity removed or reused
+ * since perception is not found anymore.
+ * </p>
+ */
+final class AiView
+{
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** Owned entities number. */
+    int units;
+    /** Owned entities references. */
+    int[] unit = new int[INITIAL_CAPACITY];
+    /** Owned entities roles. */
+    int[] role = new int[INITIAL_CAPACITY];
+    /** Owned entities horizontal tiles. */
+    int[] unitX = new int[INITIAL_CAPACITY];
+    /** Owned entities vertical tiles. */
+    int[] unitY = new int[INITIAL_CAPACITY];
+    /** Owned entities idle flags. */
+    boolean[] idle = new boolean[INITIAL_CAPACITY];
+
+    /** Enemies number. */
+    int enemies;
+    /** Enemies references. */
+    int[] enemy = new int[INITIAL_CAPACITY];
+    /** Enemies horizontal tiles. */
+    int[] enemyX = new int[INITIAL_CAPACITY];
+    /** Enemies vertical tiles. */
+    int[] enemyY = new int[INITIAL_CAPACITY];
+    /** Enemies support, as their player influence at their location. */
+    int[] enemySupport = new int[INITIAL_CAPACITY];
+
+    /** Mines number. */
+    int mines;
+    /** Mines horizontal tiles. */
+    int[] mineX = new int[INITIAL_CAPACITY];
+    /** Mines vertical tiles. */
+    int[] mineY = new int[INITIAL_CAPACITY];
+    /** Mines threat, as other players influence at their location. */
+    int[] mineThreat = new int[INITIAL_CAPACITY];
+
+    /** Available gold. */
+    int gold;
+    /** Available wood. */
+    int wood;
+    /** Available food. */
+    int food;
+
+    /**
+     * Create view.
+     */
+    AiView()
+    {
+        super();
+    }
+
+    /**
+     * Clear view, keeping arrays.
+     */
+    void clear()
+    {
+        units = 0;
+        enemies = 0;
+        mines = 0;
+    }
+
+    /**
+     * Add owned entity.
+     * 
+     * @param reference The entity reference.
+     * @param kind The entity role.
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @param ready <code>true</code> if idle, <code>false</code> else.
+     */
+    void addUnit(int reference, int kind, int tx, int ty, boolean ready)
+    {
+        if (units == unit.length)
+        {
+            final int capacity = units * 2;
+            unit = Arrays.copyOf(unit, capacity);
+            role = Arrays.copyOf(role, capacity);
+            unitX = Arrays.copyOf(unitX, capacity);
+            unitY = Arrays.copyOf(unitY, capacity);
+            idle = Arrays.copyOf(idle, capacity);
+        }
+        unit[units] = reference;
+        role[units] = kind;
+        unitX[units] = tx;
+        unitY[units] = ty;
+        idle[units] = ready;
+        units++;
+    }
+
+    /**
+     * Add enemy entity.
+     * 
+     * @param reference The entity reference.
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @param support The enemy support.
+     */
+    void addEnemy(int reference, int tx, int ty, int support)
+    {
+        if (enemies == enemy.length)
+        {
+            final int capacity = enemies * 2;
+            enemy = Arrays.copyOf(enemy, capacity);
+            enemyX = Arrays.copyOf(enemyX, capacity);
+            enemyY = Arrays.copyOf(enemyY, capacity);
+            enemySupport = Arrays.copyOf(enemySupport, capacity);
+        }
+        enemy[enemies] = reference;
+        enemyX[enemies] = tx;
+        enemyY[enemies] = ty;
+        enemySupport[enemies] = support;
+        enemies++;
+    }
+
+    /**
+     * Add gold mine.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @param threat The mine threat.
+     */
+    void addMine(int tx, int ty, int threat)
+    {
+        if (mines == mineX.length)
+        {
+            final int capacity = mines * 2;
+            mineX = Arrays.copyOf(mineX, capacity);
+            mineY = Arrays.copyOf(mineY, capacity);
+            mineThreat = Arrays.copyOf(mineThreat, capacity);
+        }
+        mineX[mines] = tx;
+        mineY[mines] = ty;
+        mineThreat[mines] = threat;
+        mines++;
+    }
+
+    /**
+     * Count owned entities of role.
+     * 
+     * @param kind The role.
+     * @return The entities number.
+     */
+    int count(int kind)
+    {
+        int count = 0;
+        for (int i = 0; i < units; i++)
+        {
+            if (role[i] == kind)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find first idle owned entity of role.
+     * 
+     * @param kind The role.
+     * @return The entity index, <code>-1</code> if none.
+     */
+    int findIdle(int kind)
+    {
+        for (int i = 0; i < units; i++)
+        {
+            if (role[i] == kind && idle[i])
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find first owned entity of role.
+     * 
+     * @param kind The role.
+     * @return The entity index, <code>-1</code> if none.
+     */
+    int find(int kind)
+    {
+        for (int i = 0; i < units; i++)
+        {
+            if (role[i] == kind)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.command;
+
+import java.util.function.Consumer;
+
+import com.b3dgs.lionengine.UtilMath;
+import com.b3dgs.lionengine.game.FeatureProvider;
+import com.b3dgs.lionengine.game.SizeConfig;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.attackable.Attacker;
+import com.b3dgs.lionengine.game.feature.producible.Producer;
+import com.b3dgs.lionengine.game.feature.producible.Producible;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractable;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.geom.Rectangle;
+import com.b3dgs.warcraft.Ledger;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.Resources;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityPool;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.feature.Production;
+import com.b3dgs.warcraft.profiler.Tracer;
+import com.b3dgs.warcraft.profiler.Tracing;
+import com.b3dgs.warcraft.world.WorldOccupancy;
+
+/**
+ * Game commands applied to entities, independently of the input that issued them.
+ * <p>
+ * Player actions and computer players go through the same commands, so costs are reserved from the owner resources and
+ * produced entities are placed the same way.
+ * </p>
+ */
+public class Commands
+{
+    /**
+     * Wake unit, so it handles the command on next tick.
+     * 
+     * @param unit The commanded unit.
+     */
+    private static void wake(FeatureProvider unit)
+    {
+        unit.getFeature(EntityModel.class).wake();
+    }
+
+    /**
+     * Cancel unit pending productions, as they are replaced by the new command.
+     * 
+     * @param unit The commanded unit.
+     */
+    private static void cancel(FeatureProvider unit)
+    {
+        unit.getFeature(Production.class).cancel();
+    }
+
+    /**
+     * Search unit path to destination, traced with the distance to destination.
+     * 
+     * @param unit The commanded unit.
+     * @param tx The horizontal destination tile.
+     * @param ty The vertical destination tile.
+     * @param search The path search.
+     */
+    private static void search(FeatureProvider unit, int tx, int ty, Consumer<Pathfindable> search)
+    {
+        final Pathfindable pathfindable = unit.getFeature(Pathfindable.class);
+        final Tracer tracer = Tracing.get();
+        tracer.beginPathSearch();
+        search.accept(pathfindable);
+        tracer.endPathSearch(unit.getFeature(Identifiable.class).getId().intValue(),
+                             (int) Math.ceil(UtilMath.getDistance(pathfindable.getInTileX(),
+                                                                  pathfindable.getInTileY(),
+                                                                  tx,
+                                                                  ty)));
+    }
+
+    private final EntityPool pool;
+    private final Players players;
+    private final MapTile map;
+    private final WorldOccupancy occupancy;
+
+    /**
+     * Create commands.
+     * 
+     * @param services The services reference.
+     */
+    public Commands(Services services)
+    {
+        super();
+
+        pool = services.get(EntityPool.class);
+        players = services.get(Players.class);
+        map = services.get(MapTile.class);
+        occupancy = services.get(WorldOccupancy.class);
+    }
+
+    /**
+     * Move unit to tile.
+     * 
+     * @param unit The unit to move.
+     * @param tx The horizontal destination tile.
+     * @param ty The vertical destination tile.
+     */
+    public void move(FeatureProvider unit, int tx, int ty)
+    {
+        cancel(unit);
+        wake(unit);
+        search(unit, tx, ty, pathfindable -> pathfindable.setDestination(tx, ty));
+    }
+
+    /**
+     * Stop unit moves, attack and pending productions.
+     * 
+     * @param unit The unit to stop.
+     */
+    public void stop(FeatureProvider unit)
+    {
+        cancel(unit);
+        wake(unit);
+        unit.getFeature(Pathfindable.class).stopMoves();
+        unit.getFeature(Attacker.class).stopAttack();
+    }
+
+    /**
+     * Move unit to target and attack it. Ignored if target owner is not hostile to unit owner.
+     * 
+     * @param unit The attacking unit.
+     * @param target The target.
+     */
+    public void attack(FeatureProvider unit, Transformable target)
+    {
+        if (!players.isHostile(unit.getFeature(EntityModel.class).getOwner(),
+                               target.getFeature(EntityModel.class).getOwner()))
+        {
+            return;
+        }
+        cancel(unit);
+        wake(unit);
+        search(unit,
+               map.getInTileX(target),
+               map.getInTileY(target),
+               pathfindable -> pathfindable.setDestination(target));
+        unit.getFeature(Attacker.class).attack(target);
+    }
+
+    /**
+     * Start extraction of the resource at tile.
+     * 
+     * @param unit The extracting unit.
+     * @param tx The horizontal resource tile.
+     * @param ty The vertical resource tile.
+     * @return <code>true</code> if extraction started, <code>false</code> if no resource at tile.
+     */
+    public boolean extract(FeatureProvider unit, int tx, int ty)
+    {
+        for (int slot = occupancy.first(tx, ty); slot != WorldOccupancy.NONE; slot = occupancy.next(slot))
+        {
+            final Featurable featurable = occupancy.getFeaturable(slot);
+            if (featurable.hasFeature(Extractable.class))
+            {
+                extract(unit, featurable.getFeature(Extractable.class));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Start extraction of a resource.
+     * 
+     * @param unit The extracting unit.
+     * @param extractable The resource to extract.
+     */
+    public void extract(FeatureProvider unit, Extractable extractable)
+    {
+        final Extractor extractor = unit.getFeature(Extractor.class);
+        cancel(unit);
+        wake(unit);
+        extractor.setResource(extractable);
+        search(unit,
+               extractable.getInTileX(),
+               extractable.getInTileY(),
+               pathfindable -> pathfindable.setDestination(extractable));
+        extractor.startExtraction();
+    }
+
+    /**
+     * Queue production of an entity owned by producer owner, if owner can afford it. Cost is reserved until production
+     * starts, and cancelled if production is dropped before.
+     * 
+     * @param producer The producer.
+     * @param type The entity type to produce.
+     * @return The queued producible, <code>null</code> if not enough resources.
+     */
+    public Producible produce(FeatureProvider producer, EntityType type)
+    {
+        final int owner = producer.getFeature(EntityModel.class).getOwner();
+        final Resources resources = players.get(owner);
+        final int reservation = resources.reserve(type.getCost());
+        if (reservation == Ledger.NONE)
+        {
+            return null;
+        }
+        final Featurable entity = pool.acquire(type.getMedia());
+        entity.getFeature(EntityModel.class).setOwner(owner);
+        wake(producer);
+        producer.getFeature(Production.class).queue(entity, resources, reservation);
+        return entity.getFeature(Producible.class);
+    }
+
+    /**
+     * Send builder to build an entity owned by builder owner at tile, if owner can afford it. Cost is reserved until
+     * production starts, and cancelled if builder is stopped or redirected before. Replaces any pending build.
+     * 
+     * @param builder The builder.
+     * @param type The building type.
+     * @param tx The horizontal building tile.
+     * @param ty The vertical building tile.
+     * @return The building, <code>null</code> if not enough resources.
+     */
+    public Featurable build(FeatureProvider builder, EntityType type, int tx, int ty)
+    {
+        cancel(builder);
+        final int owner = builder.getFeature(EntityModel.class).getOwner();
+        final Resources resources = players.get(owner);
+        final int reservation = resources.reserve(type.getCost());
+        if (reservation == Ledger.NONE)
+        {
+            return null;
+        }
+        final SizeConfig size = type.getSize();
+        final Rectangle area = new Rectangle(tx * map.getTileWidth(),
+                                             ty * map.getTileHeight(),
+                                             size.getWidth(),
+                                             size.getHeight());
+
+        final Featurable building = pool.acquire(type.getMedia());
+        building.getFeature(EntityModel.class).setOwner(owner);
+        final Producible producible = building.getFeature(Producible.class);
+        producible.setLocation(area.getX(), area.getY());
+
+        wake(builder);
+        final Producer producer = builder.getFeature(Producer.class);
+        final Transformable transformable = builder.getFeature(Transformable.class);
+        producer.setChecker(featurable -> UtilMath.getDistance(featurable.getFeature(Producible.class),
+                                                               transformable) < map.getTileWidth());
+        builder.getFeature(Production.class).queue(building, resources, reservation);
+
+        search(builder, tx, ty, pathfindable -> pathfindable.setDestination(area));
+        return building;
+    }
+}
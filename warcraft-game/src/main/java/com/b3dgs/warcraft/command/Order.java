@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.command;
+
+import java.util.Objects;
+
+import com.b3dgs.warcraft.world.WorldReferences;
+
+/**
+ * Player order given to a group of units, referencing entities by their {@link WorldReferences} reference so it can be
+ * applied on any peer.
+ */
+public final class Order
+{
+    /** Move unit to tile. */
+    public static final int MOVE = 0;
+    /** Stop unit. */
+    public static final int STOP = 1;
+    /** Attack target. */
+    public static final int ATTACK = 2;
+    /** Extract resource at tile, or move there if none. */
+    public static final int EXTRACT = 3;
+    /** Produce entity type. */
+    public static final int PRODUCE = 4;
+    /** Build entity type at tile. */
+    public static final int BUILD = 5;
+
+    private final int kind;
+    private final int player;
+    private final int[] units;
+    private final int target;
+    private final int tx;
+    private final int ty;
+    private final String type;
+
+    /**
+     * Create order.
+     * 
+     * @param kind The order kind.
+     * @param player The issuing player id.
+     * @param units The commanded units references (not copied).
+     * @param target The target reference, {@link WorldReferences#NONE} if none.
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @param type The entity type media path, <code>null</code> if none.
+     */
+    public Order(int kind, int player, int[] units, int target, int tx, int ty, String type)
+    {
+        super();
+
+        this.kind = kind;
+        this.player = player;
+        this.units = units;
+        this.target = target;
+        this.tx = tx;
+        this.ty = ty;
+        this.type = type;
+    }
+
+    /**
+     * Get order kind.
+     * 
+     * @return The order kind.
+     */
+    public int getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * Get issuing player.
+     * 
+     * @return The player id.
+     */
+    public int getPlayer()
+    {
+        return player;
+    }
+
+    /**
+     * Get commanded units.
+     * 
+     * @return The units references (must not be modified).
+     */
+    public int[] getUnits()
+    {
+        return units;
+    }
+
+    /**
+     * Check if order has same parameters, so both can be given to a single group.
+     * 
+     * @param other The other order.
+     * @return <code>true</code> if same kind, player, target, tile and type, <code>false</code> else.
+     */
+    public boolean isSameAs(Order other)
+    {
+        return kind == other.kind
+               && player == other.player
+               && target == other.target
+               && tx == other.tx
+               && ty == other.ty
+               && Objects.equals(type, other.type);
+    }
+
+    /**
+     * Get target.
+     * 
+     * @return The target reference, {@link WorldReferences#NONE} if none.
+     */
+    public int getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * Get horizontal tile.
+     * 
+     * @return The horizontal tile.
+     */
+    public int getTx()
+    {
+        return tx;
+    }
+
+    /**
+     * Get vertical tile.
+     * 
+     * @return The vertical tile.
+     */
+    public int getTy()
+    {
+        return ty;
+    }
+
+    /**
+     * Get entity type.
+     * 
+     * @return The entity type media path, <code>null</code> if none.
+     */
+    public String getType()
+    {
+        return type;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.command;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.b3dgs.lionengine.game.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.producible.Producible;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.world.WorldReferences;
+
+/**
+ * Player orders, issued from input and applied as {@link Commands}.
+ * <p>
+ * Orders are applied immediately by default. When a sink is set, such as a lockstep session, they are sent to it
+ * instead, and applied later by the session on every peer at the same tick. Computer players are simulated on every
+ * peer, with deterministic scheduling while in session, so they use {@link Commands} directly.
+ * </p>
+ */
+public class Orders
+{
+    /** Pending produce listeners, keyed by player, producer and type as orders may come back decoded. */
+    private final Map<Long, Deque<Consumer<Producible>>> listeners = new HashMap<>();
+    private final Commands commands;
+    private final Players players;
+    private final EntityTypes types;
+    private final WorldReferences references;
+    private Consumer<Order> sink = this::apply;
+
+    /**
+     * Create orders.
+     * 
+     * @param services The services reference.
+     */
+    public Orders(Services services)
+    {
+        super();
+
+        commands = services.get(Commands.class);
+        players = services.get(Players.class);
+        types = services.get(EntityTypes.class);
+        references = services.get(WorldReferences.class);
+    }
+
+    /**
+     * Set orders sink.
+     * 
+     * @param sink The sink receiving issued orders, <code>null</code> to apply them immediately.
+     */
+    public void setSink(Consumer<Order> sink)
+    {
+        listeners.clear();
+        if (sink == null)
+        {
+            this.sink = this::apply;
+        }
+        else
+        {
+            this.sink = sink;
+        }
+    }
+
+    /**
+     * Order unit to move to tile.
+     * 
+     * @param unit The unit to move.
+     * @param tx The horizontal destination tile.
+     * @param ty The vertical destination tile.
+     */
+    public void move(FeatureProvider unit, int tx, int ty)
+    {
+        submit(create(Order.MOVE, unit, WorldReferences.NONE, tx, ty, null));
+    }
+
+    /**
+     * Order unit to stop.
+     * 
+     * @param unit The unit to stop.
+     */
+    public void stop(FeatureProvider unit)
+    {
+        submit(create(Order.STOP, unit, WorldReferences.NONE, 0, 0, null));
+    }
+
+    /**
+     * Order unit to attack target.
+     * 
+     * @param unit The attacking unit.
+     * @param target The target.
+     */
+    public void attack(FeatureProvider unit, Featurable target)
+    {
+        submit(create(Order.ATTACK, unit, references.get(target), 0, 0, null));
+    }
+
+    /**
+     * Order unit to extract the resource at tile, or to move there if none.
+     * 
+     * @param unit The extracting unit.
+     * @param tx The horizontal resource tile.
+     * @param ty The vertical resource tile.
+     */
+    public void extract(FeatureProvider unit, int tx, int ty)
+    {
+        submit(create(Order.EXTRACT, unit, WorldReferences.NONE, tx, ty, null));
+    }
+
+    /**
+     * Order production of an entity.
+     * 
+     * @param producer The producer.
+     * @param type The entity type to produce.
+     * @param listener The listener notified with the queued producible once applied, if resources were enough.
+     */
+    public void produce(FeatureProvider producer, EntityType type, Consumer<Producible> listener)
+    {
+        final Order order = create(Order.PRODUCE, producer, WorldReferences.NONE, 0, 0, type.getPath());
+        if (order != null && listener != null)
+        {
+            listeners.computeIfAbsent(getKey(order.getPlayer(), order.getUnits()[0], order.getType()),
+                                      key -> new ArrayDeque<>())
+                     .add(listener);
+        }
+        submit(order);
+    }
+
+    /**
+     * Order builder to build an entity at tile.
+     * 
+     * @param builder The builder.
+     * @param type The building type.
+     * @param tx The horizontal building tile.
+     * @param ty The vertical building tile.
+     */
+    public void build(FeatureProvider builder, EntityType type, int tx, int ty)
+    {
+        submit(create(Order.BUILD, builder, WorldReferences.NONE, tx, ty, type.getPath()));
+    }
+
+    /**
+     * Apply order to each of its units. Units which do not exist anymore or are not owned by the order player are
+     * ignored.
+     * 
+     * @param order The order to apply.
+     */
+    public void apply(Order order)
+    {
+        final int[] units = order.getUnits();
+        for (final int reference : units)
+        {
+            final Consumer<Producible> listener = poll(order, reference);
+            final Featurable unit = references.getFeaturable(reference);
+            if (unit != null && unit.getFeature(EntityModel.class).getOwner() == order.getPlayer())
+            {
+                apply(unit, order, listener);
+            }
+        }
+    }
+
+    /**
+     * Apply order to unit.
+     * 
+     * @param unit The commanded unit.
+     * @param order The order to apply.
+     * @param listener The produced listener, <code>null</code> if none.
+     */
+    private void apply(Featurable unit, Order order, Consumer<Producible> listener)
+    {
+        switch (order.getKind())
+        {
+            case Order.MOVE:
+                commands.move(unit, order.getTx(), order.getTy());
+                break;
+            case Order.STOP:
+                commands.stop(unit);
+                break;
+            case Order.ATTACK:
+                applyAttack(unit, order);
+                break;
+            case Order.EXTRACT:
+                if (!commands.extract(unit, order.getTx(), order.getTy()))
+                {
+                    commands.move(unit, order.getTx(), order.getTy());
+                }
+                break;
+            case Order.PRODUCE:
+                applyProduce(unit, order, listener);
+                break;
+            case Order.BUILD:
+                commands.build(unit, types.get(order.getType()), order.getTx(), order.getTy());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Apply attack order, if target still exists and is hostile to order player.
+     * 
+     * @param unit The attacking unit.
+     * @param order The attack order.
+     */
+    private void applyAttack(Featurable unit, Order order)
+    {
+        final Featurable target = references.getFeaturable(order.getTarget());
+        if (target != null && players.isHostile(order.getPlayer(), target.getFeature(EntityModel.class).getOwner()))
+        {
+            commands.attack(unit, target.getFeature(Transformable.class));
+        }
+    }
+
+    /**
+     * Apply produce order.
+     * 
+     * @param producer The producer.
+     * @param order The produce order.
+     * @param listener The listener notified with the queued producible, <code>null</code> if none.
+     */
+    private void applyProduce(Featurable producer, Order order, Consumer<Producible> listener)
+    {
+        final Producible producible = commands.produce(producer, types.get(order.getType()));
+        if (producible != null && listener != null)
+        {
+            listener.accept(producible);
+        }
+    }
+
+    /**
+     * Create order issued by unit owner.
+     * 
+     * @param kind The order kind.
+     * @param unit The commanded unit.
+     * @param target The target reference.
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @param type The entity type media path.
+     * @return The created order, <code>null</code> if unit is not handled.
+     */
+    private Order create(int kind, FeatureProvider unit, int target, int tx, int ty, String type)
+    {
+        final EntityModel model = unit.getFeature(EntityModel.class);
+        final int reference = references.get(model.getFeaturable());
+        if (reference == WorldReferences.NONE)
+        {
+            return null;
+        }
+        final int[] units =
+        {
+            reference
+        };
+        return new Order(kind, model.getOwner(), units, target, tx, ty, type);
+    }
+
+    /**
+     * Consume the pending produce listener of order unit.
+     * 
+     * @param order The applied order.
+     * @param reference The unit reference.
+     * @return The listener, <code>null</code> if none.
+     */
+    private Consumer<Producible> poll(Order order, int reference)
+    {
+        if (order.getKind() != Order.PRODUCE || listeners.isEmpty())
+        {
+            return null;
+        }
+        final Long key = getKey(order.getPlayer(), reference, order.getType());
+        final Deque<Consumer<Producible>> pending = listeners.get(key);
+        if (pending == null)
+        {
+            return null;
+        }
+        final Consumer<Producible> listener = pending.poll();
+        if (pending.isEmpty())
+        {
+            listeners.remove(key);
+        }
+        return listener;
+    }
+
+    /**
+     * Get pending listener key.
+     * 
+     * @param player The order player.
+     * @param reference The producer reference.
+     * @param type The produced type path.
+     * @return The key.
+     */
+    private Long getKey(int player, int reference, String type)
+    {
+        return Long.valueOf((long) reference << Integer.SIZE | player << Short.SIZE | types.getIndex(type));
+    }
+
+    /**
+     * Submit order to sink.
+     * 
+     * @param order The order to submit, ignored if <code>null</code>.
+     */
+    private void submit(Order order)
+    {
+        if (order != null)
+        {
+            sink.accept(order);
+        }
+    }
+}
@@ -32,6 +32,15 @@ public final class Constant
     /** Native resolution. */
     public static final Resolution NATIVE = new Resolution(320, 200, 60);
 
+    /** Local player race. */
+    public static final String RACE_PLAYER = "orc";
+    /** Computer player race. */
+    public static final String RACE_COMPUTER = "human";
+    /** Neutral race. */
+    public static final String RACE_NEUTRAL = "neutral";
+
+    /** Corpses layer. */
+    public static final int LAYER_CORPSE = 0;
     /** Buildings layer. */
     public static final int LAYER_BUILDING = 1;
     /** Entity layer. */
@@ -41,6 +50,8 @@ public final class Constant
     /** Selection layer. */
     public static final int LAYER_SELECTION = LAYER_HUD + 1;
 
+    /** Fog render layer. */
+    public static final int LAYER_FOG_RENDER = LAYER_ENTITY + 1;
     /** Selection render layer. */
     public static final int LAYER_SELECTION_RENDER = LAYER_HUD + 1;
     /** Hud render layer. */
@@ -31,6 +31,14 @@ public final class Extension
     public static final String SFX = ".wav";
     /** Musics file extension (with dot). */
     public static final String MUSIC = ".mid";
+    /** Savegame file extension (with dot). */
+    public static final String SAVE = ".sav";
+    /** Configuration file extension (with dot). */
+    public static final String XML = ".xml";
+    /** Comma separated values file extension (with dot). */
+    public static final String CSV = ".csv";
+    /** Replay hashes log file extension (with dot). */
+    public static final String HASHES = ".hsh";
 
     /**
      * Private constructor.
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.hud;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Align;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Text;
+
+/**
+ * Bitmap text renderer, using glyphs rasterized once from a {@link Text} into an atlas.
+ * <p>
+ * Numbers are drawn digit by digit from their value, without creating any string. Static labels are pre-rendered once
+ * into their own strip, and then drawn with a single blit.
+ * </p>
+ */
+public class GlyphText
+{
+    private static final char FIRST = ' ';
+    private static final char LAST = '~';
+    private static final char NEGATIVE = '-';
+    private static final char ZERO = '0';
+    private static final int COUNT = LAST - FIRST + 1;
+    private static final int MAX_DIGITS = 10;
+    private static final int RADIX = 10;
+
+    /**
+     * Get glyph index of character.
+     * 
+     * @param character The character.
+     * @return The glyph index (space if not supported).
+     */
+    private static int getIndex(char character)
+    {
+        if (character < FIRST || character > LAST)
+        {
+            return 0;
+        }
+        return character - FIRST;
+    }
+
+    /**
+     * Get start location depending of alignment.
+     * 
+     * @param x The reference location.
+     * @param width The drawn width.
+     * @param align The alignment.
+     * @return The start location.
+     */
+    private static int getStart(int x, int width, Align align)
+    {
+        if (Align.RIGHT == align)
+        {
+            return x - width;
+        }
+        if (Align.CENTER == align)
+        {
+            return x - width / 2;
+        }
+        return x;
+    }
+
+    private final int[] offsets = new int[COUNT];
+    private final int[] widths = new int[COUNT];
+    private final int[] digits = new int[MAX_DIGITS];
+    private final Map<String, ImageBuffer> labels = new HashMap<>();
+    private final ImageBuffer atlas;
+    private final int height;
+
+    /**
+     * Create glyph text, rasterizing glyphs with current text font and color.
+     * 
+     * @param text The source text.
+     */
+    public GlyphText(Text text)
+    {
+        super();
+
+        final String[] glyphs = new String[COUNT];
+        final ImageBuffer measure = Graphics.createImageBuffer(1, 1);
+        final Graphic metrics = measure.createGraphic();
+        int width = 0;
+        int max = 1;
+        for (int i = 0; i < COUNT; i++)
+        {
+            glyphs[i] = String.valueOf((char) (FIRST + i));
+            offsets[i] = width;
+            widths[i] = text.getStringWidth(metrics, glyphs[i]);
+            max = Math.max(max, text.getStringHeight(metrics, glyphs[i]));
+            width += widths[i];
+        }
+        metrics.dispose();
+        measure.dispose();
+        height = max;
+
+        atlas = Graphics.createImageBuffer(Math.max(1, width), height, ColorRgba.TRANSPARENT);
+        final Graphic g = atlas.createGraphic();
+        for (int i = 0; i < COUNT; i++)
+        {
+            text.draw(g, offsets[i], 0, glyphs[i]);
+        }
+        g.dispose();
+        atlas.prepare();
+    }
+
+    /**
+     * Draw number.
+     * 
+     * @param g The graphic output.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param value The number to draw.
+     * @return The horizontal location after last glyph.
+     */
+    public int draw(Graphic g, int x, int y, int value)
+    {
+        return draw(g, x, y, Align.LEFT, value);
+    }
+
+    /**
+     * Draw number.
+     * 
+     * @param g The graphic output.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param align The horizontal alignment.
+     * @param value The number to draw.
+     * @return The horizontal location after last glyph.
+     */
+    public int draw(Graphic g, int x, int y, Align align, int value)
+    {
+        long remaining = Math.abs((long) value);
+        int count = 0;
+        int width = 0;
+        do
+        {
+            final int digit = (int) (remaining % RADIX);
+            digits[count] = digit;
+            width += widths[getIndex((char) (ZERO + digit))];
+            remaining /= RADIX;
+            count++;
+        }
+        while (remaining > 0);
+
+        if (value < 0)
+        {
+            width += widths[getIndex(NEGATIVE)];
+        }
+
+        int current = getStart(x, width, align);
+        if (value < 0)
+        {
+            current = drawGlyph(g, current, y, getIndex(NEGATIVE));
+        }
+        for (int i = count - 1; i >= 0; i--)
+        {
+            current = drawGlyph(g, current, y, getIndex((char) (ZERO + digits[i])));
+        }
+        return current;
+    }
+
+    /**
+     * Draw text glyph by glyph.
+     * 
+     * @param g The graphic output.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param str The text to draw.
+     * @return The horizontal location after last glyph.
+     */
+    public int draw(Graphic g, int x, int y, String str)
+    {
+        int current = x;
+        final int n = str.length();
+        for (int i = 0; i < n; i++)
+        {
+            current = drawGlyph(g, current, y, getIndex(str.charAt(i)));
+        }
+        return current;
+    }
+
+    /**
+     * Draw static label, pre-rendered on first use.
+     * 
+     * @param g The graphic output.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param label The label to draw.
+     * @return The horizontal location after label.
+     */
+    public int drawLabel(Graphic g, int x, int y, String label)
+    {
+        return drawLabel(g, x, y, Align.LEFT, label);
+    }
+
+    /**
+     * Draw static label, pre-rendered on first use.
+     * 
+     * @param g The graphic output.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param align The horizontal alignment.
+     * @param label The label to draw.
+     * @return The horizontal location after label.
+     */
+    public int drawLabel(Graphic g, int x, int y, Align align, String label)
+    {
+        ImageBuffer strip = labels.get(label);
+        if (strip == null)
+        {
+            strip = createStrip(label);
+            labels.put(label, strip);
+        }
+        final int start = getStart(x, strip.getWidth(), align);
+        g.drawImage(strip, start, y);
+        return start + strip.getWidth();
+    }
+
+    /**
+     * Get glyphs height.
+     * 
+     * @return The glyphs height.
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Draw a single glyph.
+     * 
+     * @param g The graphic output.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param index The glyph index.
+     * @return The horizontal location after glyph.
+     */
+    private int drawGlyph(Graphic g, int x, int y, int index)
+    {
+        final int width = widths[index];
+        final int offset = offsets[index];
+        g.drawImage(atlas, x, y, x + width, y + height, offset, 0, offset + width, height);
+        return x + width;
+    }
+
+    /**
+     * Create label strip from atlas glyphs.
+     * 
+     * @param label The label.
+     * @return The label strip.
+     */
+    private ImageBuffer createStrip(String label)
+    {
+        int width = 0;
+        final int n = label.length();
+        for (int i = 0; i < n; i++)
+        {
+            width += widths[getIndex(label.charAt(i))];
+        }
+        final ImageBuffer strip = Graphics.createImageBuffer(Math.max(1, width), height, ColorRgba.TRANSPARENT);
+        final Graphic g = strip.createGraphic();
+        draw(g, 0, 0, label);
+        g.dispose();
+        strip.prepare();
+        return strip;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.hud;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Renderable;
+
+/**
+ * Retained HUD layer, composing registered renderables into an offscreen image.
+ * <p>
+ * Renderables are drawn in screen coordinates, in registration order, only when the cache has been invalidated.
+ * Otherwise the previous result is drawn with a single blit.
+ * </p>
+ */
+public class HudCache implements Renderable
+{
+    private final List<Renderable> renderables = new ArrayList<>();
+    private final ImageBuffer buffer;
+    private final int[] clear;
+    private final int width;
+    private final int height;
+    private boolean dirty = true;
+
+    /**
+     * Create cache.
+     * 
+     * @param width The screen width.
+     * @param height The screen height.
+     */
+    public HudCache(int width, int height)
+    {
+        super();
+
+        this.width = width;
+        this.height = height;
+        buffer = Graphics.createImageBuffer(width, height, ColorRgba.TRANSPARENT);
+        clear = new int[width * height];
+    }
+
+    /**
+     * Add a renderable to cache, drawn after the previous ones.
+     * 
+     * @param renderable The renderable to add.
+     */
+    public void add(Renderable renderable)
+    {
+        renderables.add(renderable);
+        dirty = true;
+    }
+
+    /**
+     * Remove a renderable from cache.
+     * 
+     * @param renderable The renderable to remove.
+     */
+    public void remove(Renderable renderable)
+    {
+        if (renderables.remove(renderable))
+        {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Invalidate cache, redrawn on next rendering.
+     */
+    public void invalidate()
+    {
+        dirty = true;
+    }
+
+    @Override
+    public void render(Graphic g)
+    {
+        if (dirty)
+        {
+            buffer.setRgb(0, 0, width, height, clear, 0, width);
+
+            final Graphic cache = buffer.createGraphic();
+            final int n = renderables.size();
+            for (int i = 0; i < n; i++)
+            {
+                renderables.get(i).render(cache);
+            }
+            cache.dispose();
+            dirty = false;
+        }
+        g.drawImage(buffer, 0, 0);
+    }
+}
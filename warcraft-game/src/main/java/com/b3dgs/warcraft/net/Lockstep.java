@@ -0,0 +1,555 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.net;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.ai.AiScheduler;
+import com.b3dgs.warcraft.command.Order;
+import com.b3dgs.warcraft.command.Orders;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.world.WorldChecksum;
+
+/**
+ * Deterministic lockstep session, where peers only exchange their players orders.
+ * <p>
+ * Simulation is divided into turns of a fixed number of ticks. Orders issued during a turn are batched and scheduled
+ * for the turn after the input delay, so they have time to reach all peers. A turn only starts once the batches of all
+ * players have been received, then orders are applied by player id and issue order, so every peer applies the same
+ * orders at the same tick. Computer players are switched to deterministic scheduling while session is active.
+ * </p>
+ * <p>
+ * Each packet carries the turns still needed by its sender from every player, and the local batches not yet
+ * acknowledged by all peers, so lost datagrams are covered by the next packets. Each batch also carries the world
+ * checksum at the start of the turn it was issued, compared on apply to detect desynchronization.
+ * </p>
+ * <p>
+ * Batches are encoded once, and only decoded when applied with an {@link OrderCodec} per player, so group slots are
+ * always decoded in turn order whatever the packets order. Local batches are decoded too, with their own codec, so
+ * local peer applies exactly the coalesced orders applied by remote peers.
+ * </p>
+ */
+public class Lockstep
+{
+    /** Default ticks per turn. */
+    public static final int DEFAULT_TURN_TICKS = 4;
+    /** Default input delay in turns. */
+    public static final int DEFAULT_DELAY = 2;
+    /** No turn. */
+    public static final int NONE = -1;
+
+    private static final int PACKET_SIZE = 65_507;
+    private static final int WINDOW = 32;
+    private static final int WINDOW_MASK = WINDOW - 1;
+    private static final int BATCH_HEADER = Integer.BYTES + Integer.BYTES + 1;
+    private static final int BATCH_MIN = Integer.BYTES + 1;
+    private static final String ERROR_DELAY = "Input delay out of window: ";
+    private static final String ERROR_TRANSPORT = "Lockstep transport error";
+    private static final String WARNING_DESYNC = "Lockstep desynchronized at turn ";
+    private static final String WARNING_PLAYER = " with player ";
+    private static final String WARNING_MALFORMED = "Lockstep malformed packet dropped from player ";
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Copy buffer remaining content.
+     * 
+     * @param buffer The buffer to copy.
+     * @return The copy, ready to be read.
+     */
+    private static ByteBuffer copy(ByteBuffer buffer)
+    {
+        final ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer);
+        copy.flip();
+        return copy;
+    }
+
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(PACKET_SIZE);
+    private final Batch[][] batches = new Batch[WINDOW][Players.MAX];
+    private final Batch[] own = new Batch[WINDOW];
+    private final int[] needed = new int[Players.MAX];
+    private final int[] received = new int[Players.MAX];
+    private final List<Order> issued = new ArrayList<>();
+    private final ByteBuffer scratch = ByteBuffer.allocate(PACKET_SIZE);
+    private final OrderCodec[] codecs = new OrderCodec[Players.MAX];
+    private final Orders orders;
+    private final WorldChecksum checksum;
+    private final EntityTypes types;
+    private final AiScheduler ai;
+
+    private Transport transport;
+    private OrderCodec encoder;
+    private int[] participants = new int[0];
+    private int local;
+    private int turnTicks = DEFAULT_TURN_TICKS;
+    private int delay = DEFAULT_DELAY;
+    private int tick;
+    private int turn;
+    private int flushed = NONE;
+    private int desync = NONE;
+    private long sent;
+    private boolean active;
+    private boolean stalled;
+
+    /**
+     * Create lockstep.
+     * 
+     * @param services The services reference.
+     */
+    public Lockstep(Services services)
+    {
+        super();
+
+        orders = services.get(Orders.class);
+        checksum = services.get(WorldChecksum.class);
+        types = services.get(EntityTypes.class);
+        ai = services.get(AiScheduler.class);
+    }
+
+    /**
+     * Set turn timing. Must be called before {@link #start(Transport, int, int...)}, same on all peers.
+     * 
+     * @param turnTicks The ticks per turn (strictly positive).
+     * @param delay The input delay in turns (strictly positive).
+     * @throws LionEngineException If delay does not fit in turns window.
+     */
+    public void setTiming(int turnTicks, int delay)
+    {
+        if (delay < 1 || delay * 2 + 1 >= WINDOW)
+        {
+            throw new LionEngineException(ERROR_DELAY + delay);
+        }
+        this.turnTicks = Math.max(1, turnTicks);
+        this.delay = delay;
+    }
+
+    /**
+     * Start session. Orders issued from now are sent to peers instead of being applied immediately.
+     * 
+     * @param transport The transport to peers.
+     * @param local The local player id.
+     * @param participants The ids of all players of the session, including local one.
+     */
+    public void start(Transport transport, int local, int... participants)
+    {
+        this.transport = transport;
+        this.local = local;
+        this.participants = participants.clone();
+        Arrays.sort(this.participants);
+        Arrays.fill(needed, delay);
+        Arrays.fill(received, delay);
+        Arrays.fill(own, null);
+        for (int player = 0; player < Players.MAX; player++)
+        {
+            codecs[player] = new OrderCodec(types);
+        }
+        encoder = new OrderCodec(types);
+        for (final Batch[] turns : batches)
+        {
+            Arrays.fill(turns, null);
+        }
+        issued.clear();
+        tick = 0;
+        turn = 0;
+        flushed = NONE;
+        desync = NONE;
+        sent = 0L;
+        stalled = false;
+        active = true;
+        ai.setDeterministic(true);
+        orders.setSink(this::issue);
+    }
+
+    /**
+     * Stop session and close transport. Orders are applied immediately again.
+     */
+    public void stop()
+    {
+        if (active)
+        {
+            active = false;
+            ai.setDeterministic(false);
+            orders.setSink(null);
+            transport.close();
+            transport = null;
+        }
+    }
+
+    /**
+     * Prepare next tick. Must be called once per frame, before simulation.
+     * 
+     * @return <code>true</code> if simulation can advance one tick, <code>false</code> if waiting for peers.
+     * @throws LionEngineException If transport error.
+     */
+    public boolean step()
+    {
+        if (!active)
+        {
+            return true;
+        }
+        try
+        {
+            poll();
+            if (tick % turnTicks == 0)
+            {
+                if (flushed != turn)
+                {
+                    flush();
+                    flushed = turn;
+                    send();
+                }
+                stalled = !isReady(turn);
+                if (stalled)
+                {
+                    send();
+                    return false;
+                }
+                apply(turn);
+            }
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, ERROR_TRANSPORT);
+        }
+        tick++;
+        if (tick % turnTicks == 0)
+        {
+            turn++;
+        }
+        return true;
+    }
+
+    /**
+     * Check if session is active.
+     * 
+     * @return <code>true</code> if active, <code>false</code> else.
+     */
+    public boolean isActive()
+    {
+        return active;
+    }
+
+    /**
+     * Check if last step was waiting for peers.
+     * 
+     * @return <code>true</code> if stalled, <code>false</code> else.
+     */
+    public boolean isStalled()
+    {
+        return stalled;
+    }
+
+    /**
+     * Get current turn.
+     * 
+     * @return The current turn.
+     */
+    public int getTurn()
+    {
+        return turn;
+    }
+
+    /**
+     * Get first desynchronized turn.
+     * 
+     * @return The first turn where checksums differed, {@link #NONE} if none.
+     */
+    public int getDesync()
+    {
+        return desync;
+    }
+
+    /**
+     * Get total sent bytes, per peer.
+     * 
+     * @return The sent bytes.
+     */
+    public long getSentBytes()
+    {
+        return sent;
+    }
+
+    /**
+     * Add issued order to current batch, if issued by local player.
+     * 
+     * @param order The issued order.
+     */
+    private void issue(Order order)
+    {
+        if (order.getPlayer() == local)
+        {
+            issued.add(order);
+        }
+    }
+
+    /**
+     * Close local batch of turn after input delay with issued orders.
+     */
+    private void flush()
+    {
+        scratch.clear();
+        encoder.encode(issued, scratch);
+        scratch.flip();
+        final Batch batch = new Batch(turn + delay, (int) checksum.getCurrent(), copy(scratch));
+        batches[batch.turn & WINDOW_MASK][local] = batch;
+        own[batch.turn & WINDOW_MASK] = batch;
+        received[local] = batch.turn + 1;
+        issued.clear();
+    }
+
+    /**
+     * Check if all players batches of turn have been received.
+     * 
+     * @param turn The turn to check.
+     * @return <code>true</code> if ready, <code>false</code> else.
+     */
+    private boolean isReady(int turn)
+    {
+        if (turn < delay)
+        {
+            return true;
+        }
+        final Batch[] current = batches[turn & WINDOW_MASK];
+        for (final int player : participants)
+        {
+            if (current[player] == null || current[player].turn != turn)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Apply orders of turn by player order, and compare issued checksums with local one.
+     * 
+     * @param turn The turn to apply.
+     */
+    private void apply(int turn)
+    {
+        if (turn < delay)
+        {
+            return;
+        }
+        final Batch[] current = batches[turn & WINDOW_MASK];
+        final int hash = current[local].hash;
+        for (final int player : participants)
+        {
+            final Batch batch = current[player];
+            if (batch.hash != hash && desync == NONE)
+            {
+                desync = turn - delay;
+                Verbose.warning(WARNING_DESYNC, String.valueOf(desync), WARNING_PLAYER, String.valueOf(player));
+            }
+            final List<Order> applied = codecs[player].decode(player, batch.encoded.duplicate());
+            final int n = applied.size();
+            for (int i = 0; i < n; i++)
+            {
+                orders.apply(applied.get(i));
+            }
+            current[player] = null;
+        }
+    }
+
+    /**
+     * Send needed turns and local batches not acknowledged by all peers.
+     * 
+     * @throws IOException If error.
+     */
+    private void send() throws IOException
+    {
+        int from = received[local];
+        for (final int player : participants)
+        {
+            if (player != local)
+            {
+                from = Math.min(from, needed[player]);
+            }
+        }
+
+        packet.clear();
+        packet.put((byte) local);
+        for (final int player : participants)
+        {
+            OrderCodec.writeVarint(packet, received[player]);
+        }
+        OrderCodec.writeVarint(packet, from);
+        final int countPosition = packet.position();
+        packet.put((byte) 0);
+        int count = 0;
+        for (int batchTurn = from; batchTurn < received[local]; batchTurn++)
+        {
+            final Batch batch = own[batchTurn & WINDOW_MASK];
+            if (batch == null || batch.turn != batchTurn || packet.remaining() < batch.getSize())
+            {
+                break;
+            }
+            batch.write(packet);
+            count++;
+        }
+        packet.put(countPosition, (byte) count);
+        packet.flip();
+        sent += packet.remaining();
+        transport.send(packet);
+    }
+
+    /**
+     * Receive all pending packets. Packets from unknown players, from local player, or truncated are dropped.
+     * 
+     * @throws IOException If error.
+     */
+    private void poll() throws IOException
+    {
+        while (transport.receive(packet))
+        {
+            if (!packet.hasRemaining())
+            {
+                continue;
+            }
+            final int player = packet.get() & BYTE_MASK;
+            if (player == local || Arrays.binarySearch(participants, player) < 0)
+            {
+                continue;
+            }
+            try
+            {
+                read(player);
+            }
+            catch (final BufferUnderflowException exception)
+            {
+                Verbose.warning(WARNING_MALFORMED, String.valueOf(player));
+            }
+        }
+    }
+
+    /**
+     * Read remote player packet content.
+     * 
+     * @param player The sender player.
+     * @throws BufferUnderflowException If packet is truncated.
+     */
+    private void read(int player)
+    {
+        for (final int participant : participants)
+        {
+            final int value = OrderCodec.readVarint(packet);
+            if (participant == local)
+            {
+                needed[player] = Math.max(needed[player], value);
+            }
+        }
+        final int from = OrderCodec.readVarint(packet);
+        final int count = packet.get() & BYTE_MASK;
+        if (count * BATCH_MIN > packet.remaining())
+        {
+            throw new BufferUnderflowException();
+        }
+        for (int i = 0; i < count; i++)
+        {
+            final Batch batch = Batch.read(from + i, packet);
+            final Batch[] slot = batches[batch.turn & WINDOW_MASK];
+            if (batch.turn >= turn && batch.turn < turn + WINDOW && slot[player] == null)
+            {
+                slot[player] = batch;
+            }
+        }
+        while (batches[received[player] & WINDOW_MASK][player] != null
+               && batches[received[player] & WINDOW_MASK][player].turn == received[player])
+        {
+            received[player]++;
+        }
+    }
+
+    /**
+     * Player orders of a turn.
+     */
+    private static final class Batch
+    {
+        /**
+         * Read batch.
+         * 
+         * @param turn The batch turn.
+         * @param buffer The buffer to read from.
+         * @return The read batch, still encoded.
+         * @throws BufferUnderflowException If batch is truncated.
+         */
+        static Batch read(int turn, ByteBuffer buffer)
+        {
+            final int hash = buffer.getInt();
+            final int length = OrderCodec.readVarint(buffer);
+            if (length < 0 || length > buffer.remaining())
+            {
+                throw new BufferUnderflowException();
+            }
+            final ByteBuffer encoded = buffer.slice();
+            encoded.limit(length);
+            buffer.position(buffer.position() + length);
+            return new Batch(turn, hash, copy(encoded));
+        }
+
+        private final int turn;
+        private final int hash;
+        private final ByteBuffer encoded;
+
+        /**
+         * Create batch.
+         * 
+         * @param turn The scheduled turn.
+         * @param hash The checksum at issue.
+         * @param encoded The encoded orders.
+         */
+        Batch(int turn, int hash, ByteBuffer encoded)
+        {
+            super();
+
+            this.turn = turn;
+            this.hash = hash;
+            this.encoded = encoded;
+        }
+
+        /**
+         * Get maximum written size.
+         * 
+         * @return The written size in bytes.
+         */
+        int getSize()
+        {
+            return BATCH_HEADER + encoded.remaining();
+        }
+
+        /**
+         * Write batch.
+         * 
+         * @param buffer The buffer to write to.
+         */
+        void write(ByteBuffer buffer)
+        {
+            buffer.putInt(hash);
+            OrderCodec.writeVarint(buffer, encoded.remaining());
+            buffer.put(encoded.duplicate());
+        }
+    }
+}
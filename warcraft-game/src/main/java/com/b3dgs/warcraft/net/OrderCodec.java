@@ -0,0 +1,468 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.b3dgs.warcraft.command.Order;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.world.WorldReferences;
+
+/**
+ * Compact binary codec of the orders stream of one player.
+ * <p>
+ * Consecutive orders with same parameters and distinct units are coalesced into a single order given to all their
+ * units, so an order given twice to the same unit is kept twice. Units
+ * are designated by group slots: a group is defined once with its sorted references encoded as runs of consecutive
+ * values, and then referenced by its slot packed in the order header byte. Numbers are written as variable length
+ * integers, and tiles as signed deltas from the previous order tile, so a move of any known selection takes three
+ * bytes.
+ * </p>
+ * <p>
+ * Group slots are replaced in round robin, so a stream must be decoded in the order it has been encoded, by a codec
+ * dedicated to that player.
+ * </p>
+ */
+public final class OrderCodec
+{
+    /** Group slots per player. */
+    public static final int GROUPS = 16;
+
+    private static final int KIND_MASK = 0x07;
+    private static final int FLAG_DEFINE = 0x08;
+    private static final int SLOT_SHIFT = 4;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+    private static final int VARINT_SHIFT = 7;
+    private static final int NONE = -1;
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Write unsigned variable length integer, seven bits per byte.
+     * 
+     * @param buffer The buffer to write to.
+     * @param value The value to write (considered as unsigned).
+     */
+    public static void writeVarint(ByteBuffer buffer, int value)
+    {
+        int remaining = value;
+        while ((remaining & ~VARINT_MASK) != 0)
+        {
+            buffer.put((byte) (remaining & VARINT_MASK | VARINT_MORE));
+            remaining >>>= VARINT_SHIFT;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Read unsigned variable length integer.
+     * 
+     * @param buffer The buffer to read from.
+     * @return The read value.
+     */
+    public static int readVarint(ByteBuffer buffer)
+    {
+        int value = 0;
+        int shift = 0;
+        int current;
+        do
+        {
+            current = buffer.get() & BYTE_MASK;
+            value |= (current & VARINT_MASK) << shift;
+            shift += VARINT_SHIFT;
+        }
+        while ((current & VARINT_MORE) != 0);
+        return value;
+    }
+
+    /**
+     * Write signed variable length integer, zigzag encoded so small negative values stay short.
+     * 
+     * @param buffer The buffer to write to.
+     * @param value The value to write.
+     */
+    public static void writeSigned(ByteBuffer buffer, int value)
+    {
+        writeVarint(buffer, value << 1 ^ value >> 31);
+    }
+
+    /**
+     * Read signed variable length integer.
+     * 
+     * @param buffer The buffer to read from.
+     * @return The read value.
+     */
+    public static int readSigned(ByteBuffer buffer)
+    {
+        final int value = readVarint(buffer);
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Get sorted references without duplicates.
+     * 
+     * @param units The units references.
+     * @return The sorted distinct references.
+     */
+    private static int[] normalize(int[] units)
+    {
+        final int[] sorted = Arrays.copyOf(units, units.length);
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++)
+        {
+            if (count == 0 || sorted[count - 1] != sorted[i])
+            {
+                sorted[count] = sorted[i];
+                count++;
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Check if order units are not already in set, and add them if so.
+     * 
+     * @param set The units already given the coalesced order.
+     * @param order The order to check.
+     * @return <code>true</code> if all units are new and have been added, <code>false</code> else.
+     */
+    private static boolean addDistinct(Set<Integer> set, Order order)
+    {
+        final int[] units = order.getUnits();
+        for (final int unit : units)
+        {
+            if (set.contains(Integer.valueOf(unit)))
+            {
+                return false;
+            }
+        }
+        for (final int unit : units)
+        {
+            set.add(Integer.valueOf(unit));
+        }
+        return true;
+    }
+
+    /**
+     * Coalesce consecutive orders with same parameters, as long as they are given to other units.
+     * 
+     * @param orders The orders to coalesce.
+     * @return The coalesced orders, with sorted distinct units.
+     */
+    private static List<Order> coalesce(List<Order> orders)
+    {
+        final List<Order> coalesced = new ArrayList<>();
+        final Set<Integer> set = new HashSet<>();
+        final int n = orders.size();
+        int start = 0;
+        while (start < n)
+        {
+            final Order first = orders.get(start);
+            set.clear();
+            addDistinct(set, first);
+            int end = start + 1;
+            int count = first.getUnits().length;
+            while (end < n && orders.get(end).isSameAs(first) && addDistinct(set, orders.get(end)))
+            {
+                count += orders.get(end).getUnits().length;
+                end++;
+            }
+            final int[] units = new int[count];
+            int offset = 0;
+            for (int i = start; i < end; i++)
+            {
+                final int[] current = orders.get(i).getUnits();
+                System.arraycopy(current, 0, units, offset, current.length);
+                offset += current.length;
+            }
+            coalesced.add(new Order(first.getKind(),
+                                    first.getPlayer(),
+                                    normalize(units),
+                                    first.getTarget(),
+                                    first.getTx(),
+                                    first.getTy(),
+                                    first.getType()));
+            start = end;
+        }
+        return coalesced;
+    }
+
+    /**
+     * Write sorted units as runs of consecutive references.
+     * 
+     * @param buffer The buffer to write to.
+     * @param units The sorted distinct units references.
+     */
+    private static void writeUnits(ByteBuffer buffer, int[] units)
+    {
+        int runs = 0;
+        for (int i = 0; i < units.length; i++)
+        {
+            if (i == 0 || units[i] != units[i - 1] + 1)
+            {
+                runs++;
+            }
+        }
+        writeVarint(buffer, runs);
+
+        int previous = 0;
+        int i = 0;
+        while (i < units.length)
+        {
+            int end = i + 1;
+            while (end < units.length && units[end] == units[end - 1] + 1)
+            {
+                end++;
+            }
+            writeVarint(buffer, units[i] - previous);
+            writeVarint(buffer, end - i - 1);
+            previous = units[end - 1] + 1;
+            i = end;
+        }
+    }
+
+    /**
+     * Read units runs.
+     * 
+     * @param buffer The buffer to read from.
+     * @return The units references.
+     */
+    private static int[] readUnits(ByteBuffer buffer)
+    {
+        final int runs = readVarint(buffer);
+        int[] units = new int[runs];
+        int count = 0;
+        int previous = 0;
+        for (int run = 0; run < runs; run++)
+        {
+            final int start = previous + readVarint(buffer);
+            final int length = readVarint(buffer) + 1;
+            if (count + length > units.length)
+            {
+                units = Arrays.copyOf(units, Math.max(count + length, units.length * 2));
+            }
+            for (int i = 0; i < length; i++)
+            {
+                units[count] = start + i;
+                count++;
+            }
+            previous = start + length;
+        }
+        return Arrays.copyOf(units, count);
+    }
+
+    private final int[][] groups = new int[GROUPS][];
+    private final EntityTypes types;
+    private int next;
+    private int tx;
+    private int ty;
+
+    /**
+     * Create codec.
+     * 
+     * @param types The entity types, indexing produced and built types.
+     */
+    public OrderCodec(EntityTypes types)
+    {
+        super();
+
+        this.types = types;
+    }
+
+    /**
+     * Encode orders of one batch, coalesced.
+     * 
+     * @param orders The orders to encode, in issue order.
+     * @param buffer The buffer to write to.
+     */
+    public void encode(List<Order> orders, ByteBuffer buffer)
+    {
+        final List<Order> coalesced = coalesce(orders);
+        final int n = coalesced.size();
+        writeVarint(buffer, n);
+        tx = 0;
+        ty = 0;
+        for (int i = 0; i < n; i++)
+        {
+            final Order order = coalesced.get(i);
+            final int[] units = order.getUnits();
+            int slot = find(units);
+            if (slot == NONE)
+            {
+                slot = next;
+                next = (next + 1) % GROUPS;
+                groups[slot] = units;
+                buffer.put((byte) (order.getKind() | FLAG_DEFINE | slot << SLOT_SHIFT));
+                writeUnits(buffer, units);
+            }
+            else
+            {
+                buffer.put((byte) (order.getKind() | slot << SLOT_SHIFT));
+            }
+            writeParameters(buffer, order);
+        }
+    }
+
+    /**
+     * Decode orders of one batch.
+     * 
+     * @param player The player id of the stream.
+     * @param buffer The buffer to read from.
+     * @return The decoded orders.
+     */
+    public List<Order> decode(int player, ByteBuffer buffer)
+    {
+        final int n = readVarint(buffer);
+        final List<Order> orders = new ArrayList<>(n);
+        tx = 0;
+        ty = 0;
+        for (int i = 0; i < n; i++)
+        {
+            final int header = buffer.get() & BYTE_MASK;
+            final int kind = header & KIND_MASK;
+            final int slot = header >>> SLOT_SHIFT;
+            if ((header & FLAG_DEFINE) != 0)
+            {
+                groups[slot] = readUnits(buffer);
+            }
+            final int[] units = groups[slot] != null ? groups[slot] : EMPTY;
+            orders.add(readParameters(buffer, kind, player, units));
+        }
+        return orders;
+    }
+
+    /**
+     * Find group slot with same units.
+     * 
+     * @param units The sorted distinct units references.
+     * @return The group slot, {@link #NONE} if none.
+     */
+    private int find(int[] units)
+    {
+        for (int slot = 0; slot < GROUPS; slot++)
+        {
+            if (Arrays.equals(groups[slot], units))
+            {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Write order parameters depending of its kind.
+     * 
+     * @param buffer The buffer to write to.
+     * @param order The order to write.
+     */
+    private void writeParameters(ByteBuffer buffer, Order order)
+    {
+        switch (order.getKind())
+        {
+            case Order.MOVE:
+            case Order.EXTRACT:
+                writeTile(buffer, order);
+                break;
+            case Order.ATTACK:
+                writeVarint(buffer, order.getTarget() - WorldReferences.NONE);
+                break;
+            case Order.PRODUCE:
+                writeVarint(buffer, types.getIndex(order.getType()));
+                break;
+            case Order.BUILD:
+                writeVarint(buffer, types.getIndex(order.getType()));
+                writeTile(buffer, order);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Read order parameters depending of its kind.
+     * 
+     * @param buffer The buffer to read from.
+     * @param kind The order kind.
+     * @param player The player id of the stream.
+     * @param units The order units.
+     * @return The read order.
+     */
+    private Order readParameters(ByteBuffer buffer, int kind, int player, int[] units)
+    {
+        int target = WorldReferences.NONE;
+        String type = null;
+        boolean tile = false;
+        switch (kind)
+        {
+            case Order.MOVE:
+            case Order.EXTRACT:
+                readTile(buffer);
+                tile = true;
+                break;
+            case Order.ATTACK:
+                target = readVarint(buffer) + WorldReferences.NONE;
+                break;
+            case Order.PRODUCE:
+                type = types.get(readVarint(buffer)).getPath();
+                break;
+            case Order.BUILD:
+                type = types.get(readVarint(buffer)).getPath();
+                readTile(buffer);
+                tile = true;
+                break;
+            default:
+                break;
+        }
+        if (tile)
+        {
+            return new Order(kind, player, units, target, tx, ty, type);
+        }
+        return new Order(kind, player, units, target, 0, 0, type);
+    }
+
+    /**
+     * Write order tile as delta from previous one.
+     * 
+     * @param buffer The buffer to write to.
+     * @param order The order.
+     */
+    private void writeTile(ByteBuffer buffer, Order order)
+    {
+        writeSigned(buffer, order.getTx() - tx);
+        writeSigned(buffer, order.getTy() - ty);
+        tx = order.getTx();
+        ty = order.getTy();
+    }
+
+    /**
+     * Read tile delta and update current tile.
+     * 
+     * @param buffer The buffer to read from.
+     */
+    private void readTile(ByteBuffer buffer)
+    {
+        tx += readSigned(buffer);
+        ty += readSigned(buffer);
+    }
+}
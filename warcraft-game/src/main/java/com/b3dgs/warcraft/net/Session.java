@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.Level;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.scenario.Scenario;
+import com.b3dgs.warcraft.world.WorldFog;
+
+/**
+ * Session settings sent by host to each joining peer, as first packet of its connection.
+ * <p>
+ * It describes the scenario to load, so all peers start from the same world, the lockstep timing, the player
+ * controlled by the peer, and all players of the session.
+ * </p>
+ */
+public final class Session
+{
+    private static final long POLL_NANO = TimeUnit.MILLISECONDS.toNanos(5L);
+    private static final int BYTE_MASK = 0xFF;
+    private static final String ERROR_LEVEL = "Unknown session level: ";
+    private static final String ERROR_TIMEOUT = "No session received after (ms): ";
+
+    /**
+     * Read session.
+     * 
+     * @param buffer The buffer to read from.
+     * @return The read session.
+     * @throws LionEngineException If invalid session.
+     */
+    public static Session read(ByteBuffer buffer)
+    {
+        final int index = buffer.get() & BYTE_MASK;
+        final Level[] levels = Level.values();
+        if (index >= levels.length)
+        {
+            throw new LionEngineException(ERROR_LEVEL + index);
+        }
+        final int units = OrderCodec.readVarint(buffer);
+        final int turnTicks = OrderCodec.readVarint(buffer);
+        final int delay = OrderCodec.readVarint(buffer);
+        final int local = buffer.get() & BYTE_MASK;
+        final int[] participants = new int[buffer.get() & BYTE_MASK];
+        for (int i = 0; i < participants.length; i++)
+        {
+            participants[i] = buffer.get() & BYTE_MASK;
+        }
+        return new Session(levels[index], units, turnTicks, delay, local, participants);
+    }
+
+    /**
+     * Wait for session sent by host, polling transport.
+     * 
+     * @param transport The transport to host.
+     * @param packet The packet buffer.
+     * @param timeout The maximum waiting time in milliseconds.
+     * @return The received session.
+     * @throws IOException If transport error.
+     * @throws LionEngineException If timeout or invalid session.
+     */
+    public static Session await(Transport transport, ByteBuffer packet, long timeout) throws IOException
+    {
+        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (!transport.receive(packet))
+        {
+            if (System.nanoTime() - end > 0L)
+            {
+                throw new LionEngineException(ERROR_TIMEOUT + timeout);
+            }
+            LockSupport.parkNanos(POLL_NANO);
+        }
+        return read(packet);
+    }
+
+    private final Level level;
+    private final int units;
+    private final int turnTicks;
+    private final int delay;
+    private final int local;
+    private final int[] participants;
+
+    /**
+     * Create session.
+     * 
+     * @param level The level to load.
+     * @param units The scenario total units.
+     * @param turnTicks The ticks per turn.
+     * @param delay The input delay in turns.
+     * @param local The player controlled by peer.
+     * @param participants The ids of all players of the session.
+     */
+    public Session(Level level, int units, int turnTicks, int delay, int local, int... participants)
+    {
+        super();
+
+        this.level = level;
+        this.units = units;
+        this.turnTicks = turnTicks;
+        this.delay = delay;
+        this.local = local;
+        this.participants = participants.clone();
+    }
+
+    /**
+     * Write session.
+     * 
+     * @param buffer The buffer to write to.
+     */
+    public void write(ByteBuffer buffer)
+    {
+        buffer.put((byte) level.ordinal());
+        OrderCodec.writeVarint(buffer, units);
+        OrderCodec.writeVarint(buffer, turnTicks);
+        OrderCodec.writeVarint(buffer, delay);
+        buffer.put((byte) local);
+        buffer.put((byte) participants.length);
+        for (final int participant : participants)
+        {
+            buffer.put((byte) participant);
+        }
+    }
+
+    /**
+     * Create the scenario to load, same on all peers.
+     * 
+     * @return The session scenario.
+     */
+    public Scenario createScenario()
+    {
+        return Scenario.scale(level, units);
+    }
+
+    /**
+     * Apply peer player as local player, then start lockstep with session timing and players. World must have been
+     * loaded with session scenario.
+     * 
+     * @param services The world services reference.
+     * @param transport The transport to host.
+     */
+    public void start(Services services, Transport transport)
+    {
+        services.get(Players.class).setLocal(local);
+        services.get(WorldFog.class).setPlayer(local);
+
+        final Lockstep lockstep = services.get(Lockstep.class);
+        lockstep.setTiming(turnTicks, delay);
+        lockstep.start(transport, local, participants);
+    }
+
+    /**
+     * Get the level to load.
+     * 
+     * @return The level.
+     */
+    public Level getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * Get the player controlled by peer.
+     * 
+     * @return The local player id.
+     */
+    public int getLocal()
+    {
+        return local;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Packets transport between peers. Implementations must never block.
+ */
+public interface Transport
+{
+    /**
+     * Send packet to all peers.
+     * 
+     * @param packet The packet, from its position to its limit.
+     * @throws IOException If error.
+     */
+    void send(ByteBuffer packet) throws IOException;
+
+    /**
+     * Receive next pending packet, if any.
+     * 
+     * @param packet The packet buffer, cleared and then flipped for reading if a packet has been received.
+     * @return <code>true</code> if a packet has been received, <code>false</code> if none pending.
+     * @throws IOException If error.
+     */
+    boolean receive(ByteBuffer packet) throws IOException;
+
+    /**
+     * Close transport.
+     */
+    void close();
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import com.b3dgs.lionengine.Verbose;
+
+/**
+ * Stream transport over a non-blocking {@link SocketChannel}, to a single peer.
+ * <p>
+ * Packets are framed with their length on two bytes. Pending output is kept until the channel accepts it, and input is
+ * buffered until a whole frame has been received. Stream is reliable and ordered, so the protocol on top never has to
+ * resend anything, but may still do it.
+ * </p>
+ */
+public class TransportTcp implements Transport
+{
+    /** Maximum packet size. */
+    public static final int PACKET_SIZE = 0xFFFF;
+
+    private static final int FRAME_HEADER = Short.BYTES;
+    private static final int BUFFER_SIZE = (FRAME_HEADER + PACKET_SIZE) * 4;
+    private static final String ERROR_CLOSED = "Connection closed by peer";
+    private static final String ERROR_OVERFLOW = "Peer does not read, pending output full";
+    private static final String ERROR_SIZE = "Packet too large: ";
+    private static final String ERROR_CLOSE = "Unable to close channel";
+
+    /**
+     * Connect to peer. Connection is blocking, and then transport does not block anymore.
+     * 
+     * @param address The peer address.
+     * @return The connected transport.
+     * @throws IOException If unable to connect.
+     */
+    public static TransportTcp connect(InetSocketAddress address) throws IOException
+    {
+        return new TransportTcp(SocketChannel.open(address));
+    }
+
+    private final ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final SocketChannel channel;
+
+    /**
+     * Create transport.
+     * 
+     * @param channel The connected channel, configured as non-blocking.
+     * @throws IOException If unable to configure channel.
+     */
+    public TransportTcp(SocketChannel channel) throws IOException
+    {
+        super();
+
+        this.channel = channel;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+    }
+
+    /**
+     * Write as much pending output as accepted by channel.
+     * 
+     * @throws IOException If error.
+     */
+    private void flush() throws IOException
+    {
+        output.flip();
+        if (output.hasRemaining())
+        {
+            channel.write(output);
+        }
+        output.compact();
+    }
+
+    /**
+     * Check if input contains a whole frame. Input must be ready to be read.
+     * 
+     * @return <code>true</code> if a whole frame is available, <code>false</code> else.
+     */
+    private boolean hasFrame()
+    {
+        return input.remaining() >= FRAME_HEADER
+               && input.remaining() >= FRAME_HEADER + (input.getShort(input.position()) & PACKET_SIZE);
+    }
+
+    @Override
+    public void send(ByteBuffer packet) throws IOException
+    {
+        final int size = packet.remaining();
+        if (size > PACKET_SIZE)
+        {
+            throw new IOException(ERROR_SIZE + size);
+        }
+        flush();
+        if (output.remaining() < FRAME_HEADER + size)
+        {
+            throw new IOException(ERROR_OVERFLOW);
+        }
+        output.putShort((short) size);
+        output.put(packet);
+        flush();
+    }
+
+    @Override
+    public boolean receive(ByteBuffer packet) throws IOException
+    {
+        flush();
+        if (channel.read(input) < 0)
+        {
+            throw new EOFException(ERROR_CLOSED);
+        }
+        input.flip();
+        final boolean received = hasFrame();
+        if (received)
+        {
+            final int size = input.getShort() & PACKET_SIZE;
+            final ByteBuffer frame = input.slice();
+            frame.limit(size);
+            input.position(input.position() + size);
+            packet.clear();
+            packet.put(frame);
+            packet.flip();
+        }
+        input.compact();
+        return received;
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            channel.close();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_CLOSE);
+        }
+    }
+}
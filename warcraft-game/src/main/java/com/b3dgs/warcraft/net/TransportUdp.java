@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.b3dgs.lionengine.Verbose;
+
+/**
+ * Datagram transport over a non-blocking {@link DatagramChannel}, sending each packet to every peer.
+ * <p>
+ * Datagrams may be lost, duplicated or reordered, so the protocol on top must be idempotent and resend what has not
+ * been acknowledged.
+ * </p>
+ */
+public class TransportUdp implements Transport
+{
+    private static final String ERROR_CLOSE = "Unable to close channel";
+
+    private final List<SocketAddress> peers = new ArrayList<>();
+    private final DatagramChannel channel;
+
+    /**
+     * Create transport.
+     * 
+     * @param address The local address to bind (port <code>0</code> for any free port).
+     * @throws IOException If unable to open channel.
+     */
+    public TransportUdp(InetSocketAddress address) throws IOException
+    {
+        super();
+
+        channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        channel.configureBlocking(false);
+        channel.bind(address);
+    }
+
+    /**
+     * Add peer.
+     * 
+     * @param peer The peer address.
+     */
+    public void addPeer(SocketAddress peer)
+    {
+        peers.add(peer);
+    }
+
+    /**
+     * Get bound local address.
+     * 
+     * @return The local address.
+     * @throws IOException If error.
+     */
+    public SocketAddress getAddress() throws IOException
+    {
+        return channel.getLocalAddress();
+    }
+
+    @Override
+    public void send(ByteBuffer packet) throws IOException
+    {
+        final int start = packet.position();
+        final int n = peers.size();
+        for (int i = 0; i < n; i++)
+        {
+            packet.position(start);
+            channel.send(packet, peers.get(i));
+        }
+    }
+
+    @Override
+    public boolean receive(ByteBuffer packet) throws IOException
+    {
+        packet.clear();
+        if (channel.receive(packet) == null)
+        {
+            return false;
+        }
+        packet.flip();
+        return true;
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            channel.close();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_CLOSE);
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.b3dgs.lionengine.game.feature.AnimatableModel;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeaturableModel;
 import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.LayerableModel;
 import com.b3dgs.lionengine.game.feature.MirrorableModel;
 import com.b3dgs.lionengine.game.feature.Routines;
@@ -46,14 +47,18 @@ import com.b3dgs.lionengine.game.feature.producible.ProducibleModel;
 import com.b3dgs.lionengine.game.feature.state.State;
 import com.b3dgs.lionengine.game.feature.state.StateHandler;
 import com.b3dgs.lionengine.game.feature.tile.map.extractable.ExtractorChecker;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.ExtractorListenerVoid;
 import com.b3dgs.lionengine.game.feature.tile.map.extractable.ExtractorModel;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathfindableModel;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.feature.Production;
 import com.b3dgs.warcraft.object.feature.Warehouse;
 import com.b3dgs.warcraft.object.state.StateIdle;
 import com.b3dgs.warcraft.object.state.StateProducing;
+import com.b3dgs.warcraft.profiler.Tracer;
+import com.b3dgs.warcraft.profiler.Tracing;
 
 /**
  * Entity representation base.
@@ -73,6 +78,21 @@ public class Entity extends FeaturableModel
         return state.getSimpleName().substring(PREFIX).toLowerCase(Locale.ENGLISH);
     }
 
+    /**
+     * Get traced state name.
+     * 
+     * @param state The state class (can be <code>null</code>).
+     * @return The state name, empty if none.
+     */
+    private static String getStateName(Class<? extends State> state)
+    {
+        if (state == null)
+        {
+            return com.b3dgs.lionengine.Constant.EMPTY_STRING;
+        }
+        return state.getSimpleName();
+    }
+
     /**
      * Create entity.
      * 
@@ -88,7 +108,7 @@ public class Entity extends FeaturableModel
         addFeature(new TransformableModel(setup));
         addFeature(new SelectableModel());
         addFeature(new AnimatableModel());
-        addFeature(new EntityStats(services, setup));
+        final EntityStats stats = addFeatureAndGet(new EntityStats(services, setup));
         addFeature(new ProducibleModel(setup));
         addFeature(new ActionerModel(setup));
         final Pathfindable pathfindable = addFeatureAndGet(new PathfindableModel(services, setup));
@@ -113,6 +133,8 @@ public class Entity extends FeaturableModel
         });
 
         final Handler handler = services.get(Handler.class);
+        final Owners owners = services.get(Owners.class);
+        final Identifiable identifiable = getFeature(Identifiable.class);
         final ExtractorModel extractor = addFeatureAndGet(new ExtractorModel(services, setup));
         extractor.setChecker(new ExtractorChecker()
         {
@@ -128,11 +150,12 @@ public class Entity extends FeaturableModel
             @Override
             public boolean canCarry()
             {
-                final Tiled warehouse = handler.get(Warehouse.class).iterator().next();
-                return UtilMath.getDistance(pathfindable.getInTileX(),
-                                            pathfindable.getInTileY(),
-                                            warehouse.getInTileX(),
-                                            warehouse.getInTileY()) < 2;
+                final Tiled warehouse = Warehouse.find(handler, owners.get(identifiable.getId().intValue()));
+                return warehouse != null
+                       && UtilMath.getDistance(pathfindable.getInTileX(),
+                                               pathfindable.getInTileY(),
+                                               warehouse.getInTileX(),
+                                               warehouse.getInTileY()) < 2;
             }
         });
 
@@ -145,7 +168,31 @@ public class Entity extends FeaturableModel
         collidable.setCollisionVisibility(false);
         collidable.setOrigin(Origin.BOTTOM_LEFT);
 
-        addFeature(new EntityModel(services, setup));
+        final EntityModel model = addFeatureAndGet(new EntityModel(services, setup));
+        addFeature(new Production(services, setup));
+        stateHandler.addListener((from, next) -> model.setState(next));
+        if (Tracing.isEnabled())
+        {
+            final Tracer tracer = Tracing.get();
+            stateHandler.addListener((from, next) -> tracer.notifyStateChanged(identifiable.getId().intValue(),
+                                                                               getStateName(from),
+                                                                               getStateName(next)));
+        }
+        stats.addListener(life -> model.wake());
+        extractor.addListener(new ExtractorListenerVoid()
+        {
+            @Override
+            public void notifyExtracted(String type, int currentQuantity)
+            {
+                model.setCargo(type, currentQuantity);
+            }
+
+            @Override
+            public void notifyDroppedOff(String type, int droppedQuantity)
+            {
+                model.setCargo(null, 0);
+            }
+        });
     }
 
     @Override
@@ -154,7 +201,7 @@ public class Entity extends FeaturableModel
         addFeature(new Routines());
 
         final EntityModel model = getFeature(EntityModel.class);
-        addFeature(new EntityUpdater(services));
+        addFeature(new EntityUpdater(services, setup));
         addFeature(new EntityRenderer(services, model));
     }
 }
@@ -17,18 +17,24 @@
 package com.b3dgs.warcraft.object;
 
 import com.b3dgs.lionengine.Origin;
+import com.b3dgs.lionengine.game.FeatureProvider;
 import com.b3dgs.lionengine.game.FramesConfig;
+import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.collidable.Collidable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Hud;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selector;
+import com.b3dgs.lionengine.game.feature.state.State;
 import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.SpriteAnimated;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.object.state.StateIdle;
 
 /**
  * Entity model implementation.
@@ -36,15 +42,26 @@ import com.b3dgs.lionengine.graphic.drawable.SpriteAnimated;
 @FeatureInterface
 public final class EntityModel extends FeatureModel
 {
+    private final EntityType type;
     private final SpriteAnimated surface;
     private final Hud hud;
     private final Selector selector;
     private final Services services;
+    private final Owners owners;
+    private final int defaultOwner;
 
+    @FeatureGet private Identifiable identifiable;
     @FeatureGet private Collidable collidable;
     @FeatureGet private Selectable selectable;
 
+    private Featurable featurable;
+    private int id;
     private boolean visible = true;
+    private boolean dead;
+    private boolean sleeping;
+    private Class<? extends State> state = StateIdle.class;
+    private String cargoType;
+    private int cargo;
 
     /**
      * Create model.
@@ -58,13 +75,40 @@ public final class EntityModel extends FeatureModel
 
         this.services = services;
 
-        final FramesConfig config = FramesConfig.imports(setup);
+        type = services.get(EntityTypes.class).get(setup.getMedia());
+        final FramesConfig config = type.getFrames();
         surface = Drawable.loadSpriteAnimated(setup.getSurface(), config.getHorizontal(), config.getVertical());
         surface.setOrigin(Origin.BOTTOM_LEFT);
         surface.setFrameOffsets(config.getOffsetX(), config.getOffsetY());
 
         hud = services.get(Hud.class);
         selector = services.get(Selector.class);
+        owners = services.get(Owners.class);
+        defaultOwner = services.get(Players.class).getDefault(type.getRace());
+    }
+
+    @Override
+    public void prepare(FeatureProvider provider)
+    {
+        super.prepare(provider);
+
+        featurable = (Featurable) provider;
+        id = identifiable.getId().intValue();
+        owners.set(id, defaultOwner);
+    }
+
+    /**
+     * Reset to initial state, visible, awake, idle, without cargo and owned by first player of its race.
+     */
+    public void reset()
+    {
+        owners.set(id, defaultOwner);
+        dead = false;
+        sleeping = false;
+        setVisible(true);
+        state = StateIdle.class;
+        cargoType = null;
+        cargo = 0;
     }
 
     /**
@@ -75,12 +119,52 @@ public final class EntityModel extends FeatureModel
     public void setVisible(boolean visible)
     {
         this.visible = visible;
-        collidable.setEnabled(visible);
-        if (!visible && selector.getSelection().remove(selectable))
-        {
-            selectable.onSelection(false);
-            hud.clearMenus();
-        }
+        setInteractive(visible);
+    }
+
+    /**
+     * Set as dead, still rendered but no more collidable nor selectable.
+     */
+    public void setDead()
+    {
+        dead = true;
+        setInteractive(false);
+    }
+
+    /**
+     * Check dead flag.
+     * 
+     * @return <code>true</code> if dead, <code>false</code> else.
+     */
+    public boolean isDead()
+    {
+        return dead;
+    }
+
+    /**
+     * Put entity to sleep, it is not updated until {@link #wake()}.
+     */
+    public void sleep()
+    {
+        sleeping = true;
+    }
+
+    /**
+     * Wake entity, updated again from next tick.
+     */
+    public void wake()
+    {
+        sleeping = false;
+    }
+
+    /**
+     * Check sleeping flag.
+     * 
+     * @return <code>true</code> if sleeping, <code>false</code> else.
+     */
+    public boolean isSleeping()
+    {
+        return sleeping;
     }
 
     /**
@@ -93,6 +177,113 @@ public final class EntityModel extends FeatureModel
         return visible;
     }
 
+    /**
+     * Set the current state.
+     * 
+     * @param state The current state.
+     */
+    public void setState(Class<? extends State> state)
+    {
+        this.state = state;
+    }
+
+    /**
+     * Get the current state.
+     * 
+     * @return The current state.
+     */
+    public Class<? extends State> getState()
+    {
+        return state;
+    }
+
+    /**
+     * Set the carried resource.
+     * 
+     * @param type The resource type (<code>null</code> if none).
+     * @param quantity The carried quantity.
+     */
+    public void setCargo(String type, int quantity)
+    {
+        cargoType = type;
+        cargo = quantity;
+    }
+
+    /**
+     * Get the carried resource type.
+     * 
+     * @return The carried resource type, <code>null</code> if none.
+     */
+    public String getCargoType()
+    {
+        return cargoType;
+    }
+
+    /**
+     * Get the carried resource quantity.
+     * 
+     * @return The carried quantity.
+     */
+    public int getCargo()
+    {
+        return cargo;
+    }
+
+    /**
+     * Enable or disable collision, and remove from selection if disabled.
+     * 
+     * @param interactive <code>true</code> if interactive, <code>false</code> else.
+     */
+    private void setInteractive(boolean interactive)
+    {
+        collidable.setEnabled(interactive);
+        if (!interactive && selector.getSelection().remove(selectable))
+        {
+            selectable.onSelection(false);
+            hud.clearMenus();
+        }
+    }
+
+    /**
+     * Get the entity type.
+     * 
+     * @return The entity type.
+     */
+    public EntityType getType()
+    {
+        return type;
+    }
+
+    /**
+     * Get the entity race.
+     * 
+     * @return The entity race, <code>null</code> if none.
+     */
+    public String getRace()
+    {
+        return type.getRace();
+    }
+
+    /**
+     * Set the owner player.
+     * 
+     * @param player The owner player id.
+     */
+    public void setOwner(int player)
+    {
+        owners.set(id, player);
+    }
+
+    /**
+     * Get the owner player.
+     * 
+     * @return The owner player id.
+     */
+    public int getOwner()
+    {
+        return owners.get(id);
+    }
+
     /**
      * Get the surface reference.
      * 
@@ -103,6 +294,16 @@ public final class EntityModel extends FeatureModel
         return surface;
     }
 
+    /**
+     * Get the owner entity.
+     * 
+     * @return The owner entity.
+     */
+    public Featurable getFeaturable()
+    {
+        return featurable;
+    }
+
     /**
      * Get the services reference.
      * 
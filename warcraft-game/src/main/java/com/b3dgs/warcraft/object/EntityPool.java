@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.object;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.feature.Factory;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.attackable.Attacker;
+import com.b3dgs.lionengine.game.feature.state.StateHandler;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.feature.Production;
+import com.b3dgs.warcraft.object.state.StateIdle;
+
+/**
+ * Per type entities pool.
+ * <p>
+ * Released entities are removed from handler and reset to a clean state, then reused by {@link #acquire(Media)}
+ * instead of creating a new features graph. Their identifier is kept, as they are not destroyed. Entities released
+ * when the pool of their type is full are destroyed.
+ * </p>
+ */
+public class EntityPool
+{
+    /** Default maximum pooled entities per type. */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final Map<String, Deque<Featurable>> pools = new HashMap<>();
+    private final Factory factory;
+    private final Handler handler;
+    private int capacity = DEFAULT_CAPACITY;
+
+    /**
+     * Create pool.
+     * 
+     * @param services The services reference.
+     */
+    public EntityPool(Services services)
+    {
+        super();
+
+        factory = services.get(Factory.class);
+        handler = services.get(Handler.class);
+    }
+
+    /**
+     * Set maximum pooled entities per type.
+     * 
+     * @param capacity The capacity per type.
+     */
+    public void setCapacity(int capacity)
+    {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get a pooled entity, or create it if none available. Entity is not added to handler.
+     * 
+     * @param media The entity media.
+     * @return The entity instance.
+     */
+    public Featurable acquire(Media media)
+    {
+        final Deque<Featurable> pool = pools.get(media.getPath());
+        if (pool != null && !pool.isEmpty())
+        {
+            return pool.pop();
+        }
+        return factory.create(media);
+    }
+
+    /**
+     * Release entity, removed from handler and reset to be reused.
+     * 
+     * @param featurable The entity to release.
+     */
+    public void release(Featurable featurable)
+    {
+        final Deque<Featurable> pool = pools.computeIfAbsent(featurable.getMedia().getPath(),
+                                                              path -> new ArrayDeque<>());
+        if (pool.size() < capacity)
+        {
+            handler.remove(featurable);
+            reset(featurable);
+            pool.push(featurable);
+        }
+        else
+        {
+            featurable.getFeature(Identifiable.class).destroy();
+        }
+    }
+
+    /**
+     * Give back an acquired entity that has never been added to handler, reset to be reused.
+     * 
+     * @param featurable The entity to give back.
+     */
+    public void discard(Featurable featurable)
+    {
+        final Deque<Featurable> pool = pools.computeIfAbsent(featurable.getMedia().getPath(),
+                                                              path -> new ArrayDeque<>());
+        if (pool.size() < capacity)
+        {
+            reset(featurable);
+            pool.push(featurable);
+        }
+        else
+        {
+            featurable.getFeature(Identifiable.class).destroy();
+        }
+    }
+
+    /**
+     * Get the number of pooled entities of a type.
+     * 
+     * @param media The entity media.
+     * @return The pooled entities number.
+     */
+    public int getPooled(Media media)
+    {
+        final Deque<Featurable> pool = pools.get(media.getPath());
+        if (pool == null)
+        {
+            return 0;
+        }
+        return pool.size();
+    }
+
+    /**
+     * Reset entity features to their initial state.
+     * 
+     * @param featurable The entity to reset.
+     */
+    private void reset(Featurable featurable)
+    {
+        featurable.getFeature(Production.class).clear();
+        featurable.getFeature(Pathfindable.class).clearPath();
+        featurable.getFeature(Attacker.class).stopAttack();
+        featurable.getFeature(Extractor.class).stopExtraction();
+        featurable.getFeature(EntityStats.class).reset();
+        featurable.getFeature(EntityModel.class).reset();
+        featurable.getFeature(StateHandler.class).changeState(StateIdle.class);
+    }
+}
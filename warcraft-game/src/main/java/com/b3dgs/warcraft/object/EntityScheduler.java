@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.object;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+
+/**
+ * Entities update buckets, used by {@link UpdateRate#PERIODIC} features.
+ * <p>
+ * Each entity is assigned on add to the least loaded of {@link #getPeriod()} buckets, and a single bucket is due per
+ * tick, so periodic work per tick stays balanced whatever the spawn order.
+ * </p>
+ */
+public class EntityScheduler implements Updatable, HandlerListener
+{
+    /** Default ticks between two periodic updates. */
+    public static final int DEFAULT_PERIOD = 4;
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final int period = DEFAULT_PERIOD;
+    private final int[] loads = new int[period];
+
+    private int[] buckets = new int[INITIAL_CAPACITY];
+    private int current;
+
+    /**
+     * Create scheduler.
+     * 
+     * @param services The services reference.
+     */
+    public EntityScheduler(Services services)
+    {
+        super();
+
+        Arrays.fill(buckets, NONE);
+        services.get(Handler.class).addListener(this);
+    }
+
+    /**
+     * Check if entity bucket is due on current tick.
+     * 
+     * @param id The entity id.
+     * @return <code>true</code> if due, <code>false</code> else.
+     */
+    public boolean isDue(int id)
+    {
+        return id < buckets.length && buckets[id] == current;
+    }
+
+    /**
+     * Get ticks between two periodic updates.
+     * 
+     * @return The period.
+     */
+    public int getPeriod()
+    {
+        return period;
+    }
+
+    /**
+     * Get least loaded bucket.
+     * 
+     * @return The bucket index.
+     */
+    private int getLeastLoaded()
+    {
+        int bucket = 0;
+        for (int i = 1; i < period; i++)
+        {
+            if (loads[i] < loads[bucket])
+            {
+                bucket = i;
+            }
+        }
+        return bucket;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        current = (current + 1) % period;
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityUpdater.class))
+        {
+            final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+            if (id >= buckets.length)
+            {
+                final int old = buckets.length;
+                buckets = Arrays.copyOf(buckets, Math.max(id + 1, old * 2));
+                Arrays.fill(buckets, old, buckets.length, NONE);
+            }
+            if (buckets[id] == NONE)
+            {
+                buckets[id] = getLeastLoaded();
+                loads[buckets[id]]++;
+            }
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+        if (id < buckets.length && buckets[id] != NONE)
+        {
+            loads[buckets[id]]--;
+            buckets[id] = NONE;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.object;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.AnimationConfig;
+import com.b3dgs.lionengine.game.FramesConfig;
+import com.b3dgs.lionengine.game.SizeConfig;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.warcraft.Cost;
+
+/**
+ * Immutable entity type descriptor, read once from its setup.
+ */
+public final class EntityType
+{
+    /** Attributes node. */
+    public static final String NODE_ATTRIBUTES = "attributes";
+    /** Life attribute. */
+    public static final String ATT_LIFE = "life";
+    /** Field of view attribute. */
+    public static final String ATT_FOV = "fov";
+    /** Race node. */
+    public static final String NODE_RACE = "race";
+    /** Name attribute. */
+    public static final String ATT_NAME = "name";
+    /** Attacker node. */
+    public static final String NODE_ATTACKER = Constant.XML_PREFIX + "attacker";
+    /** Maximum damages attribute. */
+    public static final String ATT_DAMAGES_MAX = "damages_max";
+    /** Extractor node. */
+    public static final String NODE_EXTRACTOR = Constant.XML_PREFIX + "extractor";
+    /** Extractor capacity attribute. */
+    public static final String ATT_CAPACITY = "capacity";
+    /** Walk animation, defining a mobile type. */
+    public static final String ANIMATION_WALK = "walk";
+
+    /**
+     * Import type from setup.
+     * 
+     * @param media The type media.
+     * @param setup The type setup.
+     * @return The imported type.
+     */
+    public static EntityType imports(Media media, Setup setup)
+    {
+        return new EntityType(media, setup);
+    }
+
+    private final Media media;
+    private final String path;
+    private final Setup setup;
+    private final String name;
+    private final String race;
+    private final Media icon;
+    private final FramesConfig frames;
+    private final SizeConfig size;
+    private final Cost cost;
+    private final int life;
+    private final int fov;
+    private final int damages;
+    private final boolean mobile;
+    private final boolean extractor;
+
+    /**
+     * Create type.
+     * 
+     * @param media The type media.
+     * @param setup The type setup.
+     */
+    private EntityType(Media media, Setup setup)
+    {
+        super();
+
+        this.media = media;
+        this.setup = setup;
+        path = media.getPath();
+        name = setup.getString(ATT_NAME);
+        race = setup.getTextDefault(null, NODE_RACE);
+        icon = setup.getIconFile();
+        frames = FramesConfig.imports(setup);
+        size = SizeConfig.imports(setup);
+        cost = Cost.imports(setup);
+        life = setup.getIntegerDefault(0, ATT_LIFE, NODE_ATTRIBUTES);
+        fov = setup.getIntegerDefault(0, ATT_FOV, NODE_ATTRIBUTES);
+        damages = setup.getIntegerDefault(0, ATT_DAMAGES_MAX, NODE_ATTACKER);
+        mobile = AnimationConfig.imports(setup).hasAnimation(ANIMATION_WALK);
+        extractor = setup.getIntegerDefault(0, ATT_CAPACITY, NODE_EXTRACTOR) > 0;
+    }
+
+    /**
+     * Get type media.
+     * 
+     * @return The type media.
+     */
+    public Media getMedia()
+    {
+        return media;
+    }
+
+    /**
+     * Get type media path.
+     * 
+     * @return The type media path.
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Get type setup, shared by all instances.
+     * 
+     * @return The type setup.
+     */
+    public Setup getSetup()
+    {
+        return setup;
+    }
+
+    /**
+     * Get type name.
+     * 
+     * @return The type name.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Get race.
+     * 
+     * @return The race name, <code>null</code> if none.
+     */
+    public String getRace()
+    {
+        return race;
+    }
+
+    /**
+     * Get icon media.
+     * 
+     * @return The icon media, <code>null</code> if none.
+     */
+    public Media getIcon()
+    {
+        return icon;
+    }
+
+    /**
+     * Get frames data.
+     * 
+     * @return The frames data.
+     */
+    public FramesConfig getFrames()
+    {
+        return frames;
+    }
+
+    /**
+     * Get size data.
+     * 
+     * @return The size data.
+     */
+    public SizeConfig getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Get production cost.
+     * 
+     * @return The production cost.
+     */
+    public Cost getCost()
+    {
+        return cost;
+    }
+
+    /**
+     * Get life attribute.
+     * 
+     * @return The life attribute.
+     */
+    public int getLife()
+    {
+        return life;
+    }
+
+    /**
+     * Get field of view in tile.
+     * 
+     * @return The field of view.
+     */
+    public int getFov()
+    {
+        return fov;
+    }
+
+    /**
+     * Get maximum damages.
+     * 
+     * @return The maximum damages, <code>0</code> if unarmed.
+     */
+    public int getDamages()
+    {
+        return damages;
+    }
+
+    /**
+     * Check if type can move.
+     * 
+     * @return <code>true</code> if mobile, <code>false</code> if static.
+     */
+    public boolean isMobile()
+    {
+        return mobile;
+    }
+
+    /**
+     * Check if type can extract resources.
+     * 
+     * @return <code>true</code> if extractor, <code>false</code> else.
+     */
+    public boolean isExtractor()
+    {
+        return extractor;
+    }
+}
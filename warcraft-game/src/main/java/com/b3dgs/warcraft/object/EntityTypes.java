@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.object;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.game.feature.Factory;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.constant.Extension;
+import com.b3dgs.warcraft.constant.Folder;
+
+/**
+ * Entity types registry, loaded once on startup from all entities definitions.
+ * <p>
+ * Setups are created through the {@link Factory}, so it already holds them when spawning, and each type is described
+ * by an immutable {@link EntityType}. Once loaded, spawning and buttons do not read any XML.
+ * </p>
+ */
+public class EntityTypes
+{
+    private static final String ERROR_TYPE = "Unknown entity type: ";
+    private static final String ERROR_INDEX = "Unknown entity type index: ";
+    private static final String[] FOLDERS =
+    {
+        Folder.ORCS, Folder.HUMANS, Folder.NEUTRAL
+    };
+
+    private final Map<String, EntityType> types = new HashMap<>();
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<EntityType> values = new ArrayList<>();
+    private final Factory factory;
+
+    /**
+     * Create registry.
+     * 
+     * @param services The services reference.
+     */
+    public EntityTypes(Services services)
+    {
+        super();
+
+        factory = services.get(Factory.class);
+    }
+
+    /**
+     * Load all entities types, indexed by path order. Does nothing if already loaded.
+     */
+    public void load()
+    {
+        if (values.isEmpty())
+        {
+            for (final String folder : FOLDERS)
+            {
+                for (final Media media : Medias.create(folder).getMedias())
+                {
+                    if (media.getPath().endsWith(Extension.XML))
+                    {
+                        final EntityType type = EntityType.imports(media, factory.getSetup(media));
+                        types.put(type.getPath(), type);
+                        values.add(type);
+                    }
+                }
+            }
+            values.sort(Comparator.comparing(EntityType::getPath));
+            final int n = values.size();
+            for (int i = 0; i < n; i++)
+            {
+                indexes.put(values.get(i).getPath(), Integer.valueOf(i));
+            }
+        }
+    }
+
+    /**
+     * Get type from its media.
+     * 
+     * @param media The type media.
+     * @return The type.
+     * @throws LionEngineException If unknown type.
+     */
+    public EntityType get(Media media)
+    {
+        return get(media.getPath());
+    }
+
+    /**
+     * Get type from its media path.
+     * 
+     * @param path The type media path.
+     * @return The type.
+     * @throws LionEngineException If unknown type.
+     */
+    public EntityType get(String path)
+    {
+        final EntityType type = types.get(path);
+        if (type == null)
+        {
+            throw new LionEngineException(ERROR_TYPE + path);
+        }
+        return type;
+    }
+
+    /**
+     * Get type from its index.
+     * 
+     * @param index The type index.
+     * @return The type.
+     * @throws LionEngineException If unknown index.
+     */
+    public EntityType get(int index)
+    {
+        if (index < 0 || index >= values.size())
+        {
+            throw new LionEngineException(ERROR_INDEX + index);
+        }
+        return values.get(index);
+    }
+
+    /**
+     * Get type index, same on every installation as types are sorted by path.
+     * 
+     * @param path The type media path.
+     * @return The type index.
+     * @throws LionEngineException If unknown type.
+     */
+    public int getIndex(String path)
+    {
+        final Integer index = indexes.get(path);
+        if (index == null)
+        {
+            throw new LionEngineException(ERROR_TYPE + path);
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Get all types.
+     * 
+     * @return The loaded types.
+     */
+    public Collection<EntityType> values()
+    {
+        return Collections.unmodifiableList(values);
+    }
+}
@@ -16,30 +16,94 @@
  */
 package com.b3dgs.warcraft.object;
 
+import com.b3dgs.lionengine.AnimState;
 import com.b3dgs.lionengine.Mirror;
 import com.b3dgs.lionengine.UtilMath;
 import com.b3dgs.lionengine.game.Orientation;
+import com.b3dgs.lionengine.game.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Animatable;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.Mirrorable;
 import com.b3dgs.lionengine.game.feature.Refreshable;
 import com.b3dgs.lionengine.game.feature.Routines;
 import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.attackable.Attacker;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.producible.Producer;
 import com.b3dgs.lionengine.game.feature.state.StateHandler;
 import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.object.feature.AutoAcquire;
+import com.b3dgs.warcraft.object.state.StateIdle;
 
 /**
  * Entity updating implementation.
+ * <p>
+ * Each feature is updated at its declared {@link UpdateRate}: state, animation and mirror on every tick, pathfinding,
+ * attack and extraction only if entity type uses them, production only while its queue is not empty, and routines
+ * periodically in the entity {@link EntityScheduler} bucket. A building with an empty production queue only updates
+ * its state and animation.
+ * </p>
+ * <p>
+ * Entity is put to sleep once it has stayed idle, with finished animation, without path, production nor attack target,
+ * and unselected, for {@link #SLEEP_DELAY} ticks. Sleeping entities are skipped, except the periodic routines of
+ * {@link AutoAcquire} entities, until woken by a command, damages or selection.
+ * </p>
  */
 @FeatureInterface
 public class EntityUpdater extends FeatureModel implements Refreshable
 {
+    /** Quiet ticks before sleeping, letting pending state transitions happen. */
+    public static final int SLEEP_DELAY = 2;
+
+    /**
+     * Get rate of a feature used only by some types.
+     * 
+     * @param used <code>true</code> if type uses feature, <code>false</code> else.
+     * @return {@link UpdateRate#TICK} if used, {@link UpdateRate#NEVER} else.
+     */
+    private static UpdateRate getRate(boolean used)
+    {
+        return used ? UpdateRate.TICK : UpdateRate.NEVER;
+    }
+
+    /**
+     * Check if feature must be updated on current tick.
+     * 
+     * @param rate The feature rate.
+     * @param due <code>true</code> if entity bucket is due, <code>false</code> else.
+     * @param event <code>true</code> if feature has pending work, <code>false</code> else.
+     * @return <code>true</code> if feature must be updated, <code>false</code> else.
+     */
+    private static boolean isActive(UpdateRate rate, boolean due, boolean event)
+    {
+        switch (rate)
+        {
+            case TICK:
+                return true;
+            case PERIODIC:
+                return due;
+            case EVENT:
+                return event;
+            default:
+                return false;
+        }
+    }
+
+    private final EntityScheduler scheduler;
+    private final UpdateRate pathfindableRate;
+    private final UpdateRate attackerRate;
+    private final UpdateRate extractorRate;
+    private final UpdateRate producerRate = UpdateRate.EVENT;
+    private final UpdateRate routinesRate = UpdateRate.PERIODIC;
+    private int id;
+    private boolean sentry;
+    private int quiet;
+
     @FeatureGet private StateHandler stateHandler;
     @FeatureGet private Mirrorable mirrorable;
     @FeatureGet private Pathfindable pathfindable;
@@ -49,15 +113,69 @@ public class EntityUpdater extends FeatureModel implements Refreshable
     @FeatureGet private Selectable selectable;
     @FeatureGet private Attacker attacker;
     @FeatureGet private Routines routines;
+    @FeatureGet private EntityModel model;
+    @FeatureGet private Identifiable identifiable;
 
     /**
      * Create updater.
      * 
      * @param services The services reference.
+     * @param setup The setup reference.
      */
-    public EntityUpdater(Services services)
+    public EntityUpdater(Services services, Setup setup)
     {
         super();
+
+        scheduler = services.get(EntityScheduler.class);
+
+        final EntityType type = services.get(EntityTypes.class).get(setup.getMedia());
+        pathfindableRate = getRate(type.isMobile());
+        attackerRate = getRate(type.getDamages() > 0);
+        extractorRate = getRate(type.isExtractor());
+    }
+
+    @Override
+    public void prepare(FeatureProvider provider)
+    {
+        super.prepare(provider);
+
+        id = identifiable.getId().intValue();
+        sentry = hasFeature(AutoAcquire.class);
+    }
+
+    /**
+     * Check if entity has nothing to do.
+     * 
+     * @return <code>true</code> if quiet, <code>false</code> else.
+     */
+    private boolean isQuiet()
+    {
+        return StateIdle.class.equals(model.getState())
+               && animatable.is(AnimState.FINISHED)
+               && !pathfindable.isMoving()
+               && !producer.isProducing()
+               && producer.getQueueLength() == 0
+               && !attacker.isAttacking()
+               && !selectable.isSelected();
+    }
+
+    /**
+     * Put entity to sleep once quiet long enough.
+     */
+    private void updateSleep()
+    {
+        if (isQuiet())
+        {
+            quiet++;
+            if (quiet >= SLEEP_DELAY)
+            {
+                model.sleep();
+            }
+        }
+        else
+        {
+            quiet = 0;
+        }
     }
 
     /**
@@ -85,15 +203,49 @@ public class EntityUpdater extends FeatureModel implements Refreshable
     @Override
     public void update(double extrp)
     {
-        routines.update(extrp);
-        stateHandler.update(extrp);
-        pathfindable.update(extrp);
-        attacker.update(extrp);
-        producer.update(extrp);
-        extractor.update(extrp);
-        stateHandler.postUpdate();
-        updateMirror();
-        mirrorable.update(extrp);
-        animatable.update(extrp);
+        if (model.isDead())
+        {
+            stateHandler.update(extrp);
+            stateHandler.postUpdate();
+            animatable.update(extrp);
+        }
+        else if (model.isSleeping())
+        {
+            quiet = 0;
+            if (sentry && scheduler.isDue(id))
+            {
+                routines.update(extrp * scheduler.getPeriod());
+            }
+        }
+        else
+        {
+            final boolean due = scheduler.isDue(id);
+            if (isActive(routinesRate, due, false))
+            {
+                routines.update(extrp * scheduler.getPeriod());
+            }
+            stateHandler.update(extrp);
+            if (isActive(pathfindableRate, due, false))
+            {
+                pathfindable.update(extrp);
+                updateMirror();
+            }
+            if (isActive(attackerRate, due, false))
+            {
+                attacker.update(extrp);
+            }
+            if (isActive(producerRate, due, producer.isProducing() || producer.getQueueLength() > 0))
+            {
+                producer.update(extrp);
+            }
+            if (isActive(extractorRate, due, false))
+            {
+                extractor.update(extrp);
+            }
+            stateHandler.postUpdate();
+            mirrorable.update(extrp);
+            animatable.update(extrp);
+            updateSleep();
+        }
     }
 }
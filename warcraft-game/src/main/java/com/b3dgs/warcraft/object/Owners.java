@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.object;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.Players;
+
+/**
+ * Entities owner, stored by entity id as compact player ids.
+ * <p>
+ * Owner checks in loops such as targeting or minimap read the array from entity id, without any feature lookup.
+ * Entities are owned by {@link Players#NEUTRAL} until set.
+ * </p>
+ */
+public class Owners
+{
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Players players;
+    private byte[] owners = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Create owners.
+     * 
+     * @param services The services reference.
+     */
+    public Owners(Services services)
+    {
+        super();
+
+        players = services.get(Players.class);
+    }
+
+    /**
+     * Set entity owner.
+     * 
+     * @param id The entity id.
+     * @param player The owner player id.
+     */
+    public void set(int id, int player)
+    {
+        if (id >= owners.length)
+        {
+            owners = Arrays.copyOf(owners, Math.max(id + 1, owners.length * 2));
+        }
+        owners[id] = (byte) player;
+    }
+
+    /**
+     * Get entity owner.
+     * 
+     * @param id The entity id.
+     * @return The owner player id.
+     */
+    public int get(int id)
+    {
+        if (id >= owners.length)
+        {
+            return Players.NEUTRAL;
+        }
+        return owners[id];
+    }
+
+    /**
+     * Check if entity is owned by local player.
+     * 
+     * @param id The entity id.
+     * @return <code>true</code> if owned by local player, <code>false</code> else.
+     */
+    public boolean isLocal(int id)
+    {
+        return players.isLocal(get(id));
+    }
+
+    /**
+     * Check if entities owners are hostile.
+     * 
+     * @param id The entity id.
+     * @param other The other entity id.
+     * @return <code>true</code> if hostile, <code>false</code> else.
+     */
+    public boolean isHostile(int id, int other)
+    {
+        return players.isHostile(get(id), get(other));
+    }
+}
@@ -22,6 +22,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import com.b3dgs.lionengine.AnimState;
 import com.b3dgs.lionengine.Animation;
 import com.b3dgs.lionengine.Mirror;
+import com.b3dgs.lionengine.UtilMath;
 import com.b3dgs.lionengine.game.Tiled;
 import com.b3dgs.lionengine.game.feature.Animatable;
 import com.b3dgs.lionengine.game.feature.Handler;
@@ -45,9 +46,13 @@ import com.b3dgs.lionengine.game.feature.tile.map.extractable.ExtractorListenerV
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathfindableListener;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathfindableListenerVoid;
+import com.b3dgs.warcraft.Players;
 import com.b3dgs.warcraft.Resources;
 import com.b3dgs.warcraft.object.feature.EntityStats;
 import com.b3dgs.warcraft.object.feature.Warehouse;
+import com.b3dgs.warcraft.profiler.Tracer;
+import com.b3dgs.warcraft.profiler.Tracing;
+import com.b3dgs.warcraft.world.WorldInfluence;
 
 /**
  * Base state with animation implementation.
@@ -58,8 +63,10 @@ public abstract class State extends StateAbstract
     protected final Handler handler;
     /** Map reference. */
     protected final MapTile map;
-    /** Resources reference. */
-    protected final Resources resources;
+    /** Players reference. */
+    protected final Players players;
+    /** Influence reference. */
+    protected final WorldInfluence influence;
 
     /** Identifiable reference. */
     protected final Identifiable identifiable;
@@ -137,7 +144,7 @@ public abstract class State extends StateAbstract
         @Override
         public void notifyStartGoToRessources(String type, Tiled resourceLocation)
         {
-            pathfindable.setDestination(resourceLocation);
+            search(resourceLocation);
             carryResource.set(false);
         }
 
@@ -150,14 +157,23 @@ public abstract class State extends StateAbstract
         @Override
         public void notifyStartCarry(String type, int totalQuantity)
         {
-            pathfindable.setDestination(handler.get(Warehouse.class).iterator().next());
-            carryResource.set(true);
+            final Warehouse warehouse = Warehouse.find(handler, model.getOwner());
+            if (warehouse == null)
+            {
+                extractor.stopExtraction();
+            }
+            else
+            {
+                search(warehouse);
+                carryResource.set(true);
+            }
         }
 
         @Override
         public void notifyStartDropOff(String type, int totalQuantity)
         {
             model.setVisible(false);
+            final Resources resources = players.get(model.getOwner());
             if (Resources.TYPE_WOOD.equals(type))
             {
                 resources.increaseWood(totalQuantity);
@@ -174,6 +190,13 @@ public abstract class State extends StateAbstract
             if (droppedQuantity == 0)
             {
                 model.setVisible(true);
+                // Do not go back to a resource where owner is outnumbered
+                final Tiled resource = extractor.getResourceLocation();
+                if (resource != null
+                    && !influence.isSafe(model.getOwner(), resource.getInTileX(), resource.getInTileY()))
+                {
+                    extractor.stopExtraction();
+                }
             }
         }
     };
@@ -194,7 +217,8 @@ public abstract class State extends StateAbstract
         final Services services = model.getServices();
         handler = services.get(Handler.class);
         map = services.get(MapTile.class);
-        resources = services.get(Resources.class);
+        players = services.get(Players.class);
+        influence = services.get(WorldInfluence.class);
 
         identifiable = model.getFeature(Identifiable.class);
         animatable = model.getFeature(Animatable.class);
@@ -208,6 +232,23 @@ public abstract class State extends StateAbstract
         stats = model.getFeature(EntityStats.class);
     }
 
+    /**
+     * Search path to destination, traced with the distance to destination.
+     * 
+     * @param destination The destination.
+     */
+    private void search(Tiled destination)
+    {
+        final Tracer tracer = Tracing.get();
+        tracer.beginPathSearch();
+        pathfindable.setDestination(destination);
+        tracer.endPathSearch(identifiable.getId().intValue(),
+                             (int) Math.ceil(UtilMath.getDistance(pathfindable.getInTileX(),
+                                                                  pathfindable.getInTileY(),
+                                                                  destination.getInTileX(),
+                                                                  destination.getInTileY())));
+    }
+
     /**
      * Check if is anim state.
      * 
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.object.feature;
+
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeatureGet;
+import com.b3dgs.lionengine.game.feature.FeatureInterface;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Routine;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.attackable.Attacker;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.command.Commands;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityScheduler;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.object.Owners;
+import com.b3dgs.warcraft.object.state.StateIdle;
+import com.b3dgs.warcraft.world.WorldFog;
+import com.b3dgs.warcraft.world.WorldOccupancy;
+
+/**
+ * Attack closest hostile in range when idle.
+ * <p>
+ * Hostiles are searched ring by ring around the entity through {@link WorldOccupancy}, so only tiles in range are
+ * visited, and owners are compared from {@link Owners} ids before any feature lookup. Tiles hidden by {@link WorldFog}
+ * to the entity owner are skipped. As routines are updated
+ * periodically in the entity {@link EntityScheduler} bucket, search is performed once every {@link #DEFAULT_PERIOD}
+ * routine updates, each entity starting at a phase depending on its id, so searches are spread across ticks.
+ * </p>
+ */
+@FeatureInterface
+public class AutoAcquire extends FeatureModel implements Routine
+{
+    /** Default routine updates between two searches. */
+    public static final int DEFAULT_PERIOD = 4;
+
+    private static final int DEFAULT_RANGE = 4;
+
+    private final WorldOccupancy occupancy;
+    private final WorldFog fog;
+    private final Commands commands;
+    private final Owners owners;
+    private final int range;
+
+    private int countdown = -1;
+
+    @FeatureGet private EntityModel model;
+    @FeatureGet private Identifiable identifiable;
+    @FeatureGet private Pathfindable pathfindable;
+    @FeatureGet private Attacker attacker;
+
+    /**
+     * Create auto acquire.
+     * 
+     * @param services The services reference.
+     * @param setup The setup reference.
+     */
+    public AutoAcquire(Services services, Setup setup)
+    {
+        super();
+
+        occupancy = services.get(WorldOccupancy.class);
+        fog = services.get(WorldFog.class);
+        commands = services.get(Commands.class);
+        owners = services.get(Owners.class);
+
+        final EntityType type = services.get(EntityTypes.class).get(setup.getMedia());
+        range = type.getFov() > 0 ? type.getFov() : DEFAULT_RANGE;
+    }
+
+    /**
+     * Check if entity can search for a target.
+     * 
+     * @return <code>true</code> if idle and not attacking, <code>false</code> else.
+     */
+    private boolean isReady()
+    {
+        return !model.isDead()
+               && model.isVisible()
+               && StateIdle.class.equals(model.getState())
+               && !pathfindable.isMoving()
+               && !attacker.isAttacking();
+    }
+
+    /**
+     * Find closest hostile, searching rings of increasing radius.
+     * 
+     * @return The closest hostile, <code>null</code> if none in range.
+     */
+    private Transformable findTarget()
+    {
+        final int tx = pathfindable.getInTileX();
+        final int ty = pathfindable.getInTileY();
+        for (int radius = 1; radius <= range; radius++)
+        {
+            for (int dy = -radius; dy <= radius; dy++)
+            {
+                final int step;
+                if (dy == -radius || dy == radius)
+                {
+                    step = 1;
+                }
+                else
+                {
+                    step = radius * 2;
+                }
+                for (int dx = -radius; dx <= radius; dx += step)
+                {
+                    final Transformable target = findTarget(tx + dx, ty + dy);
+                    if (target != null)
+                    {
+                        return target;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find first hostile on tile, if visible by owner.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return The hostile found, <code>null</code> if none.
+     */
+    private Transformable findTarget(int tx, int ty)
+    {
+        if (!fog.isVisible(model.getOwner(), tx, ty))
+        {
+            return null;
+        }
+        final int id = identifiable.getId().intValue();
+        for (int slot = occupancy.first(tx, ty); slot != WorldOccupancy.NONE; slot = occupancy.next(slot))
+        {
+            if (owners.isHostile(id, occupancy.getId(slot)))
+            {
+                final Featurable featurable = occupancy.getFeaturable(slot);
+                final EntityModel other = featurable.getFeature(EntityModel.class);
+                if (!other.isDead() && other.isVisible())
+                {
+                    return featurable.getFeature(Transformable.class);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (countdown < 0)
+        {
+            countdown = identifiable.getId().intValue() % DEFAULT_PERIOD;
+        }
+        if (countdown > 0)
+        {
+            countdown--;
+        }
+        else
+        {
+            countdown = DEFAULT_PERIOD - 1;
+            if (isReady())
+            {
+                final Transformable target = findTarget();
+                if (target != null)
+                {
+                    commands.attack(this, target);
+                }
+            }
+        }
+    }
+}
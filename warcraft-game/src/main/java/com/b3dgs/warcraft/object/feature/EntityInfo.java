@@ -23,6 +23,8 @@ import com.b3dgs.lionengine.Medias;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Routines;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.SelectionListener;
 import com.b3dgs.lionengine.graphic.Graphic;
@@ -30,6 +32,7 @@ import com.b3dgs.lionengine.graphic.Renderable;
 import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.Image;
 import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.hud.HudCache;
 
 /**
  * Handle the selected entities information on Hud.
@@ -38,36 +41,47 @@ import com.b3dgs.warcraft.constant.Constant;
 public class EntityInfo extends FeatureModel implements Renderable, SelectionListener
 {
     private final Image stats = Drawable.loadImage(Medias.create("entity_stats.png"));
+    private final HudCache cache;
     private List<Selectable> selection = Collections.emptyList();
 
     /**
      * Create the entity information.
+     * 
+     * @param services The services reference.
+     * @param setup The setup reference.
      */
-    public EntityInfo()
+    public EntityInfo(Services services, Setup setup)
     {
         super();
 
         stats.load();
         stats.prepare();
         stats.setLocation(Constant.ENTITY_INFO_X, Constant.ENTITY_INFO_Y);
+
+        cache = services.get(HudCache.class);
+        cache.add(g ->
+        {
+            if (!selection.isEmpty())
+            {
+                stats.render(g);
+            }
+            for (final Selectable selectable : selection)
+            {
+                selectable.getFeature(Routines.class).render(g);
+            }
+        });
     }
 
     @Override
     public void render(Graphic g)
     {
-        if (!selection.isEmpty())
-        {
-            stats.render(g);
-        }
-        for (final Selectable selectable : selection)
-        {
-            selectable.getFeature(Routines.class).render(g);
-        }
+        cache.render(g);
     }
 
     @Override
     public void notifySelected(List<Selectable> selection)
     {
         this.selection = selection;
+        cache.invalidate();
     }
 }
@@ -16,6 +16,9 @@
  */
 package com.b3dgs.warcraft.object.feature;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.game.Alterable;
 import com.b3dgs.lionengine.game.Bar;
@@ -24,12 +27,16 @@ import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Routine;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
-import com.b3dgs.lionengine.graphic.Text;
 import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.Image;
 import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.hud.GlyphText;
+import com.b3dgs.warcraft.hud.HudCache;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
 
 /**
  * Icon renderer feature.
@@ -46,12 +53,14 @@ public class EntityStats extends FeatureModel implements Routine
     private static final int BAR_RED_PERCENT = 25;
     private static final int BAR_YELLOW_PERCENT = 50;
 
-    private final Alterable health = new Alterable(60);
+    private final List<EntityStatsListener> listeners = new ArrayList<>();
+    private final Alterable health;
     private final Bar barHealth = new Bar(27, 3);
     private final String name;
     private final Image icon;
 
-    private final Text text;
+    private final GlyphText glyphs;
+    private final HudCache cache;
 
     /**
      * Create icon provider.
@@ -63,10 +72,13 @@ public class EntityStats extends FeatureModel implements Routine
     {
         super();
 
-        text = services.get(Text.class);
+        glyphs = services.get(GlyphText.class);
+        cache = services.get(HudCache.class);
 
-        name = setup.getString("name");
-        final Media media = setup.getIconFile();
+        final EntityType type = services.get(EntityTypes.class).get(setup.getMedia());
+        name = type.getName();
+        health = new Alterable(type.getLife());
+        final Media media = type.getIcon();
         if (media != null)
         {
             icon = Drawable.loadImage(media);
@@ -82,6 +94,26 @@ public class EntityStats extends FeatureModel implements Routine
         barHealth.setLocation((int) (icon.getX() + BAR_LIFE_X), (int) (icon.getY() + BAR_LIFE_Y));
     }
 
+    /**
+     * Add a stats listener.
+     * 
+     * @param listener The listener to add.
+     */
+    public void addListener(EntityStatsListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a stats listener.
+     * 
+     * @param listener The listener to remove.
+     */
+    public void removeListener(EntityStatsListener listener)
+    {
+        listeners.remove(listener);
+    }
+
     /**
      * Apply damages.
      * 
@@ -92,9 +124,33 @@ public class EntityStats extends FeatureModel implements Routine
     {
         health.decrease(damages);
         updateHealthBar();
+        notifyLifeChanged();
         return health.isEmpty();
     }
 
+    /**
+     * Reset life to maximum.
+     */
+    public void reset()
+    {
+        health.fill();
+        barHealth.setColorForeground(COLOR_LIFE);
+        updateHealthBar();
+        notifyLifeChanged();
+    }
+
+    /**
+     * Set current life.
+     * 
+     * @param life The life value.
+     */
+    public void setLife(int life)
+    {
+        health.set(life);
+        updateHealthBar();
+        notifyLifeChanged();
+    }
+
     /**
      * Get current life.
      * 
@@ -105,6 +161,23 @@ public class EntityStats extends FeatureModel implements Routine
         return health.getCurrent();
     }
 
+    /**
+     * Notify listeners with current life, and refresh HUD if selected.
+     */
+    private void notifyLifeChanged()
+    {
+        if (getFeature(Selectable.class).isSelected())
+        {
+            cache.invalidate();
+        }
+        final int life = health.getCurrent();
+        final int n = listeners.size();
+        for (int i = 0; i < n; i++)
+        {
+            listeners.get(i).notifyLifeChanged(life);
+        }
+    }
+
     /**
      * Update bar size and color depending of health percent.
      */
@@ -127,7 +200,7 @@ public class EntityStats extends FeatureModel implements Routine
     {
         barHealth.render(g);
 
-        text.draw(g, TEXT_X, TEXT_Y, name);
+        glyphs.drawLabel(g, TEXT_X, TEXT_Y, name);
 
         if (icon != null)
         {
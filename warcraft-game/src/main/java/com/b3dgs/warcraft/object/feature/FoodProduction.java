@@ -27,8 +27,10 @@ import com.b3dgs.lionengine.game.feature.producible.Producer;
 import com.b3dgs.lionengine.game.feature.producible.Producible;
 import com.b3dgs.lionengine.game.feature.producible.ProducibleListenerVoid;
 import com.b3dgs.lionengine.graphic.Graphic;
-import com.b3dgs.lionengine.graphic.Text;
+import com.b3dgs.warcraft.Players;
 import com.b3dgs.warcraft.Resources;
+import com.b3dgs.warcraft.hud.GlyphText;
+import com.b3dgs.warcraft.object.EntityModel;
 
 /**
  * Represents food production.
@@ -38,11 +40,13 @@ public class FoodProduction extends FeatureModel implements Routine
 {
     private static final int TEXT_X = 5;
     private static final int TEXT_Y = 115;
+    private static final String LABEL_OF = " of ";
 
-    private final Text text;
-    private final Resources food;
+    private final GlyphText glyphs;
+    private final Players players;
 
     @FeatureGet private Producible producible;
+    @FeatureGet private EntityModel model;
 
     /**
      * Create food.
@@ -54,8 +58,8 @@ public class FoodProduction extends FeatureModel implements Routine
     {
         super();
 
-        text = services.get(Text.class);
-        food = services.get(Resources.class);
+        glyphs = services.get(GlyphText.class);
+        players = services.get(Players.class);
     }
 
     @Override
@@ -68,7 +72,7 @@ public class FoodProduction extends FeatureModel implements Routine
             @Override
             public void notifyProductionEnded(Producer producer)
             {
-                food.increaseFood();
+                players.get(model.getOwner()).increaseFood();
             }
         });
     }
@@ -76,6 +80,9 @@ public class FoodProduction extends FeatureModel implements Routine
     @Override
     public void render(Graphic g)
     {
-        text.draw(g, TEXT_X, TEXT_Y, food.getConsumedFood() + " of " + food.getAvailableFood());
+        final Resources food = players.get(model.getOwner());
+        int x = glyphs.draw(g, TEXT_X, TEXT_Y, food.getConsumedFood());
+        x = glyphs.drawLabel(g, x, TEXT_Y, LABEL_OF);
+        glyphs.draw(g, x, TEXT_Y, food.getAvailableFood());
     }
 }
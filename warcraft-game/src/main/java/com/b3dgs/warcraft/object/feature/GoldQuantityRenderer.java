@@ -22,12 +22,14 @@ import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Routine;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractable;
 import com.b3dgs.lionengine.graphic.Graphic;
-import com.b3dgs.lionengine.graphic.Text;
+import com.b3dgs.warcraft.hud.GlyphText;
+import com.b3dgs.warcraft.hud.HudCache;
 
 /**
- * Display current gold quantity.
+ * Display current gold quantity. HUD is only invalidated when quantity of a selected mine changes.
  */
 @FeatureInterface
 public class GoldQuantityRenderer extends FeatureModel implements Routine
@@ -35,9 +37,12 @@ public class GoldQuantityRenderer extends FeatureModel implements Routine
     private static final int TEXT_X = 5;
     private static final int TEXT_Y = 115;
 
-    private final Text text;
+    private final GlyphText glyphs;
+    private final HudCache cache;
+    private int shown;
 
     @FeatureGet private Extractable extractable;
+    @FeatureGet private Selectable selectable;
 
     /**
      * Create food.
@@ -49,12 +54,27 @@ public class GoldQuantityRenderer extends FeatureModel implements Routine
     {
         super();
 
-        text = services.get(Text.class);
+        glyphs = services.get(GlyphText.class);
+        cache = services.get(HudCache.class);
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        final int quantity = extractable.getResourceQuantity();
+        if (quantity != shown)
+        {
+            shown = quantity;
+            if (selectable.isSelected())
+            {
+                cache.invalidate();
+            }
+        }
     }
 
     @Override
     public void render(Graphic g)
     {
-        text.draw(g, TEXT_X, TEXT_Y, String.valueOf(extractable.getResourceQuantity()));
+        glyphs.draw(g, TEXT_X, TEXT_Y, shown);
     }
 }
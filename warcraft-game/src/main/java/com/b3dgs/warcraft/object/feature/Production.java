@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.object.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.b3dgs.lionengine.game.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeatureGet;
+import com.b3dgs.lionengine.game.feature.FeatureInterface;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.producible.Producer;
+import com.b3dgs.lionengine.game.feature.producible.ProducerListenerVoid;
+import com.b3dgs.lionengine.game.feature.producible.Producible;
+import com.b3dgs.lionengine.game.feature.producible.ProducibleListener;
+import com.b3dgs.lionengine.game.feature.producible.ProducibleListenerVoid;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.CoordTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.Ledger;
+import com.b3dgs.warcraft.Resources;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityPool;
+import com.b3dgs.warcraft.object.EntityTypes;
+
+/**
+ * Tracks production reservations of an entity, as producer of queued entities and as queued producible.
+ * <p>
+ * Cost is reserved when an entity is queued, committed when its production starts, and cancelled when the queue is
+ * dropped before: producer stopped, redirected, dead or released to pool. Dropped entities go back to pool.
+ * </p>
+ * <p>
+ * Listeners are registered once per entity, as entities are pooled: produced units are placed around their producer,
+ * and builders are hidden while building. A listener limited to current production can be set with
+ * {@link #setObserver(ProducibleListener)}.
+ * </p>
+ */
+@FeatureInterface
+public class Production extends FeatureModel
+{
+    /** Queued productions not started yet. */
+    private final List<Production> queued = new ArrayList<>();
+    private final EntityPool pool;
+    private final MapTile map;
+    /** Mobile entity, builder when producing and placed around its producer when produced. */
+    private final boolean mobile;
+    private Featurable featurable;
+    private ProducibleListener observer;
+    private Resources resources;
+    private int reservation = Ledger.NONE;
+
+    @FeatureGet private Producer producer;
+    @FeatureGet private Producible producible;
+    @FeatureGet private Pathfindable pathfindable;
+    @FeatureGet private EntityModel model;
+
+    /**
+     * Create production.
+     * 
+     * @param services The services reference.
+     * @param setup The setup reference.
+     */
+    public Production(Services services, Setup setup)
+    {
+        super();
+
+        pool = services.get(EntityPool.class);
+        map = services.get(MapTile.class);
+        mobile = services.get(EntityTypes.class).get(setup.getMedia()).isMobile();
+    }
+
+    /**
+     * Queue entity production, holding its cost reservation until production starts.
+     * 
+     * @param entity The entity to produce.
+     * @param resources The resources holding reservation (can be <code>null</code> if no reservation).
+     * @param reservation The reservation identifier, {@link Ledger#NONE} if none.
+     */
+    public void queue(Featurable entity, Resources resources, int reservation)
+    {
+        final Production production = entity.getFeature(Production.class);
+        production.resources = resources;
+        production.reservation = reservation;
+        queued.add(production);
+        producer.addToProductionQueue(entity);
+    }
+
+    /**
+     * Set listener of the current production of this producible, removed when production ends or is dropped.
+     * 
+     * @param observer The production listener.
+     */
+    public void setObserver(ProducibleListener observer)
+    {
+        this.observer = observer;
+    }
+
+    /**
+     * Cancel queued productions, unless a production is in progress.
+     */
+    public void cancel()
+    {
+        if (!producer.isProducing())
+        {
+            clear();
+        }
+    }
+
+    /**
+     * Stop production and cancel all queued productions, releasing their reservations. Producer checker is reset.
+     */
+    public void clear()
+    {
+        producer.stopProduction();
+        producer.setChecker(current -> true);
+        observer = null;
+        for (final Production production : queued)
+        {
+            production.release();
+            pool.discard(production.featurable);
+        }
+        queued.clear();
+    }
+
+    /**
+     * Cancel pending reservation if any.
+     */
+    private void release()
+    {
+        if (reservation != Ledger.NONE)
+        {
+            resources.cancel(reservation);
+            reservation = Ledger.NONE;
+        }
+        resources = null;
+        observer = null;
+    }
+
+    /**
+     * Place entity on a free tile around another one.
+     * 
+     * @param around The reference entity.
+     */
+    private void placeAround(FeatureProvider around)
+    {
+        final CoordTile coord = map.getFeature(MapTilePath.class)
+                                   .getFreeTileAround(pathfindable, around.getFeature(Pathfindable.class));
+        pathfindable.setLocation(coord);
+    }
+
+    @Override
+    public void prepare(FeatureProvider provider)
+    {
+        super.prepare(provider);
+
+        featurable = (Featurable) provider;
+        producible.addListener(new ProducibleListenerVoid()
+        {
+            @Override
+            public void notifyProductionStarted(Producer current)
+            {
+                current.getFeature(Production.class).queued.remove(Production.this);
+                if (reservation != Ledger.NONE)
+                {
+                    resources.commit(reservation);
+                    reservation = Ledger.NONE;
+                }
+                resources = null;
+                if (observer != null)
+                {
+                    observer.notifyProductionStarted(current);
+                }
+            }
+
+            @Override
+            public void notifyProductionProgress(Producer current)
+            {
+                if (observer != null)
+                {
+                    observer.notifyProductionProgress(current);
+                }
+            }
+
+            @Override
+            public void notifyProductionEnded(Producer current)
+            {
+                if (mobile)
+                {
+                    placeAround(current);
+                }
+                if (observer != null)
+                {
+                    observer.notifyProductionEnded(current);
+                    observer = null;
+                }
+            }
+        });
+        if (mobile)
+        {
+            producer.addListener(new ProducerListenerVoid()
+            {
+                @Override
+                public void notifyStartProduction(Featurable produced)
+                {
+                    model.setVisible(false);
+                }
+
+                @Override
+                public void notifyProduced(Featurable produced)
+                {
+                    pathfindable.clearPath();
+                    placeAround(produced);
+                    model.setVisible(true);
+                }
+            });
+        }
+    }
+}
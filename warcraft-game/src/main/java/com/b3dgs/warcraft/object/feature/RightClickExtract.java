@@ -17,18 +17,12 @@
 package com.b3dgs.warcraft.object.feature;
 
 import com.b3dgs.lionengine.game.Cursor;
-import com.b3dgs.lionengine.game.feature.Featurable;
-import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
-import com.b3dgs.lionengine.game.feature.Handler;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
-import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractable;
-import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.command.Orders;
 
 /**
  * Right click extraction implementation.
@@ -37,12 +31,8 @@ import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 public class RightClickExtract extends FeatureModel implements RightClickHandler
 {
     private final Cursor cursor;
-    private final Handler handler;
     private final MapTile map;
-    private final MapTilePath mapPath;
-
-    private @FeatureGet Extractor extractor;
-    private @FeatureGet Pathfindable pathfindable;
+    private final Orders orders;
 
     /**
      * Create action.
@@ -55,43 +45,13 @@ public class RightClickExtract extends FeatureModel implements RightClickHandler
         super();
 
         cursor = services.get(Cursor.class);
-        handler = services.get(Handler.class);
         map = services.get(MapTile.class);
-        mapPath = map.getFeature(MapTilePath.class);
-    }
-
-    /**
-     * Check extraction at destination.
-     * 
-     * @return <code>true</code> if start extraction, <code>false</code> else.
-     */
-    private boolean extract()
-    {
-        final int tx = map.getInTileX(cursor);
-        final int ty = map.getInTileY(cursor);
-
-        for (final Integer id : mapPath.getObjectsId(tx, ty))
-        {
-            final Featurable featurable = handler.get(id);
-            if (featurable.hasFeature(Extractable.class))
-            {
-                final Extractable extractable = featurable.getFeature(Extractable.class);
-                extractor.setResource(extractable);
-                pathfindable.setDestination(extractable);
-                extractor.startExtraction();
-
-                return true;
-            }
-        }
-        return false;
+        orders = services.get(Orders.class);
     }
 
     @Override
     public void execute()
     {
-        if (!extract())
-        {
-            pathfindable.setDestination(cursor);
-        }
+        orders.extract(this, map.getInTileX(cursor), map.getInTileY(cursor));
     }
 }
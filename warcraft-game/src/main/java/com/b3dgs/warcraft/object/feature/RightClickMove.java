@@ -17,12 +17,12 @@
 package com.b3dgs.warcraft.object.feature;
 
 import com.b3dgs.lionengine.game.Cursor;
-import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.warcraft.command.Orders;
 
 /**
  * Right click move implementation.
@@ -31,8 +31,8 @@ import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 public class RightClickMove extends FeatureModel implements RightClickHandler
 {
     private final Cursor cursor;
-
-    private @FeatureGet Pathfindable pathfindable;
+    private final MapTile map;
+    private final Orders orders;
 
     /**
      * Create action.
@@ -45,11 +45,13 @@ public class RightClickMove extends FeatureModel implements RightClickHandler
         super();
 
         cursor = services.get(Cursor.class);
+        map = services.get(MapTile.class);
+        orders = services.get(Orders.class);
     }
 
     @Override
     public void execute()
     {
-        pathfindable.setDestination(cursor);
+        orders.move(this, map.getInTileX(cursor), map.getInTileY(cursor));
     }
 }
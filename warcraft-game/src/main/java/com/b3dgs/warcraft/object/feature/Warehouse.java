@@ -20,9 +20,11 @@ import com.b3dgs.lionengine.game.Tiled;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Handler;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.object.EntityModel;
 
 /**
  * Represents warehouse storage.
@@ -30,7 +32,27 @@ import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 @FeatureInterface
 public class Warehouse extends FeatureModel implements Tiled
 {
+    /**
+     * Find a warehouse owned by player.
+     * 
+     * @param handler The handler reference.
+     * @param player The owner player id.
+     * @return The first warehouse found, <code>null</code> if none.
+     */
+    public static Warehouse find(Handler handler, int player)
+    {
+        for (final Warehouse warehouse : handler.get(Warehouse.class))
+        {
+            if (player == warehouse.model.getOwner())
+            {
+                return warehouse;
+            }
+        }
+        return null;
+    }
+
     @FeatureGet private Pathfindable pathfindable;
+    @FeatureGet private EntityModel model;
 
     /**
      * Create warehouse.
@@ -17,14 +17,26 @@
 package com.b3dgs.warcraft.object.state;
 
 import com.b3dgs.lionengine.Animation;
+import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityPool;
 import com.b3dgs.warcraft.object.State;
+import com.b3dgs.warcraft.world.WorldCorpses;
 
 /**
- * Dead state implementation.
+ * Dead state implementation. Entity is kept as is for a short delay, then replaced by a corpse decal and released to
+ * pool.
  */
 final class StateDead extends State
 {
+    private static final int DELAY = 2;
+
+    private final double delay = DELAY * (double) Constant.NATIVE.getRate();
+    private final EntityPool pool;
+    private final WorldCorpses corpses;
+    private double elapsed;
+    private boolean released;
+
     /**
      * Create the state.
      * 
@@ -34,5 +46,30 @@ final class StateDead extends State
     public StateDead(EntityModel model, Animation animation)
     {
         super(model, animation);
+
+        pool = model.getServices().get(EntityPool.class);
+        corpses = model.getServices().get(WorldCorpses.class);
+    }
+
+    @Override
+    public void enter()
+    {
+        super.enter();
+
+        model.setDead();
+        elapsed = 0.0;
+        released = false;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        elapsed += extrp;
+        if (!released && elapsed >= delay)
+        {
+            released = true;
+            corpses.add(model.getFeaturable());
+            pool.release(model.getFeaturable());
+        }
     }
 }
@@ -18,14 +18,20 @@ package com.b3dgs.warcraft.object.state;
 
 import com.b3dgs.lionengine.AnimState;
 import com.b3dgs.lionengine.Animation;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
 import com.b3dgs.warcraft.object.EntityModel;
 import com.b3dgs.warcraft.object.State;
+import com.b3dgs.warcraft.object.feature.Production;
+import com.b3dgs.warcraft.world.WorldOccupancy;
 
 /**
  * Die state implementation.
  */
 final class StateDie extends State
 {
+    private final MapTilePath mapPath;
+    private final WorldOccupancy occupancy;
+
     /**
      * Create the state.
      * 
@@ -36,6 +42,41 @@ final class StateDie extends State
     {
         super(model, animation);
 
+        mapPath = model.getServices().get(MapTilePath.class);
+        occupancy = model.getServices().get(WorldOccupancy.class);
+
         addTransition(StateDead.class, () -> is(AnimState.FINISHED));
     }
+
+    /**
+     * Release the tiles occupied by the entity, so it does not block paths anymore.
+     */
+    private void releaseTiles()
+    {
+        final Integer id = identifiable.getId();
+        final int tx = pathfindable.getInTileX();
+        final int ty = pathfindable.getInTileY();
+        final int tw = pathfindable.getInTileWidth();
+        final int th = pathfindable.getInTileHeight();
+        for (int x = tx; x < tx + tw; x++)
+        {
+            for (int y = ty; y < ty + th; y++)
+            {
+                mapPath.removeObjectId(x, y, id);
+            }
+        }
+    }
+
+    @Override
+    public void enter()
+    {
+        super.enter();
+
+        pathfindable.clearPath();
+        attacker.stopAttack();
+        model.getFeaturable().getFeature(Production.class).clear();
+        releaseTiles();
+        occupancy.unindex(model.getFeaturable());
+        model.setDead();
+    }
 }
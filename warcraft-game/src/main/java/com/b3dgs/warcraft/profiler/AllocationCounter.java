@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.profiler;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Thread allocated bytes counter, relying on the HotSpot thread management extension.
+ * <p>
+ * Only loaded when allocation tracking is enabled, as it is not available on all platforms (such as Android).
+ * </p>
+ */
+final class AllocationCounter
+{
+    private final ThreadMXBean bean;
+    private final long thread;
+
+    /**
+     * Create counter for current thread.
+     * 
+     * @throws UnsupportedOperationException If not supported by virtual machine.
+     */
+    AllocationCounter()
+    {
+        super();
+
+        bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported())
+        {
+            throw new UnsupportedOperationException();
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        thread = Thread.currentThread().getId();
+    }
+
+    /**
+     * Get bytes allocated so far by counted thread.
+     * 
+     * @return The allocated bytes.
+     */
+    long get()
+    {
+        return bean.getThreadAllocatedBytes(thread);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.profiler;
+
+/**
+ * Profiled frame phases.
+ */
+public enum Phase
+{
+    /** Pointer update. */
+    UPDATE_POINTER("Pointer"),
+    /** Cursor update. */
+    UPDATE_CURSOR("Cursor"),
+    /** Navigator update. */
+    UPDATE_NAVIGATOR("Navigator"),
+    /** Resources update. */
+    UPDATE_RESOURCES("Resources"),
+    /** Handler update (entities and map). */
+    UPDATE_HANDLER("Handler"),
+    /** World systems update (players, influence, computer players, checksum, autosave). */
+    UPDATE_SYSTEMS("Systems"),
+    /** Handler rendering (map, entities, fog and HUD). */
+    RENDER_WORLD("Draw world"),
+    /** Minimap rendering. */
+    RENDER_MINIMAP("Draw minimap"),
+    /** Text rendering. */
+    RENDER_TEXT("Draw text"),
+    /** Cursor rendering. */
+    RENDER_CURSOR("Draw cursor");
+
+    /** Displayed label. */
+    private final String label;
+
+    /**
+     * Constructor.
+     * 
+     * @param label The displayed label.
+     */
+    Phase(String label)
+    {
+        this.label = label;
+    }
+
+    /**
+     * Get displayed label.
+     * 
+     * @return The displayed label.
+     */
+    public String getLabel()
+    {
+        return label;
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.profiler;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.b3dgs.lionengine.Align;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Renderable;
+import com.b3dgs.lionengine.io.InputDeviceDirectional;
+import com.b3dgs.lionengine.io.InputDeviceKeyboard;
+import com.b3dgs.warcraft.hud.GlyphText;
+
+/**
+ * Frame phases profiler, with an overlay showing median and 99th percentile duration of each {@link Phase}.
+ * <p>
+ * Phases are measured with a single {@link System#nanoTime()} call per boundary:
+ * </p>
+ * 
+ * <pre>
+ * long time = profiler.start();
+ * pointer.update(extrp);
+ * time = profiler.lap(Phase.UPDATE_POINTER, time);
+ * </pre>
+ * <p>
+ * Durations are stored in a ring buffer per phase, written by game thread only and readable without lock, so results
+ * can be exported from another thread. Percentiles are computed only when overlay is refreshed or exported.
+ * </p>
+ * <p>
+ * In debug mode ({@link #setAllocationTracking(boolean)}), bytes allocated by game thread are also sampled on each
+ * boundary. Once warmed up, a warning is logged for each phase whose median allocation exceeds its budget, which is
+ * zero by default as steady state frames should not allocate.
+ * </p>
+ */
+public class Profiler implements Updatable, Renderable
+{
+    /** Default samples kept per phase. */
+    public static final int DEFAULT_CAPACITY = 256;
+    /** Default overlay toggle key (F3 key code on desktop keyboard). */
+    public static final Integer DEFAULT_KEY = Integer.valueOf(114);
+    /** System property enabling allocation tracking. */
+    public static final String PROPERTY_ALLOCATIONS = "warcraft.allocations";
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int REFRESH_TICKS = 30;
+    private static final int WARMUP_TICKS = 600;
+    private static final int REPORT_TICKS = 600;
+    private static final int NANO_PER_MICRO = 1000;
+    private static final int PERCENT = 100;
+    private static final int MEDIAN = 50;
+    private static final int HIGH = 99;
+    private static final int OVERLAY_X = 74;
+    private static final int OVERLAY_Y = 14;
+    private static final int OVERLAY_WIDTH = 128;
+    private static final int COLUMN_MEDIAN = 88;
+    private static final int COLUMN_HIGH = 124;
+    private static final int COLUMN_BYTES = 168;
+    private static final int OVERLAY_WIDTH_BYTES = 172;
+    private static final ColorRgba OVERLAY_BACKGROUND = new ColorRgba(0, 0, 0, 160);
+    private static final String LABEL_TITLE = "us";
+    private static final String LABEL_MEDIAN = "p50";
+    private static final String LABEL_HIGH = "p99";
+    private static final String LABEL_BYTES = "bytes";
+    private static final String CSV_HEADER = "phase,samples,p50_us,p99_us,max_us,p50_bytes,p99_bytes,budget_bytes";
+    private static final char CSV_SEPARATOR = ',';
+    private static final String ERROR_EXPORT = "Unable to export profile: ";
+    private static final String ERROR_ALLOCATIONS = "Allocation tracking not supported: ";
+    private static final String WARNING_ALLOCATIONS = "Steady state allocation over budget (bytes per tick): ";
+
+    /**
+     * Get percentile from sorted values.
+     * 
+     * @param sorted The sorted values.
+     * @param count The values number.
+     * @param percentile The percentile (0 to 100).
+     * @return The percentile value, <code>0</code> if no values.
+     */
+    private static long getPercentile(long[] sorted, int count, int percentile)
+    {
+        if (count == 0)
+        {
+            return 0L;
+        }
+        final int index = Math.min(count - 1, (int) ((long) count * percentile / PERCENT));
+        return sorted[index];
+    }
+
+    private final Samples[] samples = new Samples[PHASES.length];
+    private final Samples[] allocations = new Samples[PHASES.length];
+    private final long[] budgets = new long[PHASES.length];
+    private final boolean[] warned = new boolean[PHASES.length];
+    private final int[] medians = new int[PHASES.length];
+    private final int[] highs = new int[PHASES.length];
+    private final int[] bytes = new int[PHASES.length];
+    private final long[] scratch;
+    private final GlyphText glyphs;
+    private final InputDeviceKeyboard keyboard;
+
+    private Integer key = DEFAULT_KEY;
+    private boolean enabled = true;
+    private boolean visible;
+    private int refresh;
+    private AllocationCounter counter;
+    private long allocated;
+    private int ticks;
+
+    /**
+     * Create profiler.
+     * 
+     * @param services The services reference.
+     */
+    public Profiler(Services services)
+    {
+        super();
+
+        for (int i = 0; i < samples.length; i++)
+        {
+            samples[i] = new Samples(DEFAULT_CAPACITY);
+            allocations[i] = new Samples(DEFAULT_CAPACITY);
+        }
+        scratch = new long[samples[0].getCapacity()];
+        glyphs = services.get(GlyphText.class);
+
+        final InputDeviceDirectional directional = services.get(InputDeviceDirectional.class);
+        if (directional instanceof InputDeviceKeyboard)
+        {
+            keyboard = (InputDeviceKeyboard) directional;
+        }
+        else
+        {
+            keyboard = null;
+        }
+    }
+
+    /**
+     * Enable or disable measures. When disabled, {@link #start()} and {@link #lap(Phase, long)} only return.
+     * 
+     * @param enabled <code>true</code> to enable, <code>false</code> to disable.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Enable or disable allocation tracking, must be called from game thread. Ignored if not supported.
+     * 
+     * @param enabled <code>true</code> to enable, <code>false</code> to disable.
+     */
+    public void setAllocationTracking(boolean enabled)
+    {
+        if (!enabled)
+        {
+            counter = null;
+        }
+        else if (counter == null)
+        {
+            try
+            {
+                counter = new AllocationCounter();
+                ticks = 0;
+            }
+            catch (final LinkageError | UnsupportedOperationException | ClassCastException exception)
+            {
+                Verbose.exception(exception, ERROR_ALLOCATIONS);
+            }
+        }
+    }
+
+    /**
+     * Set steady state allocation budget of a phase.
+     * 
+     * @param phase The phase.
+     * @param bytes The allowed allocated bytes per tick.
+     */
+    public void setBudget(Phase phase, long bytes)
+    {
+        budgets[phase.ordinal()] = bytes;
+    }
+
+    /**
+     * Set overlay toggle key.
+     * 
+     * @param key The key code.
+     */
+    public void setKey(Integer key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * Show or hide overlay.
+     * 
+     * @param visible <code>true</code> to show, <code>false</code> to hide.
+     */
+    public void setVisible(boolean visible)
+    {
+        this.visible = visible;
+        refresh = 0;
+    }
+
+    /**
+     * Start measure.
+     * 
+     * @return The start time.
+     */
+    public long start()
+    {
+        if (enabled)
+        {
+            if (counter != null)
+            {
+                allocated = counter.get();
+            }
+            return System.nanoTime();
+        }
+        return 0L;
+    }
+
+    /**
+     * Store phase duration since time, and start next measure.
+     * 
+     * @param phase The measured phase.
+     * @param time The phase start time.
+     * @return The next phase start time.
+     */
+    public long lap(Phase phase, long time)
+    {
+        if (enabled)
+        {
+            final long now = System.nanoTime();
+            samples[phase.ordinal()].add(now - time);
+            if (counter != null)
+            {
+                final long current = counter.get();
+                allocations[phase.ordinal()].add(current - allocated);
+                allocated = current;
+            }
+            return now;
+        }
+        return 0L;
+    }
+
+    /**
+     * Export phases statistics to file, one line per phase, durations in microseconds.
+     * 
+     * @param media The destination file.
+     */
+    public void export(Media media)
+    {
+        final long[] values = new long[scratch.length];
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(media.getFile()),
+                                                                       StandardCharsets.UTF_8)))
+        {
+            writer.write(CSV_HEADER);
+            writer.write(System.lineSeparator());
+            for (final Phase phase : PHASES)
+            {
+                final Samples current = samples[phase.ordinal()];
+                int count = current.copySorted(values);
+                writer.write(phase.name());
+                writer.write(CSV_SEPARATOR);
+                writer.write(String.valueOf(current.getTotal()));
+                writer.write(CSV_SEPARATOR);
+                writer.write(String.valueOf(getPercentile(values, count, MEDIAN) / NANO_PER_MICRO));
+                writer.write(CSV_SEPARATOR);
+                writer.write(String.valueOf(getPercentile(values, count, HIGH) / NANO_PER_MICRO));
+                writer.write(CSV_SEPARATOR);
+                writer.write(String.valueOf(getPercentile(values, count, PERCENT) / NANO_PER_MICRO));
+                count = allocations[phase.ordinal()].copySorted(values);
+                writer.write(CSV_SEPARATOR);
+                writer.write(String.valueOf(getPercentile(values, count, MEDIAN)));
+                writer.write(CSV_SEPARATOR);
+                writer.write(String.valueOf(getPercentile(values, count, HIGH)));
+                writer.write(CSV_SEPARATOR);
+                writer.write(String.valueOf(budgets[phase.ordinal()]));
+                writer.write(System.lineSeparator());
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_EXPORT, media.getPath());
+        }
+    }
+
+    /**
+     * Compute displayed percentiles.
+     */
+    private void computePercentiles()
+    {
+        for (int i = 0; i < samples.length; i++)
+        {
+            final int count = samples[i].copySorted(scratch);
+            medians[i] = (int) (getPercentile(scratch, count, MEDIAN) / NANO_PER_MICRO);
+            highs[i] = (int) (getPercentile(scratch, count, HIGH) / NANO_PER_MICRO);
+            bytes[i] = (int) Math.min(Integer.MAX_VALUE, getAllocationMedian(i));
+        }
+    }
+
+    /**
+     * Get median allocated bytes of phase.
+     * 
+     * @param index The phase index.
+     * @return The median allocated bytes.
+     */
+    private long getAllocationMedian(int index)
+    {
+        final int count = allocations[index].copySorted(scratch);
+        return getPercentile(scratch, count, MEDIAN);
+    }
+
+    /**
+     * Warn once for each phase allocating over its budget in steady state, again if it went back under budget.
+     */
+    private void checkAllocations()
+    {
+        for (int i = 0; i < PHASES.length; i++)
+        {
+            final long median = getAllocationMedian(i);
+            if (median > budgets[i] && !warned[i])
+            {
+                Verbose.warning(WARNING_ALLOCATIONS, PHASES[i].name(), String.valueOf(median));
+                warned[i] = true;
+            }
+            else if (median <= budgets[i])
+            {
+                warned[i] = false;
+            }
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (keyboard != null && keyboard.isPushedOnce(key))
+        {
+            setVisible(!visible);
+        }
+        if (counter != null)
+        {
+            ticks++;
+            if (ticks >= WARMUP_TICKS && ticks % REPORT_TICKS == 0)
+            {
+                checkAllocations();
+            }
+        }
+        if (visible)
+        {
+            refresh--;
+            if (refresh <= 0)
+            {
+                computePercentiles();
+                refresh = REFRESH_TICKS;
+            }
+        }
+    }
+
+    @Override
+    public void render(Graphic g)
+    {
+        if (visible)
+        {
+            final int line = glyphs.getHeight();
+            final int height = (PHASES.length + 1) * line;
+            final boolean tracking = counter != null;
+            g.setColor(OVERLAY_BACKGROUND);
+            g.drawRect(OVERLAY_X, OVERLAY_Y, tracking ? OVERLAY_WIDTH_BYTES : OVERLAY_WIDTH, height, true);
+
+            glyphs.drawLabel(g, OVERLAY_X, OVERLAY_Y, LABEL_TITLE);
+            glyphs.drawLabel(g, OVERLAY_X + COLUMN_MEDIAN, OVERLAY_Y, Align.RIGHT, LABEL_MEDIAN);
+            glyphs.drawLabel(g, OVERLAY_X + COLUMN_HIGH, OVERLAY_Y, Align.RIGHT, LABEL_HIGH);
+            if (tracking)
+            {
+                glyphs.drawLabel(g, OVERLAY_X + COLUMN_BYTES, OVERLAY_Y, Align.RIGHT, LABEL_BYTES);
+            }
+            for (int i = 0; i < PHASES.length; i++)
+            {
+                final int y = OVERLAY_Y + (i + 1) * line;
+                glyphs.drawLabel(g, OVERLAY_X, y, PHASES[i].getLabel());
+                glyphs.draw(g, OVERLAY_X + COLUMN_MEDIAN, y, Align.RIGHT, medians[i]);
+                glyphs.draw(g, OVERLAY_X + COLUMN_HIGH, y, Align.RIGHT, highs[i]);
+                if (tracking)
+                {
+                    glyphs.draw(g, OVERLAY_X + COLUMN_BYTES, y, Align.RIGHT, bytes[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.profiler;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed size ring buffer of durations, written by a single thread and readable from any thread without lock.
+ * <p>
+ * Writer stores the value before publishing the new count, so a reader only sees published values. A reader may see a
+ * value overwritten while copying, which is acceptable for statistics.
+ * </p>
+ */
+public final class Samples
+{
+    private static final int PERCENT = 100;
+
+    private final long[] values;
+    private final int mask;
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Create samples.
+     * 
+     * @param capacity The capacity (rounded up to a power of two).
+     */
+    public Samples(int capacity)
+    {
+        super();
+
+        final int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        values = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Add a value, overwriting the oldest one when full. Must only be called by writer thread.
+     * 
+     * @param value The value to add.
+     */
+    public void add(long value)
+    {
+        final int index = count.get();
+        values[index & mask] = value;
+        count.lazySet(index + 1);
+    }
+
+    /**
+     * Copy available values, sorted.
+     * 
+     * @param scratch The destination array, at least of capacity length.
+     * @return The number of copied values.
+     */
+    public int copySorted(long[] scratch)
+    {
+        final int n = Math.min(count.get(), values.length);
+        System.arraycopy(values, 0, scratch, 0, n);
+        Arrays.sort(scratch, 0, n);
+        return n;
+    }
+
+    /**
+     * Get capacity.
+     * 
+     * @return The capacity.
+     */
+    public int getCapacity()
+    {
+        return values.length;
+    }
+
+    /**
+     * Get total number of added values.
+     * 
+     * @return The total added values.
+     */
+    public int getTotal()
+    {
+        return count.get();
+    }
+
+    /**
+     * Get percentile of available values.
+     * 
+     * @param scratch The sorting array, at least of capacity length.
+     * @param percentile The percentile (0 to 100).
+     * @return The percentile value, <code>0</code> if no values.
+     */
+    public long getPercentile(long[] scratch, int percentile)
+    {
+        final int n = copySorted(scratch);
+        if (n == 0)
+        {
+            return 0L;
+        }
+        return scratch[Math.min(n - 1, (int) ((long) n * percentile / PERCENT))];
+    }
+}
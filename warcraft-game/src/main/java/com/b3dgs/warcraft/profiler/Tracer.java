@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.profiler;
+
+/**
+ * Game events tracer, implemented by platform to forward events to a recorder. Only called from game thread.
+ * 
+ * @see Tracing
+ */
+public interface Tracer
+{
+    /**
+     * Notify frame start, before update.
+     */
+    void beginFrame();
+
+    /**
+     * Notify frame end, after rendering.
+     */
+    void endFrame();
+
+    /**
+     * Notify loading phase start. Phases may be nested.
+     * 
+     * @param phase The phase name.
+     */
+    void beginLoad(String phase);
+
+    /**
+     * Notify last started loading phase end.
+     */
+    void endLoad();
+
+    /**
+     * Notify entity state transition.
+     * 
+     * @param id The entity id.
+     * @param from The previous state name.
+     * @param to The next state name.
+     */
+    void notifyStateChanged(int id, String from, String to);
+
+    /**
+     * Notify path search start.
+     */
+    void beginPathSearch();
+
+    /**
+     * Notify path search end.
+     * 
+     * @param id The entity id.
+     * @param distance The distance in tile to destination.
+     */
+    void endPathSearch(int id, int distance);
+
+    /**
+     * Notify entity added to world.
+     * 
+     * @param id The entity id.
+     * @param type The entity type path.
+     */
+    void notifySpawned(int id, String type);
+
+    /**
+     * Notify entity removed from world.
+     * 
+     * @param id The entity id.
+     * @param type The entity type path.
+     */
+    void notifyDespawned(int id, String type);
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.profiler;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Tracer counting path searches and alive entities, forwarding all events to another tracer.
+ */
+public class TracerCounter implements Tracer
+{
+    /**
+     * Wrap current tracer into a counter, and set it as the current one. Must be called before game starts.
+     * 
+     * @return The installed counter.
+     */
+    public static TracerCounter install()
+    {
+        final TracerCounter counter = new TracerCounter(Tracing.get());
+        Tracing.set(counter);
+        return counter;
+    }
+
+    private final Tracer delegate;
+    private long searches;
+    private int entities;
+
+    /**
+     * Create counter.
+     * 
+     * @param delegate The tracer receiving events.
+     * @throws LionEngineException If invalid argument.
+     */
+    public TracerCounter(Tracer delegate)
+    {
+        super();
+
+        Check.notNull(delegate);
+
+        this.delegate = delegate;
+    }
+
+    /**
+     * Get number of path searches since creation.
+     * 
+     * @return The path searches count.
+     */
+    public long getPathSearches()
+    {
+        return searches;
+    }
+
+    /**
+     * Get number of entities in world.
+     * 
+     * @return The entities count.
+     */
+    public int getEntities()
+    {
+        return entities;
+    }
+
+    @Override
+    public void beginFrame()
+    {
+        delegate.beginFrame();
+    }
+
+    @Override
+    public void endFrame()
+    {
+        delegate.endFrame();
+    }
+
+    @Override
+    public void beginLoad(String phase)
+    {
+        delegate.beginLoad(phase);
+    }
+
+    @Override
+    public void endLoad()
+    {
+        delegate.endLoad();
+    }
+
+    @Override
+    public void notifyStateChanged(int id, String from, String to)
+    {
+        delegate.notifyStateChanged(id, from, to);
+    }
+
+    @Override
+    public void beginPathSearch()
+    {
+        delegate.beginPathSearch();
+    }
+
+    @Override
+    public void endPathSearch(int id, int distance)
+    {
+        searches++;
+        delegate.endPathSearch(id, distance);
+    }
+
+    @Override
+    public void notifySpawned(int id, String type)
+    {
+        entities++;
+        delegate.notifySpawned(id, type);
+    }
+
+    @Override
+    public void notifyDespawned(int id, String type)
+    {
+        entities--;
+        delegate.notifyDespawned(id, type);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.profiler;
+
+/**
+ * Tracer ignoring all events, used when tracing is disabled.
+ */
+public class TracerVoid implements Tracer
+{
+    /**
+     * Create tracer.
+     */
+    public TracerVoid()
+    {
+        super();
+    }
+
+    @Override
+    public void beginFrame()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void endFrame()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void beginLoad(String phase)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void endLoad()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void notifyStateChanged(int id, String from, String to)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void beginPathSearch()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void endPathSearch(int id, int distance)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void notifySpawned(int id, String type)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void notifyDespawned(int id, String type)
+    {
+        // Nothing to do
+    }
+}
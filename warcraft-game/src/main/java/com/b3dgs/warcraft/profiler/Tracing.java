@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.profiler;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Game events tracer holder, set by launcher before game starts. Events are ignored by default.
+ */
+public final class Tracing
+{
+    /** Disabled tracer. */
+    private static final Tracer NONE = new TracerVoid();
+
+    /** Current tracer. */
+    private static Tracer tracer = NONE;
+
+    /**
+     * Set tracer. Must be called before game starts.
+     * 
+     * @param tracer The tracer reference.
+     * @throws LionEngineException If invalid argument.
+     */
+    public static void set(Tracer tracer)
+    {
+        Check.notNull(tracer);
+
+        Tracing.tracer = tracer;
+    }
+
+    /**
+     * Get current tracer.
+     * 
+     * @return The current tracer.
+     */
+    public static Tracer get()
+    {
+        return tracer;
+    }
+
+    /**
+     * Check if a tracer has been set.
+     * 
+     * @return <code>true</code> if enabled, <code>false</code> else.
+     */
+    public static boolean isEnabled()
+    {
+        return tracer != NONE;
+    }
+
+    /**
+     * Private constructor.
+     */
+    private Tracing()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.scenario;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.warcraft.Level;
+
+/**
+ * Stress scenario, describing populations spawned on a level.
+ * <p>
+ * Counts are totals, split between both sides: workers are mining, soldiers are fighting the opposite side, and
+ * buildings are producing.
+ * </p>
+ */
+public final class Scenario
+{
+    /** Units per producing building. */
+    private static final int UNITS_PER_BUILDING = 20;
+
+    /**
+     * Create scenario from a total number of units, half mining and half fighting, with one producing building for
+     * {@value #UNITS_PER_BUILDING} units.
+     * 
+     * @param level The level reference.
+     * @param units The total number of units.
+     * @return The created scenario.
+     * @throws LionEngineException If invalid arguments.
+     */
+    public static Scenario scale(Level level, int units)
+    {
+        final int workers = units / 2;
+        return new Scenario(level, workers, units - workers, Math.max(2, units / UNITS_PER_BUILDING));
+    }
+
+    private final Level level;
+    private final int workers;
+    private final int soldiers;
+    private final int buildings;
+
+    /**
+     * Create scenario.
+     * 
+     * @param level The level reference.
+     * @param workers The number of mining workers.
+     * @param soldiers The number of fighting soldiers.
+     * @param buildings The number of producing buildings.
+     * @throws LionEngineException If invalid arguments.
+     */
+    public Scenario(Level level, int workers, int soldiers, int buildings)
+    {
+        super();
+
+        Check.notNull(level);
+        Check.superiorOrEqual(workers, 0);
+        Check.superiorOrEqual(soldiers, 0);
+        Check.superiorOrEqual(buildings, 0);
+
+        this.level = level;
+        this.workers = workers;
+        this.soldiers = soldiers;
+        this.buildings = buildings;
+    }
+
+    /**
+     * Get the level.
+     * 
+     * @return The level.
+     */
+    public Level getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * Get the number of mining workers.
+     * 
+     * @return The number of workers.
+     */
+    public int getWorkers()
+    {
+        return workers;
+    }
+
+    /**
+     * Get the number of fighting soldiers.
+     * 
+     * @return The number of soldiers.
+     */
+    public int getSoldiers()
+    {
+        return soldiers;
+    }
+
+    /**
+     * Get the number of producing buildings.
+     * 
+     * @return The number of buildings.
+     */
+    public int getBuildings()
+    {
+        return buildings;
+    }
+
+    /**
+     * Get the total number of units.
+     * 
+     * @return The number of workers and soldiers.
+     */
+    public int getUnits()
+    {
+        return workers + soldiers;
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.scenario;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.game.SizeConfig;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractable;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.command.Commands;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.constant.Folder;
+import com.b3dgs.warcraft.object.EntityPool;
+import com.b3dgs.warcraft.object.EntityTypes;
+
+/**
+ * Spawn scenario populations on the loaded map, player side on the left and computer side on the right.
+ * <p>
+ * Each side gets half of the populations. First building of a side is its town hall, producing workers, next ones are
+ * barracks producing soldiers. Workers are sent to the gold mines of their side, and soldiers attack the soldier of
+ * same rank on the opposite side. Entities are placed on the closest available area from their anchor, so populations
+ * larger than the map can hold are truncated.
+ * </p>
+ */
+public class ScenarioGenerator
+{
+    private static final int NONE = -1;
+    private static final int SIDES = 2;
+    private static final String[] RACES =
+    {
+        Constant.RACE_PLAYER, Constant.RACE_COMPUTER
+    };
+    private static final String[] FOLDERS =
+    {
+        Folder.ORCS, Folder.HUMANS
+    };
+    private static final String[] WORKERS =
+    {
+        "Peon.xml", "Peasant.xml"
+    };
+    private static final String[] SOLDIERS =
+    {
+        "Grunt.xml", "Footman.xml"
+    };
+    private static final String[] HALLS =
+    {
+        "TownhallOrc.xml", "TownhallHuman.xml"
+    };
+    private static final String[] BARRACKS =
+    {
+        "BarracksOrc.xml", "BarracksHuman.xml"
+    };
+    private static final String MINE = "GoldMine.xml";
+    private static final int WORKERS_PER_MINE = 50;
+    private static final int PRODUCTION_QUEUE = 5;
+    private static final int FRONT = 3;
+    private static final int STOCK = 1_000_000;
+
+    /**
+     * Get side share of a total, first side taking the remainder.
+     * 
+     * @param total The total count.
+     * @param side The side index.
+     * @return The side count.
+     */
+    private static int share(int total, int side)
+    {
+        return total / SIDES + (side == 0 ? total % SIDES : 0);
+    }
+
+    private final List<List<Transformable>> soldiers = new ArrayList<>();
+    private final EntityPool pool;
+    private final EntityTypes types;
+    private final Handler handler;
+    private final MapTile map;
+    private final MapTilePath mapPath;
+    private final Commands commands;
+    private final Players players;
+    private Featurable probe;
+    private int spawned;
+
+    /**
+     * Create generator.
+     * 
+     * @param services The services reference.
+     */
+    public ScenarioGenerator(Services services)
+    {
+        super();
+
+        pool = services.get(EntityPool.class);
+        types = services.get(EntityTypes.class);
+        handler = services.get(Handler.class);
+        map = services.get(MapTile.class);
+        mapPath = services.get(MapTilePath.class);
+        commands = services.get(Commands.class);
+        players = services.get(Players.class);
+    }
+
+    /**
+     * Spawn scenario populations. Map must be loaded.
+     * 
+     * @param scenario The scenario to spawn.
+     * @return The number of spawned entities.
+     */
+    public int generate(Scenario scenario)
+    {
+        spawned = 0;
+        soldiers.clear();
+        probe = pool.acquire(Medias.create(FOLDERS[0], WORKERS[0]));
+
+        final int cy = map.getInTileHeight() / 2;
+        for (int side = 0; side < SIDES; side++)
+        {
+            final int cx = map.getInTileWidth() * (1 + side * 2) / 4;
+            players.get(players.getDefault(RACES[side])).set(STOCK, STOCK, STOCK, 0);
+
+            createBuildings(side, cx, cy, share(scenario.getBuildings(), side));
+            createWorkers(side, cx, cy, share(scenario.getWorkers(), side));
+
+            final int front = map.getInTileWidth() / 2 + (side == 0 ? -FRONT : FRONT);
+            soldiers.add(createSoldiers(side, front, cy, share(scenario.getSoldiers(), side)));
+        }
+        engage(soldiers.get(0), soldiers.get(1));
+        engage(soldiers.get(1), soldiers.get(0));
+
+        return spawned;
+    }
+
+    /**
+     * Create side producing buildings, town hall first.
+     * 
+     * @param side The side index.
+     * @param tx The horizontal anchor tile.
+     * @param ty The vertical anchor tile.
+     * @param count The number of buildings.
+     */
+    private void createBuildings(int side, int tx, int ty, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final String building;
+            final String unit;
+            if (i == 0)
+            {
+                building = HALLS[side];
+                unit = WORKERS[side];
+            }
+            else
+            {
+                building = BARRACKS[side];
+                unit = SOLDIERS[side];
+            }
+            final Featurable producer = spawn(Medias.create(FOLDERS[side], building), tx, ty);
+            if (producer != null)
+            {
+                for (int j = 0; j < PRODUCTION_QUEUE; j++)
+                {
+                    commands.produce(producer, types.get(Medias.create(FOLDERS[side], unit)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Create side mines and their workers.
+     * 
+     * @param side The side index.
+     * @param tx The horizontal anchor tile.
+     * @param ty The vertical anchor tile.
+     * @param count The number of workers.
+     */
+    private void createWorkers(int side, int tx, int ty, int count)
+    {
+        final List<Extractable> mines = new ArrayList<>();
+        final int n = 1 + count / WORKERS_PER_MINE;
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable mine = spawn(Medias.create(Folder.NEUTRAL, MINE), tx, ty);
+            if (mine != null)
+            {
+                mines.add(mine.getFeature(Extractable.class));
+            }
+        }
+        if (mines.isEmpty())
+        {
+            return;
+        }
+
+        final Media media = Medias.create(FOLDERS[side], WORKERS[side]);
+        for (int i = 0; i < count; i++)
+        {
+            final Featurable worker;
+            if (side == 0 && i == 0)
+            {
+                final int index = find(types.get(media).getSize(), tx, ty);
+                worker = index == NONE ? null : place(probe, index);
+            }
+            else
+            {
+                worker = spawn(media, tx, ty);
+            }
+            if (worker != null)
+            {
+                commands.extract(worker, mines.get(i % mines.size()));
+            }
+        }
+    }
+
+    /**
+     * Create side soldiers.
+     * 
+     * @param side The side index.
+     * @param tx The horizontal anchor tile.
+     * @param ty The vertical anchor tile.
+     * @param count The number of soldiers.
+     * @return The created soldiers.
+     */
+    private List<Transformable> createSoldiers(int side, int tx, int ty, int count)
+    {
+        final List<Transformable> created = new ArrayList<>(count);
+        final Media media = Medias.create(FOLDERS[side], SOLDIERS[side]);
+        for (int i = 0; i < count; i++)
+        {
+            final Featurable soldier = spawn(media, tx, ty);
+            if (soldier != null)
+            {
+                created.add(soldier.getFeature(Transformable.class));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Send soldiers against the soldier of same rank in opposite side.
+     * 
+     * @param attackers The attacking soldiers.
+     * @param targets The opposite soldiers.
+     */
+    private void engage(List<Transformable> attackers, List<Transformable> targets)
+    {
+        if (targets.isEmpty())
+        {
+            return;
+        }
+        final int n = attackers.size();
+        for (int i = 0; i < n; i++)
+        {
+            commands.attack(attackers.get(i), targets.get(i % targets.size()));
+        }
+    }
+
+    /**
+     * Spawn entity on closest available area from anchor.
+     * 
+     * @param media The entity media.
+     * @param tx The horizontal anchor tile.
+     * @param ty The vertical anchor tile.
+     * @return The spawned entity, <code>null</code> if no more room on map.
+     */
+    private Featurable spawn(Media media, int tx, int ty)
+    {
+        final int index = find(types.get(media).getSize(), tx, ty);
+        if (index == NONE)
+        {
+            return null;
+        }
+        return place(pool.acquire(media), index);
+    }
+
+    /**
+     * Find closest available area from anchor, searching rings of increasing radius.
+     * 
+     * @param size The entity size.
+     * @param tx The horizontal anchor tile.
+     * @param ty The vertical anchor tile.
+     * @return The area tile index, {@link #NONE} if no more room on map.
+     */
+    private int find(SizeConfig size, int tx, int ty)
+    {
+        final int tw = Math.max(1, size.getWidth() / map.getTileWidth());
+        final int th = Math.max(1, size.getHeight() / map.getTileHeight());
+        final int range = Math.max(map.getInTileWidth(), map.getInTileHeight());
+
+        for (int radius = 0; radius <= range; radius++)
+        {
+            for (int dy = -radius; dy <= radius; dy++)
+            {
+                final int step;
+                if (dy == -radius || dy == radius)
+                {
+                    step = 1;
+                }
+                else
+                {
+                    step = radius * 2;
+                }
+                for (int dx = -radius; dx <= radius; dx += step)
+                {
+                    if (isAvailable(tx + dx, ty + dy, tw, th))
+                    {
+                        return (ty + dy) * map.getInTileWidth() + tx + dx;
+                    }
+                }
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Place entity on area and add it to handler.
+     * 
+     * @param featurable The entity to place.
+     * @param index The area tile index.
+     * @return The placed entity.
+     */
+    private Featurable place(Featurable featurable, int index)
+    {
+        final int tx = index % map.getInTileWidth();
+        final int ty = index / map.getInTileWidth();
+        featurable.getFeature(Transformable.class).teleport(tx * map.getTileWidth(), ty * map.getTileHeight());
+        featurable.getFeature(Pathfindable.class).setLocation(tx, ty);
+        handler.add(featurable);
+        spawned++;
+        return featurable;
+    }
+
+    /**
+     * Check if area is inside map and available for a ground unit.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @param tw The width in tile.
+     * @param th The height in tile.
+     * @return <code>true</code> if available, <code>false</code> else.
+     */
+    private boolean isAvailable(int tx, int ty, int tw, int th)
+    {
+        return tx >= 0
+               && ty >= 0
+               && tx + tw <= map.getInTileWidth()
+               && ty + th <= map.getInTileHeight()
+               && mapPath.isAreaAvailable(probe.getFeature(Pathfindable.class), tx, ty, tw, th, null);
+    }
+}
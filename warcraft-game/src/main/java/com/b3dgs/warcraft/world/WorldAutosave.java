@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.constant.Extension;
+
+/**
+ * Periodic autosave, capturing snapshot on game thread and writing it on a background thread.
+ * <p>
+ * A full snapshot is written every {@link #setFullEvery(int)} saves. Saves in between only store the entities changed
+ * since this full snapshot, so only the last delta is kept. Files are written to a temporary file first, then
+ * atomically moved, so an interrupted save never corrupts the previous one.
+ * </p>
+ * <p>
+ * Autosave is opt-in, files are named after the autosave name, so each world instance must use its own name.
+ * {@link #close()} must be called when world ends.
+ * </p>
+ */
+public class WorldAutosave implements Updatable
+{
+    /** Default period in seconds. */
+    public static final int DEFAULT_PERIOD = 60;
+    /** Default number of saves between two full snapshots. */
+    public static final int DEFAULT_FULL_EVERY = 10;
+    /** Resume from last autosave property. */
+    public static final String PROPERTY_RESUME = "warcraft.resume";
+
+    private static final String SUFFIX_DELTA = "_delta";
+    private static final String TEMP = ".tmp";
+    private static final long CLOSE_TIMEOUT_SECONDS = 5L;
+    private static final String THREAD_NAME = "Autosave";
+    private static final String ERROR_AUTOSAVE = "Error on autosave !";
+    private static final String ERROR_ATOMIC = "Atomic move not supported, replacing: ";
+
+    /**
+     * Write snapshot data to file, compressed, through a temporary file.
+     * 
+     * @param media The destination media.
+     * @param generation The full snapshot generation.
+     * @param writer The snapshot writer.
+     * @throws IOException If error.
+     */
+    private static void write(Media media, int generation, SnapshotWriter writer) throws IOException
+    {
+        final File file = media.getFile();
+        final File temp = new File(file.getPath() + TEMP);
+        final OutputStream stream = new GZIPOutputStream(new FileOutputStream(temp));
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream)))
+        {
+            output.writeInt(generation);
+            writer.write(output);
+        }
+        try
+        {
+            Files.move(temp.toPath(),
+                       file.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final AtomicMoveNotSupportedException exception)
+        {
+            Verbose.exception(exception, ERROR_ATOMIC, file.getPath());
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Open compressed snapshot file.
+     * 
+     * @param media The snapshot media.
+     * @return The opened input.
+     * @throws IOException If error.
+     */
+    private static DataInputStream open(Media media) throws IOException
+    {
+        return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(media.getFile()))));
+    }
+
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable ->
+    {
+        final Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final Media full;
+    private final Media delta;
+    private final Services services;
+
+    /** Last full snapshot, only accessed by background thread. */
+    private WorldSnapshot base;
+    /** Last full snapshot generation, only accessed by background thread. */
+    private int generation;
+    private double period = DEFAULT_PERIOD * (double) Constant.NATIVE.getRate();
+    private int fullEvery = DEFAULT_FULL_EVERY;
+    private double elapsed;
+    private int saves;
+    private boolean enabled = true;
+
+    /**
+     * Create autosave.
+     * 
+     * @param services The services reference.
+     * @param name The autosave name, used as files name.
+     */
+    public WorldAutosave(Services services, String name)
+    {
+        super();
+
+        this.services = services;
+        full = Medias.create(name + Extension.SAVE);
+        delta = Medias.create(name + SUFFIX_DELTA + Extension.SAVE);
+    }
+
+    /**
+     * Set autosave period.
+     * 
+     * @param seconds The period in seconds.
+     */
+    public void setPeriod(int seconds)
+    {
+        period = seconds * (double) Constant.NATIVE.getRate();
+    }
+
+    /**
+     * Set the number of saves between two full snapshots.
+     * 
+     * @param fullEvery The number of saves (1 to always write full snapshots).
+     */
+    public void setFullEvery(int fullEvery)
+    {
+        this.fullEvery = Math.max(1, fullEvery);
+    }
+
+    /**
+     * Enable or disable autosave.
+     * 
+     * @param enabled <code>true</code> to enable, <code>false</code> to disable.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Save now. Capture is performed on caller thread (must be game thread), writing is performed in background.
+     * Skipped if previous save is still being written, or if closed.
+     * 
+     * @return <code>true</code> if save has been scheduled, <code>false</code> if skipped.
+     */
+    public boolean save()
+    {
+        if (executor.isShutdown() || !busy.compareAndSet(false, true))
+        {
+            return false;
+        }
+
+        final WorldSnapshot snapshot = new WorldSnapshot(services);
+        snapshot.capture();
+
+        final boolean isFull = saves % fullEvery == 0;
+        saves++;
+        executor.execute(() ->
+        {
+            try
+            {
+                if (isFull || base == null)
+                {
+                    deleteDelta();
+                    generation++;
+                    write(full, generation, snapshot::encode);
+                    base = snapshot;
+                }
+                else
+                {
+                    write(delta, generation, output -> snapshot.encodeDelta(output, base));
+                }
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, ERROR_AUTOSAVE);
+            }
+            finally
+            {
+                busy.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Delete delta file, as it is related to the previous full snapshot.
+     * 
+     * @throws IOException If error.
+     */
+    private void deleteDelta() throws IOException
+    {
+        Files.deleteIfExists(delta.getFile().toPath());
+    }
+
+    /**
+     * Load last autosave, merging last delta with its full snapshot if any.
+     * 
+     * @return The loaded snapshot, <code>null</code> if none.
+     * @throws IOException If error.
+     */
+    public WorldSnapshot load() throws IOException
+    {
+        if (!full.exists())
+        {
+            return null;
+        }
+        final WorldSnapshot loaded = new WorldSnapshot(services);
+        final int fullGeneration;
+        try (DataInputStream input = open(full))
+        {
+            fullGeneration = input.readInt();
+            loaded.decode(input);
+        }
+        if (delta.exists())
+        {
+            try (DataInputStream input = open(delta))
+            {
+                if (input.readInt() == fullGeneration)
+                {
+                    final WorldSnapshot merged = new WorldSnapshot(services);
+                    merged.decodeDelta(input, loaded);
+                    return merged;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Close autosave, waiting for pending save to be written. No more save is performed.
+     */
+    public void close()
+    {
+        enabled = false;
+        executor.shutdown();
+        try
+        {
+            executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (enabled)
+        {
+            elapsed += extrp;
+            if (elapsed >= period)
+            {
+                elapsed = 0.0;
+                save();
+            }
+        }
+    }
+
+    /**
+     * Snapshot writer.
+     */
+    @FunctionalInterface
+    private interface SnapshotWriter
+    {
+        /**
+         * Write snapshot data.
+         * 
+         * @param output The output data.
+         * @throws IOException If error.
+         */
+        void write(DataOutputStream output) throws IOException;
+    }
+}
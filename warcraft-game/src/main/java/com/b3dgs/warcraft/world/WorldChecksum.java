@@ -0,0 +1,483 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.TransformableListener;
+import com.b3dgs.lionengine.game.feature.state.State;
+import com.b3dgs.lionengine.game.feature.state.StateHandler;
+import com.b3dgs.lionengine.game.feature.state.StateTransitionListener;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.Resources;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.feature.EntityStatsListener;
+
+/**
+ * Incremental world checksum, folded each tick from entities, resources and map tiles.
+ * <p>
+ * Each entity contributes its own hash, combined by xor, so only entities notified as changed since the previous tick
+ * are hashed again. Trackers listen to entities only while they are in handler. Map contribution is computed once on
+ * load, as map tiles are not modified during game.
+ * </p>
+ * <p>
+ * Tick hashes can be appended to a replay log with {@link #startLog(Media, boolean)}, so runs and peers can be compared
+ * afterwards with {@link #readLog(Media)}.
+ * </p>
+ */
+public class WorldChecksum implements Updatable, HandlerListener
+{
+    /** Number of tick hashes kept in history (power of two). */
+    public static final int HISTORY = 1 << 12;
+
+    private static final String ERROR_TICK = "Tick out of history: ";
+    private static final String ERROR_LOG = "Error on hash log, logging stopped: ";
+    private static final int HISTORY_MASK = HISTORY - 1;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Mix value bits (SplitMix64 finalizer).
+     * 
+     * @param value The value to mix.
+     * @return The mixed value.
+     */
+    public static long mix(long value)
+    {
+        long z = value + SEED;
+        z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+        return z ^ z >>> 31;
+    }
+
+    /**
+     * Read replay log previously written, indexed by tick. Last written hash is kept when a tick has been logged
+     * several times, such as after a resume.
+     * 
+     * @param media The log media.
+     * @return The tick hashes.
+     * @throws IOException If error.
+     */
+    public static long[] readLog(Media media) throws IOException
+    {
+        long[] hashes = new long[INITIAL_CAPACITY];
+        int count = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(media.getFile()))))
+        {
+            while (true)
+            {
+                final int tick = input.readInt();
+                final long hash = input.readLong();
+                if (tick >= hashes.length)
+                {
+                    hashes = Arrays.copyOf(hashes, Math.max(tick + 1, hashes.length * 2));
+                }
+                hashes[tick] = hash;
+                count = Math.max(count, tick + 1);
+            }
+        }
+        catch (final EOFException exception)
+        {
+            return Arrays.copyOf(hashes, count);
+        }
+    }
+
+    /**
+     * Compute player resources contribution.
+     * 
+     * @param resources The player resources.
+     * @return The resources hash.
+     */
+    private static long hashResources(Resources resources)
+    {
+        long hash = mix(resources.getStockWood());
+        hash = mix(hash ^ resources.getStockGold());
+        hash = mix(hash ^ resources.getAvailableFood());
+        return mix(hash ^ resources.getConsumedFood());
+    }
+
+    private final long[] history = new long[HISTORY];
+    private final Handler handler;
+    private final MapTile map;
+    private final Players players;
+    private final WorldReferences references;
+
+    private Tracker[] trackers = new Tracker[INITIAL_CAPACITY];
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private boolean[] dirty = new boolean[INITIAL_CAPACITY];
+    private int[] dirtyIds = new int[INITIAL_CAPACITY];
+    private int dirtyCount;
+    private long entitiesHash;
+    private long mapHash;
+    private long current;
+    private int tick;
+    private DataOutputStream log;
+    private Media logMedia;
+
+    /**
+     * Create checksum.
+     * 
+     * @param services The services reference.
+     */
+    public WorldChecksum(Services services)
+    {
+        super();
+
+        handler = services.get(Handler.class);
+        map = services.get(MapTile.class);
+        players = services.get(Players.class);
+        references = services.get(WorldReferences.class);
+
+        handler.addListener(this);
+    }
+
+    /**
+     * Compute map tiles contribution. Must be called once map has been loaded.
+     */
+    public void load()
+    {
+        final int width = map.getInTileWidth();
+        final int height = map.getInTileHeight();
+        mapHash = 0L;
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                final int index = ty * width + tx;
+                mapHash ^= mix(index ^ (long) getTileNumber(tx, ty) << 32);
+            }
+        }
+    }
+
+    /**
+     * Start appending each computed tick hash to replay log, as tick and hash pairs. Any previous log is stopped.
+     * 
+     * @param media The log media.
+     * @param append <code>true</code> to append to existing log, such as on resume, <code>false</code> to replace it.
+     */
+    public void startLog(Media media, boolean append)
+    {
+        stopLog();
+        try
+        {
+            log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(media.getFile(), append)));
+            logMedia = media;
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_LOG, media.getPath());
+        }
+    }
+
+    /**
+     * Stop replay log, flushing pending hashes. Must be called when world ends if log has been started.
+     */
+    public void stopLog()
+    {
+        if (log != null)
+        {
+            try
+            {
+                log.close();
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, ERROR_LOG, logMedia.getPath());
+            }
+            finally
+            {
+                log = null;
+            }
+        }
+    }
+
+    /**
+     * Get the last computed tick hash.
+     * 
+     * @return The current hash.
+     */
+    public long getCurrent()
+    {
+        return current;
+    }
+
+    /**
+     * Get the number of computed ticks.
+     * 
+     * @return The ticks count.
+     */
+    public int getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * Get the hash computed at specified tick.
+     * 
+     * @param tick The tick index (must be one of the last {@link #HISTORY} ticks).
+     * @return The tick hash.
+     * @throws LionEngineException If tick is not in history.
+     */
+    public long get(int tick)
+    {
+        if (tick < 0 || tick >= this.tick || this.tick - tick > HISTORY)
+        {
+            throw new LionEngineException(ERROR_TICK + tick);
+        }
+        return history[tick & HISTORY_MASK];
+    }
+
+    /**
+     * Get current map tile number.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The tile number, <code>-1</code> if none.
+     */
+    private int getTileNumber(int tx, int ty)
+    {
+        final Tile tile = map.getTile(tx, ty);
+        if (tile == null)
+        {
+            return -1;
+        }
+        return tile.getNumber();
+    }
+
+    /**
+     * Append current tick hash to replay log. Log is stopped on error, game continues.
+     */
+    private void writeLog()
+    {
+        try
+        {
+            log.writeInt(tick);
+            log.writeLong(current);
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_LOG, logMedia.getPath());
+            stopLog();
+        }
+    }
+
+    /**
+     * Mark entity as changed since last tick.
+     * 
+     * @param id The entity id.
+     */
+    private void markDirty(int id)
+    {
+        if (trackers[id] != null && !dirty[id])
+        {
+            dirty[id] = true;
+            dirtyIds[dirtyCount] = id;
+            dirtyCount++;
+        }
+    }
+
+    /**
+     * Ensure arrays can store the specified id.
+     * 
+     * @param id The entity id.
+     */
+    private void ensureCapacity(int id)
+    {
+        if (id >= trackers.length)
+        {
+            final int capacity = Math.max(id + 1, trackers.length * 2);
+            trackers = Arrays.copyOf(trackers, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            dirty = Arrays.copyOf(dirty, capacity);
+            dirtyIds = Arrays.copyOf(dirtyIds, capacity);
+        }
+    }
+
+    /**
+     * Compute resources contribution of all players.
+     * 
+     * @return The resources hash.
+     */
+    private long hashResources()
+    {
+        long hash = 0L;
+        final int n = players.getCount();
+        for (int i = 0; i < n; i++)
+        {
+            hash = mix(hash ^ hashResources(players.get(i)));
+        }
+        return hash;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        for (int i = 0; i < dirtyCount; i++)
+        {
+            final int id = dirtyIds[i];
+            dirty[id] = false;
+
+            final Tracker tracker = trackers[id];
+            if (tracker != null)
+            {
+                entitiesHash ^= hashes[id];
+                hashes[id] = tracker.hash();
+                entitiesHash ^= hashes[id];
+            }
+        }
+        dirtyCount = 0;
+
+        long hash = mix(entitiesHash);
+        hash = mix(hash ^ hashResources());
+        hash = mix(hash ^ mapHash);
+        current = mix(hash ^ tick);
+
+        history[tick & HISTORY_MASK] = current;
+        if (log != null)
+        {
+            writeLog();
+        }
+        tick++;
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityStats.class))
+        {
+            final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+            ensureCapacity(id);
+            if (trackers[id] != null)
+            {
+                trackers[id].detach();
+                entitiesHash ^= hashes[id];
+            }
+            trackers[id] = new Tracker(id, featurable);
+            hashes[id] = 0L;
+            markDirty(id);
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+        if (id < trackers.length && trackers[id] != null && trackers[id].featurable == featurable)
+        {
+            trackers[id].detach();
+            trackers[id] = null;
+            entitiesHash ^= hashes[id];
+            hashes[id] = 0L;
+        }
+    }
+
+    /**
+     * Entity changes tracker.
+     */
+    private final class Tracker implements TransformableListener, StateTransitionListener, EntityStatsListener
+    {
+        private final int id;
+        private final Featurable featurable;
+        private final Transformable transformable;
+        private final EntityStats stats;
+
+        private long state;
+
+        /**
+         * Create tracker and listen to entity.
+         * 
+         * @param id The entity id.
+         * @param featurable The entity reference.
+         */
+        Tracker(int id, Featurable featurable)
+        {
+            super();
+
+            this.id = id;
+            this.featurable = featurable;
+            transformable = featurable.getFeature(Transformable.class);
+            stats = featurable.getFeature(EntityStats.class);
+
+            transformable.addListener(this);
+            featurable.getFeature(StateHandler.class).addListener(this);
+            stats.addListener(this);
+        }
+
+        /**
+         * Stop listening to entity.
+         */
+        void detach()
+        {
+            transformable.removeListener(this);
+            featurable.getFeature(StateHandler.class).removeListener(this);
+            stats.removeListener(this);
+        }
+
+        /**
+         * Compute entity hash.
+         * 
+         * @return The entity hash.
+         */
+        long hash()
+        {
+            long hash = mix(references.get(featurable));
+            hash = mix(hash ^ Double.doubleToLongBits(transformable.getX()));
+            hash = mix(hash ^ Double.doubleToLongBits(transformable.getY()));
+            hash = mix(hash ^ stats.getLife());
+            return mix(hash ^ state);
+        }
+
+        @Override
+        public void notifyTransformed(Transformable transformable)
+        {
+            markDirty(id);
+        }
+
+        @Override
+        public void notifyStateTransition(Class<? extends State> from, Class<? extends State> next)
+        {
+            state = next.getName().hashCode();
+            markDirty(id);
+        }
+
+        @Override
+        public void notifyLifeChanged(int life)
+        {
+            markDirty(id);
+        }
+    }
+}
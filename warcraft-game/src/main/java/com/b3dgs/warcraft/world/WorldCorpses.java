@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Mirror;
+import com.b3dgs.lionengine.Origin;
+import com.b3dgs.lionengine.Viewer;
+import com.b3dgs.lionengine.game.FramesConfig;
+import com.b3dgs.lionengine.game.feature.DisplayableModel;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.LayerableModel;
+import com.b3dgs.lionengine.game.feature.Mirrorable;
+import com.b3dgs.lionengine.game.feature.RefreshableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.drawable.Drawable;
+import com.b3dgs.lionengine.graphic.drawable.SpriteAnimated;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
+
+/**
+ * Corpses decals, drawn under entities once dead entities have been released.
+ * <p>
+ * A decal only stores its type sprite, frame, mirror and location in flat arrays, so corpses do not cost any entity
+ * update. Decals rot after {@link #DEFAULT_DURATION} seconds, and the oldest one is replaced when
+ * {@link #DEFAULT_CAPACITY} is reached.
+ * </p>
+ */
+public class WorldCorpses extends FeaturableModel
+{
+    /** Default decal duration in seconds. */
+    public static final int DEFAULT_DURATION = 30;
+    /** Default maximum decals number. */
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final Map<String, SpriteAnimated> sprites = new HashMap<>();
+    private final EntityTypes types;
+    private final Viewer viewer;
+
+    private SpriteAnimated[] decals = new SpriteAnimated[DEFAULT_CAPACITY];
+    private int[] frames = new int[DEFAULT_CAPACITY];
+    private Mirror[] mirrors = new Mirror[DEFAULT_CAPACITY];
+    private double[] xs = new double[DEFAULT_CAPACITY];
+    private double[] ys = new double[DEFAULT_CAPACITY];
+    private double[] remaining = new double[DEFAULT_CAPACITY];
+    private double duration = DEFAULT_DURATION * (double) Constant.NATIVE.getRate();
+    private int count;
+
+    /**
+     * Create corpses and add them to handler.
+     * 
+     * @param services The services reference.
+     */
+    public WorldCorpses(Services services)
+    {
+        super();
+
+        types = services.get(EntityTypes.class);
+        viewer = services.get(Viewer.class);
+
+        addFeature(new LayerableModel(Constant.LAYER_CORPSE, Constant.LAYER_CORPSE));
+        addFeature(new RefreshableModel(this::updateDecals));
+        addFeature(new DisplayableModel(this::renderDecals));
+
+        services.get(Handler.class).add(this);
+    }
+
+    /**
+     * Set decal duration.
+     * 
+     * @param seconds The duration in seconds.
+     */
+    public void setDuration(int seconds)
+    {
+        duration = seconds * (double) Constant.NATIVE.getRate();
+    }
+
+    /**
+     * Set maximum decals number. Oldest decals are discarded if there are more.
+     * 
+     * @param capacity The decals capacity.
+     */
+    public void setCapacity(int capacity)
+    {
+        while (count > capacity)
+        {
+            remove(getOldest());
+        }
+        decals = Arrays.copyOf(decals, capacity);
+        frames = Arrays.copyOf(frames, capacity);
+        mirrors = Arrays.copyOf(mirrors, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+    }
+
+    /**
+     * Add decal of entity, using its current frame, mirror and location.
+     * 
+     * @param featurable The dead entity.
+     */
+    public void add(Featurable featurable)
+    {
+        if (decals.length == 0)
+        {
+            return;
+        }
+        if (count == decals.length)
+        {
+            remove(getOldest());
+        }
+
+        final Transformable transformable = featurable.getFeature(Transformable.class);
+        decals[count] = getSprite(featurable);
+        frames[count] = featurable.getFeature(EntityModel.class).getSurface().getFrame();
+        mirrors[count] = featurable.getFeature(Mirrorable.class).getMirror();
+        xs[count] = transformable.getX();
+        ys[count] = transformable.getY();
+        remaining[count] = duration;
+        count++;
+    }
+
+    /**
+     * Remove all decals.
+     */
+    public void clear()
+    {
+        while (count > 0)
+        {
+            remove(count - 1);
+        }
+    }
+
+    /**
+     * Get current decals number.
+     * 
+     * @return The decals number.
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Get decal sprite of entity type, shared by all its decals.
+     * 
+     * @param featurable The entity reference.
+     * @return The decal sprite.
+     */
+    private SpriteAnimated getSprite(Featurable featurable)
+    {
+        final String path = featurable.getMedia().getPath();
+        SpriteAnimated sprite = sprites.get(path);
+        if (sprite == null)
+        {
+            final EntityType type = types.get(featurable.getMedia());
+            final FramesConfig config = type.getFrames();
+            sprite = Drawable.loadSpriteAnimated(type.getSetup().getSurface(),
+                                                 config.getHorizontal(),
+                                                 config.getVertical());
+            sprite.setOrigin(Origin.BOTTOM_LEFT);
+            sprite.setFrameOffsets(config.getOffsetX(), config.getOffsetY());
+            sprites.put(path, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Get index of the oldest decal.
+     * 
+     * @return The oldest decal index.
+     */
+    private int getOldest()
+    {
+        int oldest = 0;
+        for (int i = 1; i < count; i++)
+        {
+            if (remaining[i] < remaining[oldest])
+            {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Remove decal by moving last one at its index.
+     * 
+     * @param index The decal index.
+     */
+    private void remove(int index)
+    {
+        count--;
+        decals[index] = decals[count];
+        frames[index] = frames[count];
+        mirrors[index] = mirrors[count];
+        xs[index] = xs[count];
+        ys[index] = ys[count];
+        remaining[index] = remaining[count];
+        decals[count] = null;
+        mirrors[count] = null;
+    }
+
+    /**
+     * Update decals duration and remove rotten ones.
+     * 
+     * @param extrp The extrapolation value.
+     */
+    private void updateDecals(double extrp)
+    {
+        int i = 0;
+        while (i < count)
+        {
+            remaining[i] -= extrp;
+            if (remaining[i] <= 0.0)
+            {
+                remove(i);
+            }
+            else
+            {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Render decals.
+     * 
+     * @param g The graphic output.
+     */
+    private void renderDecals(Graphic g)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final SpriteAnimated sprite = decals[i];
+            sprite.setFrame(frames[i]);
+            sprite.setMirror(mirrors[i]);
+            sprite.setLocation(viewer.getViewpointX(xs[i]), viewer.getViewpointY(ys[i]));
+            sprite.render(g);
+        }
+    }
+}
@@ -0,0 +1,546 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.Viewer;
+import com.b3dgs.lionengine.game.feature.DisplayableModel;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.LayerableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.TransformableListener;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.drawable.Drawable;
+import com.b3dgs.lionengine.graphic.drawable.SpriteTiled;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.constant.Folder;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.object.Owners;
+
+/**
+ * Fog of war, with a visibility reference count grid per player.
+ * <p>
+ * Each entity with a field of view adds a precomputed circle stamp of its radius to its player grid, and only moves it
+ * when its center crosses a tile boundary. A tile is visible while its count is positive, and stays explored once
+ * seen. Fog is rendered from an overlay image where only tiles whose local player state changed are redrawn.
+ * </p>
+ */
+public class WorldFog extends FeaturableModel implements HandlerListener
+{
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int TILE_SIZE = 16;
+    private static final int TILE_FULL = 17;
+    private static final String FILE_FOG = "fog.png";
+    private static final String FILE_HIDE = "hide.png";
+
+    /**
+     * Create circle stamp, as packed horizontal and vertical offsets.
+     * 
+     * @param radius The radius in tile.
+     * @return The stamp offsets.
+     */
+    private static int[] createStamp(int radius)
+    {
+        final int side = radius * 2 + 1;
+        final int[] offsets = new int[side * side * 2];
+        final int limit = radius * radius + radius;
+        int count = 0;
+        for (int dy = -radius; dy <= radius; dy++)
+        {
+            for (int dx = -radius; dx <= radius; dx++)
+            {
+                if (dx * dx + dy * dy <= limit)
+                {
+                    offsets[count++] = dx;
+                    offsets[count++] = dy;
+                }
+            }
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    private final int[][] grids = new int[Players.MAX][];
+    private final Map<Integer, int[]> stamps = new HashMap<>();
+    private final MapTile map;
+    private final Viewer viewer;
+    private final EntityTypes types;
+    private final Owners owners;
+    private final SpriteTiled fog;
+    private final SpriteTiled hide;
+    private final int[] clear = new int[TILE_SIZE * TILE_SIZE];
+
+    private int player;
+    private int width;
+    private int height;
+    private int[] visible = new int[0];
+    private boolean[] explored = new boolean[0];
+    private int[] dirty = new int[0];
+    private boolean[] flagged = new boolean[0];
+    private int dirtyCount;
+    private ImageBuffer overlay;
+
+    private Tracker[] trackers = new Tracker[INITIAL_CAPACITY];
+
+    /**
+     * Create fog and add it to handler.
+     * 
+     * @param services The services reference.
+     */
+    public WorldFog(Services services)
+    {
+        super();
+
+        map = services.get(MapTile.class);
+        viewer = services.get(Viewer.class);
+        types = services.get(EntityTypes.class);
+        owners = services.get(Owners.class);
+        player = services.get(Players.class).getLocal();
+
+        fog = Drawable.loadSpriteTiled(Medias.create(Folder.MAPS, FILE_FOG), TILE_SIZE, TILE_SIZE);
+        fog.load();
+        fog.prepare();
+        hide = Drawable.loadSpriteTiled(Medias.create(Folder.MAPS, FILE_HIDE), TILE_SIZE, TILE_SIZE);
+        hide.load();
+        hide.prepare();
+
+        addFeature(new LayerableModel(Constant.LAYER_FOG_RENDER, Constant.LAYER_FOG_RENDER));
+        addFeature(new DisplayableModel(this::renderFog));
+
+        final Handler handler = services.get(Handler.class);
+        handler.addListener(this);
+        handler.add(this);
+    }
+
+    /**
+     * Allocate grids and overlay, everything hidden. Must be called once map has been loaded.
+     */
+    public void load()
+    {
+        width = map.getInTileWidth();
+        height = map.getInTileHeight();
+
+        final int size = width * height;
+        for (int i = 0; i < grids.length; i++)
+        {
+            if (grids[i] != null)
+            {
+                grids[i] = new int[size];
+            }
+        }
+        visible = getGrid(player);
+        for (final Tracker tracker : trackers)
+        {
+            if (tracker != null)
+            {
+                tracker.stamped = false;
+            }
+        }
+        explored = new boolean[size];
+        dirty = new int[size];
+        flagged = new boolean[size];
+        dirtyCount = 0;
+
+        if (overlay != null)
+        {
+            overlay.dispose();
+        }
+        overlay = Graphics.createImageBuffer(Math.max(1, width * TILE_SIZE),
+                                             Math.max(1, height * TILE_SIZE),
+                                             ColorRgba.TRANSPARENT);
+        for (int i = 0; i < size; i++)
+        {
+            markDirty(i);
+        }
+    }
+
+    /**
+     * Set local player, which fog is rendered. When called after {@link #load()}, such as on session start, explored
+     * tiles are reset to the tiles currently visible by player.
+     * 
+     * @param player The player id.
+     */
+    public void setPlayer(int player)
+    {
+        this.player = player;
+        if (explored.length > 0)
+        {
+            visible = getGrid(player);
+            for (int i = 0; i < visible.length; i++)
+            {
+                explored[i] = visible[i] > 0;
+                markDirty(i);
+            }
+        }
+    }
+
+    /**
+     * Check if tile is currently visible by player.
+     * 
+     * @param player The player id.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if visible, <code>false</code> else.
+     */
+    public boolean isVisible(int player, int tx, int ty)
+    {
+        final int[] grid = grids[player];
+        return grid != null && isInside(tx, ty) && grid[ty * width + tx] > 0;
+    }
+
+    /**
+     * Check if tile has been explored by local player.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if explored, <code>false</code> else.
+     */
+    public boolean isExplored(int tx, int ty)
+    {
+        return isInside(tx, ty) && explored[ty * width + tx];
+    }
+
+    /**
+     * Check if location is inside map.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if inside, <code>false</code> else.
+     */
+    private boolean isInside(int tx, int ty)
+    {
+        return tx >= 0 && ty >= 0 && tx < width && ty < height;
+    }
+
+    /**
+     * Get player grid, created on first use.
+     * 
+     * @param player The player id.
+     * @return The player grid.
+     */
+    private int[] getGrid(int player)
+    {
+        int[] grid = grids[player];
+        if (grid == null)
+        {
+            grid = new int[width * height];
+            grids[player] = grid;
+        }
+        return grid;
+    }
+
+    /**
+     * Get circle stamp of radius, computed on first use.
+     * 
+     * @param radius The radius in tile.
+     * @return The stamp offsets.
+     */
+    private int[] getStamp(int radius)
+    {
+        final Integer key = Integer.valueOf(radius);
+        int[] stamp = stamps.get(key);
+        if (stamp == null)
+        {
+            stamp = createStamp(radius);
+            stamps.put(key, stamp);
+        }
+        return stamp;
+    }
+
+    /**
+     * Add stamp to grid.
+     * 
+     * @param grid The player grid.
+     * @param stamp The stamp offsets.
+     * @param tx The horizontal center tile.
+     * @param ty The vertical center tile.
+     */
+    private void add(int[] grid, int[] stamp, int tx, int ty)
+    {
+        final boolean local = grid == visible;
+        for (int i = 0; i < stamp.length; i += 2)
+        {
+            final int x = tx + stamp[i];
+            final int y = ty + stamp[i + 1];
+            if (isInside(x, y))
+            {
+                final int index = y * width + x;
+                grid[index]++;
+                if (local && grid[index] == 1)
+                {
+                    explored[index] = true;
+                    markDirty(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove stamp from grid.
+     * 
+     * @param grid The player grid.
+     * @param stamp The stamp offsets.
+     * @param tx The horizontal center tile.
+     * @param ty The vertical center tile.
+     */
+    private void remove(int[] grid, int[] stamp, int tx, int ty)
+    {
+        final boolean local = grid == visible;
+        for (int i = 0; i < stamp.length; i += 2)
+        {
+            final int x = tx + stamp[i];
+            final int y = ty + stamp[i + 1];
+            if (isInside(x, y))
+            {
+                final int index = y * width + x;
+                grid[index]--;
+                if (local && grid[index] == 0)
+                {
+                    markDirty(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark tile to be redrawn on overlay.
+     * 
+     * @param index The tile index.
+     */
+    private void markDirty(int index)
+    {
+        if (!flagged[index])
+        {
+            flagged[index] = true;
+            dirty[dirtyCount++] = index;
+        }
+    }
+
+    /**
+     * Redraw dirty tiles on overlay.
+     */
+    private void redraw()
+    {
+        final Graphic g = overlay.createGraphic();
+        for (int i = 0; i < dirtyCount; i++)
+        {
+            final int index = dirty[i];
+            flagged[index] = false;
+
+            final int x = index % width * TILE_SIZE;
+            final int y = (height - 1 - index / width) * TILE_SIZE;
+            overlay.setRgb(x, y, TILE_SIZE, TILE_SIZE, clear, 0, TILE_SIZE);
+            if (visible[index] == 0)
+            {
+                final SpriteTiled sprite = explored[index] ? fog : hide;
+                sprite.setTile(TILE_FULL);
+                sprite.setLocation(x, y);
+                sprite.render(g);
+            }
+        }
+        g.dispose();
+        dirtyCount = 0;
+    }
+
+    /**
+     * Render fog overlay on view.
+     * 
+     * @param g The graphic output.
+     */
+    private void renderFog(Graphic g)
+    {
+        if (overlay != null)
+        {
+            if (dirtyCount > 0)
+            {
+                redraw();
+            }
+            final int x = (int) Math.round(viewer.getViewpointX(0.0));
+            final int y = (int) Math.round(viewer.getViewpointY(height * (double) map.getTileHeight()));
+            final int vx = viewer.getViewX();
+            final int vy = viewer.getViewY();
+            final int vw = viewer.getWidth();
+            final int vh = viewer.getHeight();
+            g.drawImage(overlay, vx, vy, vx + vw, vy + vh, vx - x, vy - y, vx - x + vw, vy - y + vh);
+        }
+    }
+
+    /**
+     * Ensure trackers can store the specified id.
+     * 
+     * @param id The entity id.
+     */
+    private void ensureCapacity(int id)
+    {
+        if (id >= trackers.length)
+        {
+            trackers = Arrays.copyOf(trackers, Math.max(id + 1, trackers.length * 2));
+        }
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityModel.class))
+        {
+            final EntityType type = types.get(featurable.getMedia());
+            final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+            final int owner = owners.get(id);
+            ensureCapacity(id);
+            final Tracker tracker = trackers[id];
+            if (tracker != null && (tracker.featurable != featurable || tracker.owner != owner))
+            {
+                tracker.detach();
+                trackers[id] = null;
+            }
+            if (owner != Players.NEUTRAL && type.getFov() > 0)
+            {
+                if (trackers[id] == null)
+                {
+                    trackers[id] = new Tracker(featurable, owner, getStamp(type.getFov()));
+                }
+                trackers[id].stamp();
+            }
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityModel.class))
+        {
+            final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+            if (id < trackers.length && trackers[id] != null && trackers[id].featurable == featurable)
+            {
+                trackers[id].unstamp();
+            }
+        }
+    }
+
+    /**
+     * Entity field of view tracker.
+     */
+    private final class Tracker implements TransformableListener
+    {
+        private final Featurable featurable;
+        private final Pathfindable pathfindable;
+        private final int owner;
+        private final int[] stamp;
+
+        private int[] grid;
+        private boolean stamped;
+        private int tx;
+        private int ty;
+
+        /**
+         * Create tracker and listen to entity.
+         * 
+         * @param featurable The entity reference.
+         * @param owner The owner player id.
+         * @param stamp The field of view stamp.
+         */
+        Tracker(Featurable featurable, int owner, int[] stamp)
+        {
+            super();
+
+            this.featurable = featurable;
+            this.owner = owner;
+            this.stamp = stamp;
+            pathfindable = featurable.getFeature(Pathfindable.class);
+            featurable.getFeature(Transformable.class).addListener(this);
+        }
+
+        /**
+         * Stamp field of view at current center.
+         */
+        void stamp()
+        {
+            grid = getGrid(owner);
+            tx = getCenterX();
+            ty = getCenterY();
+            add(grid, stamp, tx, ty);
+            stamped = true;
+        }
+
+        /**
+         * Remove stamped field of view.
+         */
+        void unstamp()
+        {
+            if (stamped)
+            {
+                remove(grid, stamp, tx, ty);
+                stamped = false;
+            }
+        }
+
+        /**
+         * Remove stamped field of view and stop listening to entity.
+         */
+        void detach()
+        {
+            unstamp();
+            featurable.getFeature(Transformable.class).removeListener(this);
+        }
+
+        /**
+         * Get horizontal center tile.
+         * 
+         * @return The horizontal center tile.
+         */
+        private int getCenterX()
+        {
+            return pathfindable.getInTileX() + pathfindable.getInTileWidth() / 2;
+        }
+
+        /**
+         * Get vertical center tile.
+         * 
+         * @return The vertical center tile.
+         */
+        private int getCenterY()
+        {
+            return pathfindable.getInTileY() + pathfindable.getInTileHeight() / 2;
+        }
+
+        @Override
+        public void notifyTransformed(Transformable transformable)
+        {
+            if (stamped && (tx != getCenterX() || ty != getCenterY()))
+            {
+                unstamp();
+                stamp();
+            }
+        }
+    }
+}
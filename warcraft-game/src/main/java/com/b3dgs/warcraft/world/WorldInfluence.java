@@ -0,0 +1,463 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.TransformableListener;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityType;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.object.Owners;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.feature.EntityStatsListener;
+
+/**
+ * Influence maps, with a coarse grid per player where each cell covers {@link #CELL_SIZE} tiles on each side.
+ * <p>
+ * Each armed entity adds its strength (maximum damages multiplied by current life) to the source grid of its player,
+ * and only moves it when its center crosses a cell boundary or when its life changes. Every {@link #DEFAULT_PERIOD}
+ * ticks, a single pass decays previous influence and propagates it to neighbor cells, keeping source as a minimum.
+ * </p>
+ * <p>
+ * Influence and threat of a cell are then read in constant time, threat being the sum of other players influence.
+ * </p>
+ */
+public class WorldInfluence implements Updatable, HandlerListener
+{
+    /** Cell size in tile. */
+    public static final int CELL_SIZE = 4;
+    /** Default ticks between two propagation passes. */
+    public static final int DEFAULT_PERIOD = 10;
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int DECAY_NUMERATOR = 3;
+    private static final int DECAY_DENOMINATOR = 4;
+    private static final int SPREAD_DIVISOR = 2;
+
+    private final Layer[] layers = new Layer[Players.MAX];
+    private final MapTile map;
+    private final EntityTypes types;
+    private final Owners owners;
+
+    private int period = DEFAULT_PERIOD;
+    private int tick;
+    private int width;
+    private int height;
+    private int[] total = new int[0];
+
+    private Tracker[] trackers = new Tracker[INITIAL_CAPACITY];
+
+    /**
+     * Create influence maps.
+     * 
+     * @param services The services reference.
+     */
+    public WorldInfluence(Services services)
+    {
+        super();
+
+        map = services.get(MapTile.class);
+        types = services.get(EntityTypes.class);
+        owners = services.get(Owners.class);
+        services.get(Handler.class).addListener(this);
+    }
+
+    /**
+     * Allocate grids. Must be called once map has been loaded.
+     */
+    public void load()
+    {
+        width = (map.getInTileWidth() + CELL_SIZE - 1) / CELL_SIZE;
+        height = (map.getInTileHeight() + CELL_SIZE - 1) / CELL_SIZE;
+
+        final int size = width * height;
+        for (final Layer layer : layers)
+        {
+            if (layer != null)
+            {
+                layer.allocate(size);
+            }
+        }
+        for (final Tracker tracker : trackers)
+        {
+            if (tracker != null)
+            {
+                tracker.added = false;
+            }
+        }
+        total = new int[size];
+        tick = 0;
+    }
+
+    /**
+     * Set ticks between two propagation passes.
+     * 
+     * @param period The ticks number (strictly positive).
+     */
+    public void setPeriod(int period)
+    {
+        this.period = Math.max(1, period);
+    }
+
+    /**
+     * Get player influence at location.
+     * 
+     * @param player The player id.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The player influence, <code>0</code> if none or outside map.
+     */
+    public int getInfluence(int player, int tx, int ty)
+    {
+        final Layer layer = layers[player];
+        final int cell = getCell(tx, ty);
+        if (layer == null || cell < 0)
+        {
+            return 0;
+        }
+        return layer.influence[cell];
+    }
+
+    /**
+     * Get threat against player at location, as the influence of all other players.
+     * 
+     * @param player The player id.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The threat, <code>0</code> if none or outside map.
+     */
+    public int getThreat(int player, int tx, int ty)
+    {
+        final int cell = getCell(tx, ty);
+        if (cell < 0)
+        {
+            return 0;
+        }
+        final Layer layer = layers[player];
+        if (layer == null)
+        {
+            return total[cell];
+        }
+        return total[cell] - layer.influence[cell];
+    }
+
+    /**
+     * Check if player is not outnumbered at location.
+     * 
+     * @param player The player id.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if threat does not exceed player influence, <code>false</code> else.
+     */
+    public boolean isSafe(int player, int tx, int ty)
+    {
+        return getThreat(player, tx, ty) <= getInfluence(player, tx, ty);
+    }
+
+    /**
+     * Get cell index of tile.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The cell index, <code>-1</code> if outside map.
+     */
+    private int getCell(int tx, int ty)
+    {
+        final int cx = Math.floorDiv(tx, CELL_SIZE);
+        final int cy = Math.floorDiv(ty, CELL_SIZE);
+        if (cx < 0 || cy < 0 || cx >= width || cy >= height)
+        {
+            return -1;
+        }
+        return cy * width + cx;
+    }
+
+    /**
+     * Get player layer, created on first use.
+     * 
+     * @param player The player id.
+     * @return The player layer.
+     */
+    private Layer getLayer(int player)
+    {
+        Layer layer = layers[player];
+        if (layer == null)
+        {
+            layer = new Layer();
+            layer.allocate(width * height);
+            layers[player] = layer;
+        }
+        return layer;
+    }
+
+    /**
+     * Decay and propagate layer influence from its source.
+     * 
+     * @param layer The layer to propagate.
+     */
+    private void propagate(Layer layer)
+    {
+        final int[] previous = layer.influence;
+        final int[] next = layer.buffer;
+        for (int cy = 0; cy < height; cy++)
+        {
+            for (int cx = 0; cx < width; cx++)
+            {
+                final int cell = cy * width + cx;
+                int neighbor = 0;
+                if (cx > 0)
+                {
+                    neighbor = Math.max(neighbor, previous[cell - 1]);
+                }
+                if (cx < width - 1)
+                {
+                    neighbor = Math.max(neighbor, previous[cell + 1]);
+                }
+                if (cy > 0)
+                {
+                    neighbor = Math.max(neighbor, previous[cell - width]);
+                }
+                if (cy < height - 1)
+                {
+                    neighbor = Math.max(neighbor, previous[cell + width]);
+                }
+                final int decayed = previous[cell] * DECAY_NUMERATOR / DECAY_DENOMINATOR;
+                next[cell] = Math.max(layer.source[cell], Math.max(decayed, neighbor / SPREAD_DIVISOR));
+                total[cell] += next[cell];
+            }
+        }
+        layer.buffer = previous;
+        layer.influence = next;
+    }
+
+    /**
+     * Ensure trackers can store the specified id.
+     * 
+     * @param id The entity id.
+     */
+    private void ensureCapacity(int id)
+    {
+        if (id >= trackers.length)
+        {
+            trackers = Arrays.copyOf(trackers, Math.max(id + 1, trackers.length * 2));
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        tick++;
+        if (tick >= period)
+        {
+            tick = 0;
+            Arrays.fill(total, 0);
+            for (final Layer layer : layers)
+            {
+                if (layer != null)
+                {
+                    propagate(layer);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityModel.class))
+        {
+            final EntityType type = types.get(featurable.getMedia());
+            final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+            final int owner = owners.get(id);
+            ensureCapacity(id);
+            final Tracker tracker = trackers[id];
+            if (tracker != null && (tracker.featurable != featurable || tracker.layer != layers[owner]))
+            {
+                tracker.detach();
+                trackers[id] = null;
+            }
+            if (owner != Players.NEUTRAL && type.getDamages() > 0)
+            {
+                if (trackers[id] == null)
+                {
+                    trackers[id] = new Tracker(featurable, getLayer(owner), type.getDamages());
+                }
+                trackers[id].add();
+            }
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityModel.class))
+        {
+            final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+            if (id < trackers.length && trackers[id] != null && trackers[id].featurable == featurable)
+            {
+                trackers[id].remove();
+            }
+        }
+    }
+
+    /**
+     * Player influence grids.
+     */
+    private static final class Layer
+    {
+        private int[] source;
+        private int[] influence;
+        private int[] buffer;
+
+        /**
+         * Create layer.
+         */
+        Layer()
+        {
+            super();
+        }
+
+        /**
+         * Allocate empty grids.
+         * 
+         * @param size The cells number.
+         */
+        void allocate(int size)
+        {
+            source = new int[size];
+            influence = new int[size];
+            buffer = new int[size];
+        }
+    }
+
+    /**
+     * Entity strength tracker.
+     */
+    private final class Tracker implements TransformableListener, EntityStatsListener
+    {
+        private final Featurable featurable;
+        private final Pathfindable pathfindable;
+        private final EntityStats stats;
+        private final Layer layer;
+        private final int damages;
+
+        private boolean added;
+        private int cell;
+        private int strength;
+
+        /**
+         * Create tracker and listen to entity.
+         * 
+         * @param featurable The entity reference.
+         * @param layer The player layer.
+         * @param damages The entity maximum damages.
+         */
+        Tracker(Featurable featurable, Layer layer, int damages)
+        {
+            super();
+
+            this.featurable = featurable;
+            this.layer = layer;
+            this.damages = damages;
+            pathfindable = featurable.getFeature(Pathfindable.class);
+            stats = featurable.getFeature(EntityStats.class);
+            featurable.getFeature(Transformable.class).addListener(this);
+            stats.addListener(this);
+        }
+
+        /**
+         * Add strength at current cell.
+         */
+        void add()
+        {
+            cell = getCenterCell();
+            strength = damages * Math.max(0, stats.getLife());
+            if (cell > -1)
+            {
+                layer.source[cell] += strength;
+            }
+            added = true;
+        }
+
+        /**
+         * Remove added strength.
+         */
+        void remove()
+        {
+            if (added)
+            {
+                if (cell > -1)
+                {
+                    layer.source[cell] -= strength;
+                }
+                added = false;
+            }
+        }
+
+        /**
+         * Remove added strength and stop listening to entity.
+         */
+        void detach()
+        {
+            remove();
+            featurable.getFeature(Transformable.class).removeListener(this);
+            stats.removeListener(this);
+        }
+
+        /**
+         * Get cell of entity center.
+         * 
+         * @return The cell index, <code>-1</code> if outside map.
+         */
+        private int getCenterCell()
+        {
+            return getCell(pathfindable.getInTileX() + pathfindable.getInTileWidth() / 2,
+                           pathfindable.getInTileY() + pathfindable.getInTileHeight() / 2);
+        }
+
+        @Override
+        public void notifyTransformed(Transformable transformable)
+        {
+            if (added && cell != getCenterCell())
+            {
+                remove();
+                add();
+            }
+        }
+
+        @Override
+        public void notifyLifeChanged(int life)
+        {
+            if (added)
+            {
+                remove();
+                add();
+            }
+        }
+    }
+}
@@ -35,6 +35,8 @@ import com.b3dgs.lionengine.game.feature.tile.map.persister.MapTilePersisterMode
 import com.b3dgs.lionengine.game.feature.tile.map.viewer.MapTileViewerModel;
 import com.b3dgs.lionengine.io.FileReading;
 import com.b3dgs.lionengine.io.FileWriting;
+import com.b3dgs.warcraft.profiler.Tracer;
+import com.b3dgs.warcraft.profiler.Tracing;
 
 /**
  * Handle world map data.
@@ -73,10 +75,18 @@ public class WorldMap implements Persistable
     @Override
     public void load(FileReading file) throws IOException
     {
+        final Tracer tracer = Tracing.get();
+        tracer.beginLoad("tiles");
         mapPersister.load(file);
+        tracer.endLoad();
 
         final String parent = map.getMedia().getParentPath();
+        tracer.beginLoad("groups");
         mapGroup.loadGroups(Medias.create(parent, TileGroupsConfig.FILENAME));
+        tracer.endLoad();
+
+        tracer.beginLoad("pathfinding");
         mapPath.loadPathfinding(Medias.create(parent, PathfindingConfig.FILENAME));
+        tracer.endLoad();
     }
 }
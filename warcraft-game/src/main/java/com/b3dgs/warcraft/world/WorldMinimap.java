@@ -19,6 +19,7 @@ package com.b3dgs.warcraft.world;
 import com.b3dgs.lionengine.Resource;
 import com.b3dgs.lionengine.game.feature.Camera;
 import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.Minimap;
@@ -27,15 +28,29 @@ import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.Renderable;
 import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.object.Owners;
 
 /**
  * Handle world minimap data.
  */
 public class WorldMinimap implements Resource, Renderable
 {
+    private static final ColorRgba[] COLORS =
+    {
+        ColorRgba.YELLOW,
+        ColorRgba.GREEN,
+        ColorRgba.RED,
+        ColorRgba.BLUE,
+        new ColorRgba(0, 200, 200),
+        new ColorRgba(200, 0, 200),
+        new ColorRgba(240, 140, 0),
+        ColorRgba.WHITE
+    };
+
     private final Camera camera;
     private final MapTile map;
     private final Handler handler;
+    private final Owners owners;
     private final Minimap minimap;
 
     /**
@@ -50,12 +65,13 @@ public class WorldMinimap implements Resource, Renderable
         camera = services.get(Camera.class);
         map = services.get(MapTile.class);
         handler = services.get(Handler.class);
+        owners = services.get(Owners.class);
 
         minimap = new Minimap(map);
     }
 
     /**
-     * Draw field of view.
+     * Draw field of view and entities, colored by owner.
      * 
      * @param g The graphic output.
      */
@@ -66,6 +82,8 @@ public class WorldMinimap implements Resource, Renderable
 
         for (final Pathfindable entity : handler.get(Pathfindable.class))
         {
+            final int owner = owners.get(entity.getFeature(Identifiable.class).getId().intValue());
+            g.setColor(COLORS[owner]);
             g.drawRect(Constant.MINIMAP_X + entity.getInTileX(),
                        Constant.MINIMAP_Y - entity.getInTileY() - entity.getInTileHeight() + map.getInTileHeight(),
                        entity.getInTileWidth(),
@@ -22,6 +22,7 @@ import com.b3dgs.lionengine.Updatable;
 import com.b3dgs.lionengine.UtilMath;
 import com.b3dgs.lionengine.game.Cursor;
 import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selector;
@@ -29,6 +30,7 @@ import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.io.InputDeviceDirectional;
 import com.b3dgs.lionengine.io.InputDevicePointer;
 import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.object.Owners;
 import com.b3dgs.warcraft.object.feature.RightClickHandler;
 
 /**
@@ -40,6 +42,7 @@ public class WorldNavigator implements Updatable
     private final Cursor cursor;
     private final MapTile map;
     private final Selector selector;
+    private final Owners owners;
     private final InputDevicePointer pointer;
     private final InputDeviceDirectional directional;
 
@@ -56,6 +59,7 @@ public class WorldNavigator implements Updatable
         cursor = services.get(Cursor.class);
         map = services.get(MapTile.class);
         selector = services.get(Selector.class);
+        owners = services.get(Owners.class);
         pointer = services.get(InputDevicePointer.class);
         directional = services.get(InputDeviceDirectional.class);
     }
@@ -168,7 +172,7 @@ public class WorldNavigator implements Updatable
     }
 
     /**
-     * Check right click shortcut action.
+     * Check right click shortcut action, only for local player entities.
      */
     private void checkRightClick()
     {
@@ -177,7 +181,8 @@ public class WorldNavigator implements Updatable
         for (int i = 0; i < n; i++)
         {
             final Selectable selectable = selection.get(i);
-            if (selectable.hasFeature(RightClickHandler.class))
+            if (selectable.hasFeature(RightClickHandler.class)
+                && owners.isLocal(selectable.getFeature(Identifiable.class).getId().intValue()))
             {
                 selectable.getFeature(RightClickHandler.class).execute();
             }
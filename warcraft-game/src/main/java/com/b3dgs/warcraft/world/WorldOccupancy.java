@@ -0,0 +1,426 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.TransformableListener;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+
+/**
+ * Tile to objects occupancy, stored in flat primitive arrays.
+ * <p>
+ * Each tile references the first slot of a linked list stored in a shared slot pool, so multiple objects per tile do
+ * not need any allocation. Iteration is performed with slot cursors:
+ * </p>
+ * 
+ * <pre>
+ * for (int slot = occupancy.first(tx, ty); slot != WorldOccupancy.NONE; slot = occupancy.next(slot))
+ * {
+ *     final Featurable featurable = occupancy.getFeaturable(slot);
+ * }
+ * </pre>
+ * <p>
+ * Objects are indexed on their {@link Pathfindable} footprint, updated only when it changes.
+ * </p>
+ */
+public class WorldOccupancy implements HandlerListener
+{
+    /** No slot. */
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final MapTile map;
+
+    private int width;
+    private int height;
+    private int[] heads = new int[0];
+
+    private int[] slotIds = new int[INITIAL_CAPACITY];
+    private int[] slotNext = new int[INITIAL_CAPACITY];
+    private int slotsFree = NONE;
+    private int slotsUsed;
+
+    private Featurable[] featurables = new Featurable[INITIAL_CAPACITY];
+    private Tracker[] trackers = new Tracker[INITIAL_CAPACITY];
+
+    /**
+     * Create occupancy.
+     * 
+     * @param services The services reference.
+     */
+    public WorldOccupancy(Services services)
+    {
+        super();
+
+        map = services.get(MapTile.class);
+        services.get(Handler.class).addListener(this);
+    }
+
+    /**
+     * Allocate grid. Must be called once map has been loaded.
+     */
+    public void load()
+    {
+        width = map.getInTileWidth();
+        height = map.getInTileHeight();
+        heads = new int[width * height];
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * Get first slot at location.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The first slot, {@link #NONE} if empty or outside map.
+     */
+    public int first(int tx, int ty)
+    {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height)
+        {
+            return NONE;
+        }
+        return heads[ty * width + tx];
+    }
+
+    /**
+     * Get next slot on same tile.
+     * 
+     * @param slot The current slot.
+     * @return The next slot, {@link #NONE} if last.
+     */
+    public int next(int slot)
+    {
+        return slotNext[slot];
+    }
+
+    /**
+     * Get object id at slot.
+     * 
+     * @param slot The slot.
+     * @return The object id.
+     */
+    public int getId(int slot)
+    {
+        return slotIds[slot];
+    }
+
+    /**
+     * Get object at slot.
+     * 
+     * @param slot The slot.
+     * @return The object reference.
+     */
+    public Featurable getFeaturable(int slot)
+    {
+        return featurables[slotIds[slot]];
+    }
+
+    /**
+     * Get object from its id, without boxing.
+     * 
+     * @param id The object id.
+     * @return The object reference, <code>null</code> if not indexed.
+     */
+    public Featurable get(int id)
+    {
+        if (id < 0 || id >= featurables.length)
+        {
+            return null;
+        }
+        return featurables[id];
+    }
+
+    /**
+     * Check if tile is occupied.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if at least one object, <code>false</code> else.
+     */
+    public boolean isOccupied(int tx, int ty)
+    {
+        return first(tx, ty) != NONE;
+    }
+
+    /**
+     * Remove object from index while it stays handled, such as a corpse. It is indexed again when added back.
+     * 
+     * @param featurable The object to remove.
+     */
+    public void unindex(Featurable featurable)
+    {
+        final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+        if (id < featurables.length && featurables[id] == featurable)
+        {
+            trackers[id].unindex();
+        }
+    }
+
+    /**
+     * Add id to area.
+     * 
+     * @param id The object id.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @param tw The width in tile.
+     * @param th The height in tile.
+     */
+    private void add(int id, int tx, int ty, int tw, int th)
+    {
+        final int maxX = Math.min(width, tx + tw);
+        final int maxY = Math.min(height, ty + th);
+        for (int y = Math.max(0, ty); y < maxY; y++)
+        {
+            for (int x = Math.max(0, tx); x < maxX; x++)
+            {
+                final int index = y * width + x;
+                final int slot = allocate(id);
+                slotNext[slot] = heads[index];
+                heads[index] = slot;
+            }
+        }
+    }
+
+    /**
+     * Remove id from area.
+     * 
+     * @param id The object id.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @param tw The width in tile.
+     * @param th The height in tile.
+     */
+    private void remove(int id, int tx, int ty, int tw, int th)
+    {
+        final int maxX = Math.min(width, tx + tw);
+        final int maxY = Math.min(height, ty + th);
+        for (int y = Math.max(0, ty); y < maxY; y++)
+        {
+            for (int x = Math.max(0, tx); x < maxX; x++)
+            {
+                remove(id, y * width + x);
+            }
+        }
+    }
+
+    /**
+     * Remove id from tile.
+     * 
+     * @param id The object id.
+     * @param index The tile index.
+     */
+    private void remove(int id, int index)
+    {
+        int previous = NONE;
+        int slot = heads[index];
+        while (slot != NONE)
+        {
+            final int next = slotNext[slot];
+            if (slotIds[slot] == id)
+            {
+                if (previous == NONE)
+                {
+                    heads[index] = next;
+                }
+                else
+                {
+                    slotNext[previous] = next;
+                }
+                release(slot);
+                return;
+            }
+            previous = slot;
+            slot = next;
+        }
+    }
+
+    /**
+     * Allocate a slot from pool.
+     * 
+     * @param id The object id.
+     * @return The allocated slot.
+     */
+    private int allocate(int id)
+    {
+        final int slot;
+        if (slotsFree != NONE)
+        {
+            slot = slotsFree;
+            slotsFree = slotNext[slot];
+        }
+        else
+        {
+            if (slotsUsed == slotIds.length)
+            {
+                slotIds = Arrays.copyOf(slotIds, slotsUsed * 2);
+                slotNext = Arrays.copyOf(slotNext, slotsUsed * 2);
+            }
+            slot = slotsUsed;
+            slotsUsed++;
+        }
+        slotIds[slot] = id;
+        return slot;
+    }
+
+    /**
+     * Release slot to pool.
+     * 
+     * @param slot The slot to release.
+     */
+    private void release(int slot)
+    {
+        slotNext[slot] = slotsFree;
+        slotsFree = slot;
+    }
+
+    /**
+     * Ensure arrays can store the specified id.
+     * 
+     * @param id The object id.
+     */
+    private void ensureCapacity(int id)
+    {
+        if (id >= featurables.length)
+        {
+            final int capacity = Math.max(id + 1, featurables.length * 2);
+            featurables = Arrays.copyOf(featurables, capacity);
+            trackers = Arrays.copyOf(trackers, capacity);
+        }
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(Pathfindable.class))
+        {
+            final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+            ensureCapacity(id);
+            featurables[id] = featurable;
+            if (trackers[id] != null && trackers[id].featurable != featurable)
+            {
+                trackers[id].detach();
+                trackers[id] = null;
+            }
+            if (trackers[id] == null)
+            {
+                trackers[id] = new Tracker(id, featurable);
+            }
+            trackers[id].index();
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+        if (id < featurables.length && featurables[id] == featurable)
+        {
+            trackers[id].unindex();
+            featurables[id] = null;
+        }
+    }
+
+    /**
+     * Object footprint tracker.
+     */
+    private final class Tracker implements TransformableListener
+    {
+        private final int id;
+        private final Featurable featurable;
+        private final Pathfindable pathfindable;
+
+        private boolean indexed;
+        private int tx;
+        private int ty;
+        private int tw;
+        private int th;
+
+        /**
+         * Create tracker and listen to object.
+         * 
+         * @param id The object id.
+         * @param featurable The object reference.
+         */
+        Tracker(int id, Featurable featurable)
+        {
+            super();
+
+            this.id = id;
+            this.featurable = featurable;
+            pathfindable = featurable.getFeature(Pathfindable.class);
+            featurable.getFeature(Transformable.class).addListener(this);
+        }
+
+        /**
+         * Index current footprint.
+         */
+        void index()
+        {
+            tx = pathfindable.getInTileX();
+            ty = pathfindable.getInTileY();
+            tw = pathfindable.getInTileWidth();
+            th = pathfindable.getInTileHeight();
+            add(id, tx, ty, tw, th);
+            indexed = true;
+        }
+
+        /**
+         * Remove indexed footprint.
+         */
+        void unindex()
+        {
+            if (indexed)
+            {
+                remove(id, tx, ty, tw, th);
+                indexed = false;
+            }
+        }
+
+        /**
+         * Remove indexed footprint and stop listening to object.
+         */
+        void detach()
+        {
+            unindex();
+            featurable.getFeature(Transformable.class).removeListener(this);
+        }
+
+        @Override
+        public void notifyTransformed(Transformable transformable)
+        {
+            if (indexed
+                && (tx != pathfindable.getInTileX()
+                    || ty != pathfindable.getInTileY()
+                    || tw != pathfindable.getInTileWidth()
+                    || th != pathfindable.getInTileHeight()))
+            {
+                unindex();
+                index();
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.object.EntityModel;
+
+/**
+ * Stable entity references, assigned in handler add order and never recycled.
+ * <p>
+ * Engine ids are shared by all worlds of the process and recycled once released, so they can not designate an entity
+ * between peers. References only depend on the simulation history, so the same entity has the same reference on each
+ * peer, and an order referencing a dead entity can not reach the entity reusing its id.
+ * </p>
+ */
+public class WorldReferences implements HandlerListener
+{
+    /** No reference. */
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Map<Integer, Featurable> handled = new HashMap<>();
+    private int[] references = new int[INITIAL_CAPACITY];
+    private Featurable[] featurables = new Featurable[INITIAL_CAPACITY];
+    private int next;
+
+    /**
+     * Create references.
+     * 
+     * @param services The services reference.
+     */
+    public WorldReferences(Services services)
+    {
+        super();
+
+        Arrays.fill(references, NONE);
+        services.get(Handler.class).addListener(this);
+    }
+
+    /**
+     * Get entity reference.
+     * 
+     * @param featurable The entity.
+     * @return The entity reference, {@link #NONE} if not handled.
+     */
+    public int get(Featurable featurable)
+    {
+        final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+        if (id >= references.length || featurables[id] != featurable)
+        {
+            return NONE;
+        }
+        return references[id];
+    }
+
+    /**
+     * Get entity from its reference.
+     * 
+     * @param reference The entity reference.
+     * @return The entity, <code>null</code> if not handled anymore.
+     */
+    public Featurable getFeaturable(int reference)
+    {
+        return handled.get(Integer.valueOf(reference));
+    }
+
+    /**
+     * Ensure arrays can store the specified id.
+     * 
+     * @param id The entity id.
+     */
+    private void ensureCapacity(int id)
+    {
+        if (id >= references.length)
+        {
+            final int old = references.length;
+            final int capacity = Math.max(id + 1, old * 2);
+            references = Arrays.copyOf(references, capacity);
+            featurables = Arrays.copyOf(featurables, capacity);
+            Arrays.fill(references, old, capacity, NONE);
+        }
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityModel.class))
+        {
+            final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+            ensureCapacity(id);
+            featurables[id] = featurable;
+            references[id] = next;
+            handled.put(Integer.valueOf(next), featurable);
+            next++;
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        final int id = featurable.getFeature(Identifiable.class).getId().intValue();
+        if (id < references.length && featurables[id] == featurable)
+        {
+            handled.remove(Integer.valueOf(references[id]));
+            featurables[id] = null;
+            references[id] = NONE;
+        }
+    }
+}
@@ -0,0 +1,888 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.Persistable;
+import com.b3dgs.lionengine.game.Tiled;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.producible.Producer;
+import com.b3dgs.lionengine.game.feature.state.State;
+import com.b3dgs.lionengine.game.feature.state.StateHandler;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractable;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.io.FileReading;
+import com.b3dgs.lionengine.io.FileWriting;
+import com.b3dgs.warcraft.Ledger;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.Resources;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.EntityPool;
+import com.b3dgs.warcraft.object.EntityTypes;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.feature.Production;
+import com.b3dgs.warcraft.object.state.StateDead;
+import com.b3dgs.warcraft.object.state.StateDie;
+
+/**
+ * Savegame snapshot of entities and players resources.
+ * <p>
+ * Capture copies simulation data into primitive arrays, so encoding can then be performed on any thread. Entity types,
+ * carried resource types and states are written once in tables and referenced by index.
+ * </p>
+ */
+public class WorldSnapshot implements Persistable
+{
+    /** Snapshot format version. */
+    public static final int VERSION = 3;
+
+    private static final int MAGIC = 0x57435356;
+    private static final int MAGIC_DELTA = 0x57434454;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final String ERROR_MAGIC = "Invalid snapshot format !";
+    private static final String ERROR_VERSION = "Unsupported snapshot version: ";
+    private static final String ERROR_STATE = "Unknown snapshot state: ";
+
+    /**
+     * Save an empty snapshot, meaning a new game.
+     * 
+     * @param file The file writing.
+     * @throws IOException If error.
+     */
+    public static void saveEmpty(FileWriting file) throws IOException
+    {
+        file.writeInteger(0);
+    }
+
+    /**
+     * Get table index, adding value if missing.
+     * 
+     * @param table The table values.
+     * @param indexes The table indexes.
+     * @param value The value to index.
+     * @return The value index.
+     */
+    private static int index(List<String> table, Map<String, Integer> indexes, String value)
+    {
+        final Integer index = indexes.get(value);
+        if (index != null)
+        {
+            return index.intValue();
+        }
+        final int added = table.size();
+        table.add(value);
+        indexes.put(value, Integer.valueOf(added));
+        return added;
+    }
+
+    /**
+     * Write table.
+     * 
+     * @param output The output data.
+     * @param table The table to write.
+     * @throws IOException If error.
+     */
+    private static void writeTable(DataOutput output, List<String> table) throws IOException
+    {
+        final int n = table.size();
+        output.writeShort(n);
+        for (int i = 0; i < n; i++)
+        {
+            output.writeUTF(table.get(i));
+        }
+    }
+
+    /**
+     * Read table.
+     * 
+     * @param input The input data.
+     * @param table The table to fill.
+     * @param indexes The table indexes to fill.
+     * @throws IOException If error.
+     */
+    private static void readTable(DataInput input, List<String> table, Map<String, Integer> indexes)
+            throws IOException
+    {
+        final int n = input.readShort();
+        for (int i = 0; i < n; i++)
+        {
+            index(table, indexes, input.readUTF());
+        }
+    }
+
+    private final List<String> types = new ArrayList<>();
+    private final Map<String, Integer> typesIndex = new HashMap<>();
+    private final List<String> states = new ArrayList<>();
+    private final Map<String, Integer> statesIndex = new HashMap<>();
+
+    private final Handler handler;
+    private final EntityPool pool;
+    private final EntityTypes registry;
+    private final Players players;
+
+    private int count;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] type = new int[INITIAL_CAPACITY];
+    private int[] tx = new int[INITIAL_CAPACITY];
+    private int[] ty = new int[INITIAL_CAPACITY];
+    private int[] life = new int[INITIAL_CAPACITY];
+    private int[] state = new int[INITIAL_CAPACITY];
+    private int[] owner = new int[INITIAL_CAPACITY];
+    private int[] cargoType = new int[INITIAL_CAPACITY];
+    private int[] cargo = new int[INITIAL_CAPACITY];
+    private int[] resourceX = new int[INITIAL_CAPACITY];
+    private int[] resourceY = new int[INITIAL_CAPACITY];
+    private int[] stock = new int[INITIAL_CAPACITY];
+    private int[][] queue = new int[INITIAL_CAPACITY][];
+
+    private final String[] races = new String[Players.MAX];
+    private final int[] wood = new int[Players.MAX];
+    private final int[] gold = new int[Players.MAX];
+    private final int[] foodAvailable = new int[Players.MAX];
+    private final int[] foodConsumed = new int[Players.MAX];
+    private int playersCount;
+
+    /**
+     * Create snapshot.
+     * 
+     * @param services The services reference.
+     */
+    public WorldSnapshot(Services services)
+    {
+        super();
+
+        handler = services.get(Handler.class);
+        pool = services.get(EntityPool.class);
+        registry = services.get(EntityTypes.class);
+        players = services.get(Players.class);
+    }
+
+    /**
+     * Capture current simulation data. Must be called from game thread.
+     */
+    public void capture()
+    {
+        clear();
+        for (final Featurable featurable : handler.values())
+        {
+            if (featurable.hasFeature(EntityStats.class))
+            {
+                capture(featurable);
+            }
+        }
+        playersCount = players.getCount();
+        for (int player = 0; player < playersCount; player++)
+        {
+            final Resources resources = players.get(player);
+            races[player] = players.getRace(player);
+            // Pending reservations are saved as spent, as restored production queues are not reserved again
+            wood[player] = resources.getLedger().getAvailable(Ledger.WOOD);
+            gold[player] = resources.getLedger().getAvailable(Ledger.GOLD);
+            foodAvailable[player] = resources.getAvailableFood();
+            foodConsumed[player] = resources.getConsumedFood();
+        }
+    }
+
+    /**
+     * Restore captured simulation data by spawning entities. Must be called from game thread, on an empty world.
+     */
+    public void restore()
+    {
+        for (int player = players.getCount(); player < playersCount; player++)
+        {
+            players.add(races[player]);
+        }
+        for (int player = 0; player < playersCount; player++)
+        {
+            players.get(player).set(wood[player], gold[player], foodAvailable[player], foodConsumed[player]);
+        }
+
+        final Featurable[] spawned = new Featurable[count];
+        for (int i = 0; i < count; i++)
+        {
+            final Featurable featurable = create(type[i]);
+            featurable.getFeature(EntityModel.class).setOwner(owner[i]);
+            featurable.getFeature(Pathfindable.class).setLocation(tx[i], ty[i]);
+            featurable.getFeature(EntityStats.class).setLife(life[i]);
+            spawned[i] = featurable;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            restoreOrders(spawned, i);
+            handler.add(spawned[i]);
+        }
+    }
+
+    /**
+     * Check if snapshot contains nothing to restore.
+     * 
+     * @return <code>true</code> if empty, <code>false</code> else.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Get number of captured entities.
+     * 
+     * @return The entities count.
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Encode snapshot.
+     * 
+     * @param output The output data.
+     * @throws IOException If error.
+     */
+    public void encode(DataOutput output) throws IOException
+    {
+        writeHeader(output, MAGIC);
+
+        output.writeInt(count);
+        for (int i = 0; i < count; i++)
+        {
+            encode(output, i);
+        }
+    }
+
+    /**
+     * Decode snapshot.
+     * 
+     * @param input The input data.
+     * @throws IOException If error.
+     */
+    public void decode(DataInput input) throws IOException
+    {
+        readHeader(input, MAGIC);
+
+        final int n = input.readInt();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++)
+        {
+            decode(input, i);
+        }
+        count = n;
+    }
+
+    /**
+     * Encode only entities that differ from a base snapshot, and the ones removed since.
+     * 
+     * @param output The output data.
+     * @param base The base snapshot.
+     * @throws IOException If error.
+     */
+    public void encodeDelta(DataOutput output, WorldSnapshot base) throws IOException
+    {
+        writeHeader(output, MAGIC_DELTA);
+
+        final Map<Integer, Integer> baseIndexes = base.getIndexes();
+        final Set<Integer> present = new HashSet<>();
+        final int[] changed = new int[count];
+        int changes = 0;
+        for (int i = 0; i < count; i++)
+        {
+            final Integer id = Integer.valueOf(ids[i]);
+            present.add(id);
+
+            final Integer j = baseIndexes.get(id);
+            if (j == null || !isSame(i, base, j.intValue()))
+            {
+                changed[changes] = i;
+                changes++;
+            }
+        }
+
+        output.writeInt(changes);
+        for (int i = 0; i < changes; i++)
+        {
+            encode(output, changed[i]);
+        }
+
+        final int[] removed = new int[base.count];
+        int removals = 0;
+        for (int j = 0; j < base.count; j++)
+        {
+            if (!present.contains(Integer.valueOf(base.ids[j])))
+            {
+                removed[removals] = base.ids[j];
+                removals++;
+            }
+        }
+        output.writeInt(removals);
+        for (int i = 0; i < removals; i++)
+        {
+            output.writeInt(removed[i]);
+        }
+    }
+
+    /**
+     * Decode a delta and merge it with its base snapshot.
+     * 
+     * @param input The input data.
+     * @param base The base snapshot the delta has been encoded with.
+     * @throws IOException If error.
+     */
+    public void decodeDelta(DataInput input, WorldSnapshot base) throws IOException
+    {
+        readHeader(input, MAGIC_DELTA);
+
+        final int changes = input.readInt();
+        ensureCapacity(changes);
+        final Set<Integer> skipped = new HashSet<>();
+        for (int i = 0; i < changes; i++)
+        {
+            decode(input, i);
+            skipped.add(Integer.valueOf(ids[i]));
+        }
+        count = changes;
+
+        final int removals = input.readInt();
+        for (int i = 0; i < removals; i++)
+        {
+            skipped.add(Integer.valueOf(input.readInt()));
+        }
+        for (int j = 0; j < base.count; j++)
+        {
+            if (!skipped.contains(Integer.valueOf(base.ids[j])))
+            {
+                copy(base, j);
+            }
+        }
+    }
+
+    /**
+     * Write header, resources and tables.
+     * 
+     * @param output The output data.
+     * @param magic The format magic.
+     * @throws IOException If error.
+     */
+    private void writeHeader(DataOutput output, int magic) throws IOException
+    {
+        output.writeInt(magic);
+        output.writeShort(VERSION);
+
+        output.writeByte(playersCount);
+        for (int player = 0; player < playersCount; player++)
+        {
+            output.writeUTF(races[player]);
+            output.writeInt(wood[player]);
+            output.writeInt(gold[player]);
+            output.writeShort(foodAvailable[player]);
+            output.writeShort(foodConsumed[player]);
+        }
+
+        writeTable(output, types);
+        writeTable(output, states);
+    }
+
+    /**
+     * Read header, resources and tables. Current data are cleared.
+     * 
+     * @param input The input data.
+     * @param magic The expected format magic.
+     * @throws IOException If error.
+     */
+    private void readHeader(DataInput input, int magic) throws IOException
+    {
+        if (input.readInt() != magic)
+        {
+            throw new IOException(ERROR_MAGIC);
+        }
+        final int version = input.readShort();
+        if (version != VERSION)
+        {
+            throw new IOException(ERROR_VERSION + version);
+        }
+        clear();
+
+        playersCount = input.readUnsignedByte();
+        for (int player = 0; player < playersCount; player++)
+        {
+            races[player] = input.readUTF();
+            wood[player] = input.readInt();
+            gold[player] = input.readInt();
+            foodAvailable[player] = input.readShort();
+            foodConsumed[player] = input.readShort();
+        }
+
+        readTable(input, types, typesIndex);
+        readTable(input, states, statesIndex);
+    }
+
+    /**
+     * Get entities index by id.
+     * 
+     * @return The entities index by id.
+     */
+    private Map<Integer, Integer> getIndexes()
+    {
+        final Map<Integer, Integer> indexes = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++)
+        {
+            indexes.put(Integer.valueOf(ids[i]), Integer.valueOf(i));
+        }
+        return indexes;
+    }
+
+    /**
+     * Check if entity data are the same in base snapshot.
+     * 
+     * @param i The entity index.
+     * @param base The base snapshot.
+     * @param j The base entity index.
+     * @return <code>true</code> if same data, <code>false</code> else.
+     */
+    private boolean isSame(int i, WorldSnapshot base, int j)
+    {
+        return tx[i] == base.tx[j]
+               && ty[i] == base.ty[j]
+               && life[i] == base.life[j]
+               && owner[i] == base.owner[j]
+               && cargo[i] == base.cargo[j]
+               && resourceX[i] == base.resourceX[j]
+               && resourceY[i] == base.resourceY[j]
+               && stock[i] == base.stock[j]
+               && types.get(type[i]).equals(base.types.get(base.type[j]))
+               && states.get(state[i]).equals(base.states.get(base.state[j]))
+               && isSameCargoType(i, base, j)
+               && isSameQueue(i, base, j);
+    }
+
+    /**
+     * Check if entity carried resource type is the same in base snapshot.
+     * 
+     * @param i The entity index.
+     * @param base The base snapshot.
+     * @param j The base entity index.
+     * @return <code>true</code> if same carried type, <code>false</code> else.
+     */
+    private boolean isSameCargoType(int i, WorldSnapshot base, int j)
+    {
+        if (cargoType[i] == NONE || base.cargoType[j] == NONE)
+        {
+            return cargoType[i] == base.cargoType[j];
+        }
+        return types.get(cargoType[i]).equals(base.types.get(base.cargoType[j]));
+    }
+
+    /**
+     * Check if entity production queue is the same in base snapshot.
+     * 
+     * @param i The entity index.
+     * @param base The base snapshot.
+     * @param j The base entity index.
+     * @return <code>true</code> if same queue, <code>false</code> else.
+     */
+    private boolean isSameQueue(int i, WorldSnapshot base, int j)
+    {
+        final int n = queue[i].length;
+        if (n != base.queue[j].length)
+        {
+            return false;
+        }
+        for (int k = 0; k < n; k++)
+        {
+            if (!types.get(queue[i][k]).equals(base.types.get(base.queue[j][k])))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy entity from another snapshot, remapping its tables indexes.
+     * 
+     * @param base The source snapshot.
+     * @param j The source entity index.
+     */
+    private void copy(WorldSnapshot base, int j)
+    {
+        ensureCapacity(count + 1);
+
+        final int i = count;
+        ids[i] = base.ids[j];
+        type[i] = index(types, typesIndex, base.types.get(base.type[j]));
+        tx[i] = base.tx[j];
+        ty[i] = base.ty[j];
+        life[i] = base.life[j];
+        state[i] = index(states, statesIndex, base.states.get(base.state[j]));
+        owner[i] = base.owner[j];
+        cargoType[i] = base.cargoType[j] != NONE ? index(types, typesIndex, base.types.get(base.cargoType[j])) : NONE;
+        cargo[i] = base.cargo[j];
+        resourceX[i] = base.resourceX[j];
+        resourceY[i] = base.resourceY[j];
+        stock[i] = base.stock[j];
+
+        final int n = base.queue[j].length;
+        queue[i] = new int[n];
+        for (int k = 0; k < n; k++)
+        {
+            queue[i][k] = index(types, typesIndex, base.types.get(base.queue[j][k]));
+        }
+        count++;
+    }
+
+    /**
+     * Capture entity data.
+     * 
+     * @param featurable The entity to capture.
+     */
+    private void capture(Featurable featurable)
+    {
+        ensureCapacity(count + 1);
+
+        final int i = count;
+        final Pathfindable pathfindable = featurable.getFeature(Pathfindable.class);
+        final EntityModel model = featurable.getFeature(EntityModel.class);
+
+        ids[i] = featurable.getFeature(Identifiable.class).getId().intValue();
+        type[i] = index(types, typesIndex, featurable.getMedia().getPath());
+        tx[i] = pathfindable.getInTileX();
+        ty[i] = pathfindable.getInTileY();
+        life[i] = featurable.getFeature(EntityStats.class).getLife();
+        state[i] = index(states, statesIndex, model.getState().getName());
+
+        owner[i] = model.getOwner();
+
+        final String carried = model.getCargoType();
+        cargoType[i] = carried != null ? index(types, typesIndex, carried) : NONE;
+        cargo[i] = model.getCargo();
+
+        final Extractor extractor = featurable.getFeature(Extractor.class);
+        final Tiled location = extractor.getResourceLocation();
+        if (location != null && extractor.getResourceType() != null)
+        {
+            resourceX[i] = location.getInTileX();
+            resourceY[i] = location.getInTileY();
+        }
+        else
+        {
+            resourceX[i] = NONE;
+            resourceY[i] = NONE;
+        }
+
+        if (featurable.hasFeature(Extractable.class))
+        {
+            stock[i] = featurable.getFeature(Extractable.class).getResourceQuantity();
+        }
+        else
+        {
+            stock[i] = NONE;
+        }
+        queue[i] = captureQueue(featurable.getFeature(Producer.class));
+
+        count++;
+    }
+
+    /**
+     * Capture production queue, current production first.
+     * 
+     * @param producer The producer reference.
+     * @return The queued types.
+     */
+    private int[] captureQueue(Producer producer)
+    {
+        final Featurable current = producer.getProducingElement();
+        final int length = producer.getQueueLength() + (current != null ? 1 : 0);
+        final int[] queued = new int[length];
+        int i = 0;
+        if (current != null)
+        {
+            queued[i] = index(types, typesIndex, current.getMedia().getPath());
+            i++;
+        }
+        for (final Featurable featurable : producer)
+        {
+            if (i < length)
+            {
+                queued[i] = index(types, typesIndex, featurable.getMedia().getPath());
+                i++;
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Restore entity orders once all entities have been created.
+     * 
+     * @param spawned The spawned entities.
+     * @param i The entity index.
+     */
+    private void restoreOrders(Featurable[] spawned, int i)
+    {
+        final Featurable featurable = spawned[i];
+        if (stock[i] != NONE)
+        {
+            final Extractable extractable = featurable.getFeature(Extractable.class);
+            extractable.extractResource(extractable.getResourceQuantity() - stock[i]);
+        }
+        if (resourceX[i] != NONE)
+        {
+            final Extractable extractable = findExtractable(spawned, resourceX[i], resourceY[i]);
+            if (extractable != null)
+            {
+                final Extractor extractor = featurable.getFeature(Extractor.class);
+                extractor.setResource(extractable);
+                featurable.getFeature(Pathfindable.class).setDestination(extractable);
+                extractor.startExtraction();
+            }
+        }
+
+        final Production production = featurable.getFeature(Production.class);
+        for (final int queued : queue[i])
+        {
+            final Featurable produced = create(queued);
+            produced.getFeature(EntityModel.class).setOwner(owner[i]);
+            production.queue(produced, null, Ledger.NONE);
+        }
+
+        final String current = states.get(state[i]);
+        if (cargoType[i] != NONE)
+        {
+            // Carry state is restored with cargo, as extractor only enters it when extraction completes
+            featurable.getFeature(EntityModel.class).setCargo(types.get(cargoType[i]), cargo[i]);
+            featurable.getFeature(StateHandler.class).changeState(getState(current));
+        }
+        else if (StateDie.class.getName().equals(current) || StateDead.class.getName().equals(current))
+        {
+            featurable.getFeature(StateHandler.class).changeState(getState(current));
+        }
+    }
+
+    /**
+     * Find restored extractable at location.
+     * 
+     * @param spawned The spawned entities.
+     * @param x The horizontal tile location.
+     * @param y The vertical tile location.
+     * @return The found extractable, <code>null</code> if none.
+     */
+    private Extractable findExtractable(Featurable[] spawned, int x, int y)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (stock[i] != NONE && tx[i] == x && ty[i] == y)
+            {
+                return spawned[i].getFeature(Extractable.class);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create entity from type index.
+     * 
+     * @param index The type index.
+     * @return The created entity.
+     */
+    private Featurable create(int index)
+    {
+        return pool.acquire(registry.get(types.get(index)).getMedia());
+    }
+
+    /**
+     * Get state class from its name.
+     * 
+     * @param name The state class name.
+     * @return The state class.
+     * @throws LionEngineException If unknown state.
+     */
+    @SuppressWarnings("unchecked")
+    private Class<? extends State> getState(String name)
+    {
+        try
+        {
+            return (Class<? extends State>) Class.forName(name);
+        }
+        catch (final ClassNotFoundException exception)
+        {
+            throw new LionEngineException(exception, ERROR_STATE + name);
+        }
+    }
+
+    /**
+     * Encode entity.
+     * 
+     * @param output The output data.
+     * @param i The entity index.
+     * @throws IOException If error.
+     */
+    private void encode(DataOutput output, int i) throws IOException
+    {
+        output.writeInt(ids[i]);
+        output.writeShort(type[i]);
+        output.writeShort(tx[i]);
+        output.writeShort(ty[i]);
+        output.writeInt(life[i]);
+        output.writeByte(state[i]);
+        output.writeByte(owner[i]);
+        output.writeShort(cargoType[i]);
+        output.writeInt(cargo[i]);
+        output.writeShort(resourceX[i]);
+        output.writeShort(resourceY[i]);
+        output.writeInt(stock[i]);
+        output.writeByte(queue[i].length);
+        for (final int queued : queue[i])
+        {
+            output.writeShort(queued);
+        }
+    }
+
+    /**
+     * Decode entity.
+     * 
+     * @param input The input data.
+     * @param i The entity index.
+     * @throws IOException If error.
+     */
+    private void decode(DataInput input, int i) throws IOException
+    {
+        ids[i] = input.readInt();
+        type[i] = input.readShort();
+        tx[i] = input.readShort();
+        ty[i] = input.readShort();
+        life[i] = input.readInt();
+        state[i] = input.readByte();
+        owner[i] = input.readUnsignedByte();
+        cargoType[i] = input.readShort();
+        cargo[i] = input.readInt();
+        resourceX[i] = input.readShort();
+        resourceY[i] = input.readShort();
+        stock[i] = input.readInt();
+        final int n = input.readUnsignedByte();
+        queue[i] = new int[n];
+        for (int j = 0; j < n; j++)
+        {
+            queue[i][j] = input.readShort();
+        }
+    }
+
+    /**
+     * Clear captured data.
+     */
+    private void clear()
+    {
+        count = 0;
+        types.clear();
+        typesIndex.clear();
+        states.clear();
+        statesIndex.clear();
+    }
+
+    /**
+     * Ensure arrays can store the specified number of entities.
+     * 
+     * @param capacity The required capacity.
+     */
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity > ids.length)
+        {
+            final int length = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, length);
+            type = Arrays.copyOf(type, length);
+            tx = Arrays.copyOf(tx, length);
+            ty = Arrays.copyOf(ty, length);
+            life = Arrays.copyOf(life, length);
+            state = Arrays.copyOf(state, length);
+            owner = Arrays.copyOf(owner, length);
+            cargoType = Arrays.copyOf(cargoType, length);
+            cargo = Arrays.copyOf(cargo, length);
+            resourceX = Arrays.copyOf(resourceX, length);
+            resourceY = Arrays.copyOf(resourceY, length);
+            stock = Arrays.copyOf(stock, length);
+            queue = Arrays.copyOf(queue, length);
+        }
+    }
+
+    @Override
+    public void save(FileWriting file) throws IOException
+    {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(count * 32 + 256);
+        try (DataOutputStream output = new DataOutputStream(buffer))
+        {
+            encode(output);
+        }
+        file.writeInteger(buffer.size());
+        buffer.writeTo(file);
+    }
+
+    /**
+     * {@inheritDoc} Snapshot is left empty if none has been saved, or if file ends before.
+     */
+    @Override
+    public void load(FileReading file) throws IOException
+    {
+        clear();
+
+        final int length;
+        try
+        {
+            length = file.readInteger();
+        }
+        catch (final EOFException exception)
+        {
+            return;
+        }
+        if (length > 0)
+        {
+            final byte[] data = new byte[length];
+            int read = 0;
+            while (read < length)
+            {
+                final int n = file.read(data, read, length - read);
+                if (n < 0)
+                {
+                    throw new EOFException();
+                }
+                read += n;
+            }
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(data)))
+            {
+                decode(input);
+            }
+        }
+    }
+}
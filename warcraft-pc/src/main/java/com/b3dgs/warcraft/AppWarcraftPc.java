@@ -24,21 +24,59 @@ import com.b3dgs.lionengine.audio.wav.WavFormat;
 import com.b3dgs.lionengine.awt.graphic.EngineAwt;
 import com.b3dgs.lionengine.graphic.engine.Loader;
 import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.jfr.TracerJfr;
+import com.b3dgs.warcraft.profiler.Tracing;
 
 /**
  * Program starts here.
  */
 public final class AppWarcraftPc
 {
+    /** Flight recorder events argument. */
+    public static final String ARG_JFR = "--jfr";
+    /** Scaling runner argument. */
+    public static final String ARG_BENCH = "--bench";
+    /** Lockstep loopback harness argument. */
+    public static final String ARG_LOCKSTEP = "--lockstep";
+
     /**
      * Main function.
      * 
-     * @param args The arguments (none).
+     * @param args The arguments ({@link #ARG_JFR} to record game events, {@link #ARG_BENCH} to run scaling
+     *            scenarios, {@link #ARG_LOCKSTEP} to run lockstep loopback harness).
      */
     public static void main(String[] args) // CHECKSTYLE IGNORE LINE: TrailingComment|UncommentedMain
     {
+        boolean bench = false;
+        boolean lockstep = false;
+        for (final String arg : args)
+        {
+            if (ARG_JFR.equals(arg))
+            {
+                Tracing.set(new TracerJfr());
+            }
+            else if (ARG_BENCH.equals(arg))
+            {
+                bench = true;
+            }
+            else if (ARG_LOCKSTEP.equals(arg))
+            {
+                lockstep = true;
+            }
+        }
         EngineAwt.start(Constant.NAME, Constant.VERSION, AppWarcraftPc.class);
-        Loader.start(Config.windowed(Constant.NATIVE.get2x()), Loading.class);
+        if (bench)
+        {
+            Loader.start(Config.windowed(Constant.NATIVE), ScenarioRunner.class);
+        }
+        else if (lockstep)
+        {
+            Loader.start(Config.windowed(Constant.NATIVE), LockstepHarness.class);
+        }
+        else
+        {
+            Loader.start(Config.windowed(Constant.NATIVE.get2x()), Loading.class);
+        }
         AudioFactory.addFormat(new WavFormat());
         AudioFactory.addFormat(new AdlMidiFormat());
     }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Level loading phase event.
+ */
+@Name(TracerJfr.PREFIX + "Load")
+@Label("Load")
+@Category(TracerJfr.CATEGORY)
+@Description("Level loading phase")
+final class LoadEvent extends Event
+{
+    /** Phase name. */
+    @Label("Phase") String phase;
+
+    /**
+     * Create event.
+     * 
+     * @param phase The phase name.
+     */
+    LoadEvent(String phase)
+    {
+        super();
+
+        this.phase = phase;
+    }
+}
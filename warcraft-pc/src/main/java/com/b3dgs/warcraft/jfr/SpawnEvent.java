@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Entity added to world event.
+ */
+@Name(TracerJfr.PREFIX + "Spawn")
+@Label("Spawn")
+@Category(TracerJfr.CATEGORY)
+@Description("Entity added to world")
+final class SpawnEvent extends Event
+{
+    /** Entity id. */
+    @Label("Entity") int id;
+    /** Entity type. */
+    @Label("Type") String type;
+
+    /**
+     * Create event.
+     */
+    SpawnEvent()
+    {
+        super();
+    }
+}
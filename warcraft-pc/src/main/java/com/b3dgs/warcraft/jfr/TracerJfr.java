@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.jfr;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.b3dgs.warcraft.profiler.Tracer;
+
+/**
+ * Tracer committing game events to the flight recorder.
+ * <p>
+ * Events are only recorded while a recording is running, for example with
+ * <code>-XX:StartFlightRecording=filename=warcraft.jfr</code>.
+ * </p>
+ */
+public class TracerJfr implements Tracer
+{
+    /** Events name prefix. */
+    static final String PREFIX = "com.b3dgs.warcraft.";
+    /** Events category. */
+    static final String CATEGORY = "Warcraft";
+
+    private final Deque<LoadEvent> loads = new ArrayDeque<>();
+    private FrameEvent frame;
+    private PathSearchEvent search;
+
+    /**
+     * Create tracer.
+     */
+    public TracerJfr()
+    {
+        super();
+    }
+
+    @Override
+    public void beginFrame()
+    {
+        frame = new FrameEvent();
+        frame.begin();
+    }
+
+    @Override
+    public void endFrame()
+    {
+        if (frame != null)
+        {
+            frame.commit();
+            frame = null;
+        }
+    }
+
+    @Override
+    public void beginLoad(String phase)
+    {
+        final LoadEvent load = new LoadEvent(phase);
+        load.begin();
+        loads.push(load);
+    }
+
+    @Override
+    public void endLoad()
+    {
+        if (!loads.isEmpty())
+        {
+            loads.pop().commit();
+        }
+    }
+
+    @Override
+    public void notifyStateChanged(int id, String from, String to)
+    {
+        final StateEvent event = new StateEvent();
+        if (event.isEnabled())
+        {
+            event.id = id;
+            event.from = from;
+            event.to = to;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void beginPathSearch()
+    {
+        search = new PathSearchEvent();
+        search.begin();
+    }
+
+    @Override
+    public void endPathSearch(int id, int distance)
+    {
+        if (search != null)
+        {
+            search.id = id;
+            search.distance = distance;
+            search.commit();
+            search = null;
+        }
+    }
+
+    @Override
+    public void notifySpawned(int id, String type)
+    {
+        final SpawnEvent event = new SpawnEvent();
+        if (event.isEnabled())
+        {
+            event.id = id;
+            event.type = type;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void notifyDespawned(int id, String type)
+    {
+        final DespawnEvent event = new DespawnEvent();
+        if (event.isEnabled())
+        {
+            event.id = id;
+            event.type = type;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+
+import com.b3dgs.lionengine.Engine;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.warcraft.Level;
+import com.b3dgs.warcraft.constant.Constant;
+
+/**
+ * Server starts here.
+ */
+public final class AppWarcraftServer
+{
+    /** Listening port argument, followed by its value. */
+    public static final String ARG_PORT = "--port";
+    /** Scenario total units argument, followed by its value. */
+    public static final String ARG_UNITS = "--units";
+    /** Level argument, followed by its name. */
+    public static final String ARG_LEVEL = "--level";
+
+    private static final String ERROR_HOST = "Unable to host match";
+
+    /**
+     * Main function.
+     * 
+     * @param args The arguments ({@link #ARG_PORT} to listen on another port than {@value Server#DEFAULT_PORT},
+     *            {@link #ARG_UNITS} to change scenario size, {@link #ARG_LEVEL} to host another level).
+     */
+    public static void main(String[] args) // CHECKSTYLE IGNORE LINE: TrailingComment|UncommentedMain
+    {
+        int port = Server.DEFAULT_PORT;
+        int units = Server.DEFAULT_UNITS;
+        Level level = Level.FOREST;
+        for (int i = 0; i < args.length - 1; i += 2)
+        {
+            final String value = args[i + 1];
+            if (ARG_PORT.equals(args[i]))
+            {
+                port = Integer.parseInt(value);
+            }
+            else if (ARG_UNITS.equals(args[i]))
+            {
+                units = Integer.parseInt(value);
+            }
+            else if (ARG_LEVEL.equals(args[i]))
+            {
+                level = Level.valueOf(value.toUpperCase(Locale.ENGLISH));
+            }
+        }
+
+        EngineHeadless.start(Constant.NAME, Constant.VERSION, AppWarcraftServer.class);
+        final Server server = new Server(level, units);
+        server.load();
+        try
+        {
+            server.host(new InetSocketAddress(port));
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, ERROR_HOST);
+        }
+        server.run();
+        Engine.terminate();
+    }
+
+    /**
+     * Private constructor.
+     */
+    private AppWarcraftServer()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
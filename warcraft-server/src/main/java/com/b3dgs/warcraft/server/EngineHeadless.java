@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.server;
+
+import com.b3dgs.lionengine.Engine;
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.Version;
+import com.b3dgs.lionengine.graphic.Graphics;
+
+/**
+ * Engine without display, using the {@link FactoryGraphicHeadless} and resources from the server jar.
+ */
+final class EngineHeadless extends Engine
+{
+    /**
+     * Start engine.
+     * 
+     * @param name The program name.
+     * @param version The program version.
+     * @param classResource The class loader reference (resources entry point).
+     */
+    static void start(String name, Version version, Class<?> classResource)
+    {
+        Engine.start(new EngineHeadless(name, version, classResource));
+    }
+
+    private final Class<?> classResource;
+
+    /**
+     * Create engine.
+     * 
+     * @param name The program name.
+     * @param version The program version.
+     * @param classResource The class loader reference (resources entry point).
+     */
+    private EngineHeadless(String name, Version version, Class<?> classResource)
+    {
+        super(name, version);
+
+        this.classResource = classResource;
+    }
+
+    @Override
+    protected void open()
+    {
+        Graphics.setFactoryGraphic(FactoryGraphicHeadless.create());
+        Medias.setLoadFromJar(classResource);
+    }
+
+    @Override
+    protected void close()
+    {
+        // Nothing to release, no display
+    }
+}
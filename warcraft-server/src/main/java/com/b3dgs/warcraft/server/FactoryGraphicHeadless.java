@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.server;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.graphic.FactoryGraphic;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+
+/**
+ * Graphic factory without display, creating images that only have a size.
+ * <p>
+ * Images loaded from resources only read their PNG header, so nothing is decoded on startup. Screen can not be
+ * created, and drawing does nothing.
+ * </p>
+ */
+final class FactoryGraphicHeadless
+{
+    private static final long PNG_SIGNATURE = 0x89504E470D0A1A0AL;
+    private static final int PNG_HEADER = 0x49484452;
+    private static final String METHOD_SCREEN = "createScreen";
+    private static final String METHOD_CREATE = "createImageBuffer";
+    private static final String METHOD_GET = "getImageBuffer";
+    private static final String METHOD_RESIZE = "resize";
+    private static final String METHOD_SPLIT = "splitImage";
+    private static final String METHOD_WIDTH = "getWidth";
+    private static final String METHOD_HEIGHT = "getHeight";
+    private static final String[] METHODS_COPY =
+    {
+        "applyMask", "rotate", "flipHorizontal", "flipVertical", "getRasterBuffer"
+    };
+    private static final String ERROR_SCREEN = "No screen on server";
+    private static final String ERROR_IMAGE = "Unable to read image size: ";
+
+    /**
+     * Create factory.
+     * 
+     * @return The headless graphic factory.
+     */
+    static FactoryGraphic create()
+    {
+        final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put(METHOD_SCREEN, args ->
+        {
+            throw new LionEngineException(ERROR_SCREEN);
+        });
+        answers.put(METHOD_CREATE, args -> createImage(getInt(args, 0), getInt(args, 1)));
+        answers.put(METHOD_GET, args ->
+        {
+            if (args[0] instanceof Media)
+            {
+                return loadImage((Media) args[0]);
+            }
+            return copy(args);
+        });
+        answers.put(METHOD_RESIZE, args -> createImage(getInt(args, 1), getInt(args, 2)));
+        answers.put(METHOD_SPLIT, args -> split((ImageBuffer) args[0], getInt(args, 1), getInt(args, 2)));
+        for (final String method : METHODS_COPY)
+        {
+            answers.put(method, FactoryGraphicHeadless::copy);
+        }
+        return Headless.create(FactoryGraphic.class, answers);
+    }
+
+    /**
+     * Create image.
+     * 
+     * @param width The image width.
+     * @param height The image height.
+     * @return The created image.
+     */
+    private static ImageBuffer createImage(int width, int height)
+    {
+        final Integer w = Integer.valueOf(width);
+        final Integer h = Integer.valueOf(height);
+        final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put(METHOD_WIDTH, args -> w);
+        answers.put(METHOD_HEIGHT, args -> h);
+        return Headless.create(ImageBuffer.class, answers);
+    }
+
+    /**
+     * Create image with the size read from PNG header.
+     * 
+     * @param media The image media.
+     * @return The created image.
+     * @throws LionEngineException If not a PNG image.
+     */
+    private static ImageBuffer loadImage(Media media)
+    {
+        try (DataInputStream input = new DataInputStream(media.getInputStream()))
+        {
+            final long signature = input.readLong();
+            final int length = input.readInt();
+            if (signature != PNG_SIGNATURE || length <= 0 || input.readInt() != PNG_HEADER)
+            {
+                throw new LionEngineException(ERROR_IMAGE + media.getPath());
+            }
+            final int width = input.readInt();
+            final int height = input.readInt();
+            return createImage(width, height);
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, ERROR_IMAGE + media.getPath());
+        }
+    }
+
+    /**
+     * Create image with the size of first argument image.
+     * 
+     * @param args The call arguments.
+     * @return The created image.
+     */
+    private static ImageBuffer copy(Object[] args)
+    {
+        final ImageBuffer image = (ImageBuffer) args[0];
+        return createImage(image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Split image in parts.
+     * 
+     * @param image The image to split.
+     * @param horizontal The number of horizontal parts.
+     * @param vertical The number of vertical parts.
+     * @return The parts.
+     */
+    private static ImageBuffer[] split(ImageBuffer image, int horizontal, int vertical)
+    {
+        final ImageBuffer[] parts = new ImageBuffer[horizontal * vertical];
+        for (int i = 0; i < parts.length; i++)
+        {
+            parts[i] = createImage(image.getWidth() / horizontal, image.getHeight() / vertical);
+        }
+        return parts;
+    }
+
+    /**
+     * Get integer argument.
+     * 
+     * @param args The call arguments.
+     * @param index The argument index.
+     * @return The argument value.
+     */
+    private static int getInt(Object[] args, int index)
+    {
+        return ((Integer) args[index]).intValue();
+    }
+
+    /**
+     * Private constructor.
+     */
+    private FactoryGraphicHeadless()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
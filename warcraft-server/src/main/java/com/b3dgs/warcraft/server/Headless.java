@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.server;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Null objects of engine interfaces without server implementation, created as dynamic proxies.
+ * <p>
+ * A method returns its registered answer if any, else a neutral value: zero, <code>false</code>, first enum constant,
+ * empty array, or another null object for interfaces. Simulation only depends on sizes, so only sizes are answered,
+ * and everything else, such as drawing or input, does nothing.
+ * </p>
+ */
+final class Headless implements InvocationHandler
+{
+    private static final Map<Class<?>, Object> ZEROS = createZeros();
+    private static final String METHOD_EQUALS = "equals";
+    private static final String METHOD_HASH = "hashCode";
+
+    /**
+     * Create null object.
+     * 
+     * @param <T> The interface type.
+     * @param type The interface class.
+     * @return The null object.
+     */
+    static <T> T create(Class<T> type)
+    {
+        return create(type, Collections.emptyMap());
+    }
+
+    /**
+     * Create null object.
+     * 
+     * @param <T> The interface type.
+     * @param type The interface class.
+     * @param answers The answers by method name, from call arguments.
+     * @return The null object.
+     */
+    static <T> T create(Class<T> type, Map<String, Function<Object[], Object>> answers)
+    {
+        final Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]
+        {
+            type
+        }, new Headless(type, answers));
+        return type.cast(proxy);
+    }
+
+    /**
+     * Create zeros of primitive types and their wrappers.
+     * 
+     * @return The zeros by type.
+     */
+    private static Map<Class<?>, Object> createZeros()
+    {
+        final Map<Class<?>, Object> zeros = new HashMap<>();
+        zeros.put(Boolean.TYPE, Boolean.FALSE);
+        zeros.put(Character.TYPE, Character.valueOf('\0'));
+        zeros.put(Byte.TYPE, Byte.valueOf((byte) 0));
+        zeros.put(Short.TYPE, Short.valueOf((short) 0));
+        zeros.put(Integer.TYPE, Integer.valueOf(0));
+        zeros.put(Long.TYPE, Long.valueOf(0L));
+        zeros.put(Float.TYPE, Float.valueOf(0.0F));
+        zeros.put(Double.TYPE, Double.valueOf(0.0));
+        final Class<?>[] primitives = zeros.keySet().toArray(new Class<?>[zeros.size()]);
+        for (final Class<?> primitive : primitives)
+        {
+            zeros.put(zeros.get(primitive).getClass(), zeros.get(primitive));
+        }
+        return zeros;
+    }
+
+    /**
+     * Get neutral value of type.
+     * 
+     * @param type The value type.
+     * @return The neutral value (<code>null</code> for classes).
+     */
+    private static Object getNeutral(Class<?> type)
+    {
+        final Object zero = ZEROS.get(type);
+        if (zero != null)
+        {
+            return zero;
+        }
+        if (type.isEnum())
+        {
+            return type.getEnumConstants()[0];
+        }
+        if (type.isArray())
+        {
+            return Array.newInstance(type.getComponentType(), 0);
+        }
+        if (type.isInterface())
+        {
+            return create(type);
+        }
+        return null;
+    }
+
+    private final Class<?> type;
+    private final Map<String, Function<Object[], Object>> answers;
+
+    /**
+     * Create handler.
+     * 
+     * @param type The implemented interface.
+     * @param answers The answers by method name.
+     */
+    private Headless(Class<?> type, Map<String, Function<Object[], Object>> answers)
+    {
+        super();
+
+        this.type = type;
+        this.answers = answers;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+    {
+        final String name = method.getName();
+        if (Object.class == method.getDeclaringClass())
+        {
+            if (METHOD_EQUALS.equals(name))
+            {
+                return Boolean.valueOf(proxy == args[0]);
+            }
+            if (METHOD_HASH.equals(name))
+            {
+                return Integer.valueOf(System.identityHashCode(proxy));
+            }
+            return type.getSimpleName();
+        }
+        final Function<Object[], Object> answer = answers.get(name);
+        if (answer != null)
+        {
+            return answer.apply(args);
+        }
+        return getNeutral(method.getReturnType());
+    }
+}
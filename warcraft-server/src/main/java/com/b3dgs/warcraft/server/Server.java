@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.server;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import com.b3dgs.lionengine.Config;
+import com.b3dgs.lionengine.Context;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Resolution;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.graphic.engine.SourceResolutionProvider;
+import com.b3dgs.warcraft.Level;
+import com.b3dgs.warcraft.Players;
+import com.b3dgs.warcraft.World;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.net.Lockstep;
+import com.b3dgs.warcraft.net.Session;
+import com.b3dgs.warcraft.net.TransportTcp;
+import com.b3dgs.warcraft.scenario.Scenario;
+
+/**
+ * Dedicated match host, running the reference world at a fixed tick rate.
+ * <p>
+ * World is loaded before accepting clients, from the cached level file and the entity types registry, without any
+ * display. Then each client is given one side of the scenario with its {@link Session}, and host joins the lockstep
+ * session as the neutral player. Its empty batches gate every turn, so no client can run ahead of the host clock, and
+ * its world checksum is the reference all clients batches are compared to.
+ * </p>
+ * <p>
+ * Host does not catch up on late ticks. Only simulated ticks durations are recorded, ticks waiting for clients and
+ * ticks longer than period are counted apart, and a report is logged periodically.
+ * </p>
+ */
+public class Server
+{
+    /** Default listening port. */
+    public static final int DEFAULT_PORT = 7_777;
+    /** Default scenario total units. */
+    public static final int DEFAULT_UNITS = 40;
+
+    private static final String[] RACES =
+    {
+        Constant.RACE_PLAYER, Constant.RACE_COMPUTER
+    };
+    private static final long STARTUP_BUDGET_MILLI = 1_000L;
+    private static final int REPORT_SECONDS = 10;
+    private static final int MEDIAN = 50;
+    private static final int HIGH = 99;
+    private static final long NANO_PER_MICRO = 1_000L;
+    private static final String METHOD_CONFIG = "getConfig";
+    private static final String METHOD_WIDTH = "getWidth";
+    private static final String METHOD_HEIGHT = "getHeight";
+    private static final String METHOD_RATE = "getRate";
+    private static final String METHOD_DEVICE = "getInputDevice";
+    private static final String ERROR_LEVEL = "Cached level not found, run game once to import it: ";
+    private static final String ERROR_MATCH = "Match ended on error";
+    private static final String WARNING_STARTUP = "Startup over budget (ms): ";
+    private static final String INFO_READY = "Server ready in (ms): ";
+    private static final String INFO_LISTEN = "Waiting clients on: ";
+    private static final String INFO_JOINED = "Client joined as player: ";
+    private static final String INFO_REPORT = "Server: ";
+
+    /**
+     * Create context answers, without input.
+     * 
+     * @param config The configuration.
+     * @return The context answers.
+     */
+    private static Map<String, Function<Object[], Object>> createContext(Config config)
+    {
+        final Resolution output = config.getOutput();
+        final Map<String, Function<Object[], Object>> answers = createSource(output);
+        answers.put(METHOD_CONFIG, args -> config);
+        answers.put(METHOD_DEVICE, args -> Headless.create((Class<?>) args[0]));
+        return answers;
+    }
+
+    /**
+     * Create source resolution answers.
+     * 
+     * @param resolution The source resolution.
+     * @return The source answers.
+     */
+    private static Map<String, Function<Object[], Object>> createSource(Resolution resolution)
+    {
+        final Integer width = Integer.valueOf(resolution.getWidth());
+        final Integer height = Integer.valueOf(resolution.getHeight());
+        final Integer rate = Integer.valueOf(resolution.getRate());
+        final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put(METHOD_WIDTH, args -> width);
+        answers.put(METHOD_HEIGHT, args -> height);
+        answers.put(METHOD_RATE, args -> rate);
+        return answers;
+    }
+
+    private final Services services = new Services();
+    private final TickMetrics metrics = new TickMetrics();
+    private final ByteBuffer packet = ByteBuffer.allocate(TransportTcp.PACKET_SIZE);
+    private final Level level;
+    private final int units;
+    private final int rate;
+    private final World world;
+    private final Lockstep lockstep;
+    private volatile boolean running;
+
+    /**
+     * Create server. Engine must have been started.
+     * 
+     * @param level The level to host.
+     * @param units The scenario total units.
+     */
+    public Server(Level level, int units)
+    {
+        super();
+
+        this.level = level;
+        this.units = units;
+        rate = Constant.NATIVE.getRate();
+        services.add(Headless.create(Context.class, createContext(Config.windowed(Constant.NATIVE))));
+        services.add(Headless.create(SourceResolutionProvider.class, createSource(Constant.NATIVE)));
+        world = new World(services);
+        lockstep = services.get(Lockstep.class);
+    }
+
+    /**
+     * Load world from cached level, and log startup time since virtual machine start.
+     * 
+     * @throws LionEngineException If level has not been imported.
+     */
+    public void load()
+    {
+        if (!level.getFile().exists())
+        {
+            throw new LionEngineException(ERROR_LEVEL + level.getFile().getPath());
+        }
+        world.setScenario(Scenario.scale(level, units));
+        world.loadFromFile(level.getFile());
+
+        final long startup = ManagementFactory.getRuntimeMXBean().getUptime();
+        Verbose.info(INFO_READY, String.valueOf(startup));
+        if (startup > STARTUP_BUDGET_MILLI)
+        {
+            Verbose.warning(WARNING_STARTUP, String.valueOf(startup));
+        }
+    }
+
+    /**
+     * Wait for one client per scenario side, send them their session, and start lockstep.
+     * 
+     * @param address The listening address.
+     * @throws IOException If unable to accept clients.
+     */
+    public void host(InetSocketAddress address) throws IOException
+    {
+        final Players players = services.get(Players.class);
+        final int[] participants = new int[RACES.length + 1];
+        participants[0] = Players.NEUTRAL;
+        for (int i = 0; i < RACES.length; i++)
+        {
+            participants[i + 1] = players.getDefault(RACES[i]);
+        }
+
+        final TransportTcp[] clients = new TransportTcp[RACES.length];
+        try (ServerSocketChannel channel = ServerSocketChannel.open())
+        {
+            channel.bind(address);
+            Verbose.info(INFO_LISTEN, String.valueOf(channel.getLocalAddress()));
+            for (int i = 0; i < clients.length; i++)
+            {
+                clients[i] = new TransportTcp(channel.accept());
+                send(clients[i], createSession(participants[i + 1], participants));
+                Verbose.info(INFO_JOINED, String.valueOf(participants[i + 1]));
+            }
+        }
+        catch (final IOException exception)
+        {
+            for (final TransportTcp client : clients)
+            {
+                if (client != null)
+                {
+                    client.close();
+                }
+            }
+            throw exception;
+        }
+        createSession(Players.NEUTRAL, participants).start(lockstep, new TransportHub(clients));
+    }
+
+    /**
+     * Run match at fixed tick rate, until stopped or a client has left.
+     */
+    public void run()
+    {
+        final long period = TimeUnit.SECONDS.toNanos(1L) / rate;
+        final int report = rate * REPORT_SECONDS;
+        running = true;
+        long next = System.nanoTime();
+        int ticks = 0;
+        try
+        {
+            while (running && lockstep.isActive())
+            {
+                final long start = System.nanoTime();
+                world.update(1.0);
+                final long end = System.nanoTime();
+                if (lockstep.isStalled())
+                {
+                    metrics.addStall();
+                }
+                else
+                {
+                    metrics.add(end - start);
+                }
+
+                next += period;
+                if (end - next > 0L)
+                {
+                    metrics.addOverrun();
+                    next = end;
+                }
+                else
+                {
+                    LockSupport.parkNanos(next - end);
+                }
+                ticks++;
+                if (ticks % report == 0)
+                {
+                    report();
+                }
+            }
+        }
+        catch (final LionEngineException exception)
+        {
+            Verbose.exception(exception, ERROR_MATCH);
+        }
+        finally
+        {
+            lockstep.stop();
+            report();
+        }
+    }
+
+    /**
+     * Stop match after current tick. Can be called from any thread.
+     */
+    public void stop()
+    {
+        running = false;
+    }
+
+    /**
+     * Get tick time metrics. Can be read from any thread.
+     * 
+     * @return The tick metrics.
+     */
+    public TickMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Create session of player.
+     * 
+     * @param local The player controlled by peer.
+     * @param participants The ids of all players of the session.
+     * @return The session.
+     */
+    private Session createSession(int local, int... participants)
+    {
+        return new Session(level, units, Lockstep.DEFAULT_TURN_TICKS, Lockstep.DEFAULT_DELAY, local, participants);
+    }
+
+    /**
+     * Send session to client, as first packet of its connection.
+     * 
+     * @param client The client transport.
+     * @param session The client session.
+     * @throws IOException If error.
+     */
+    private void send(TransportTcp client, Session session) throws IOException
+    {
+        packet.clear();
+        session.write(packet);
+        packet.flip();
+        client.send(packet);
+    }
+
+    /**
+     * Log tick metrics and lockstep state.
+     */
+    private void report()
+    {
+        Verbose.info(INFO_REPORT,
+                     String.valueOf(metrics.getTicks()),
+                     " ticks, p50 ",
+                     String.valueOf(metrics.getPercentile(MEDIAN) / NANO_PER_MICRO),
+                     " us, p99 ",
+                     String.valueOf(metrics.getPercentile(HIGH) / NANO_PER_MICRO),
+                     " us, max ",
+                     String.valueOf(metrics.getMax() / NANO_PER_MICRO),
+                     " us, ",
+                     String.valueOf(metrics.getStalls()),
+                     " stalls, ",
+                     String.valueOf(metrics.getOverruns()),
+                     " overruns, turn ",
+                     String.valueOf(lockstep.getTurn()),
+                     ", desync at ",
+                     String.valueOf(lockstep.getDesync()));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.b3dgs.warcraft.profiler.Samples;
+
+/**
+ * Server tick time metrics, written by the server thread and readable from any thread.
+ * <p>
+ * Durations of the last simulated ticks are kept for percentiles. Ticks waiting for clients are only counted as
+ * stalls, and ticks longer than the tick period as overruns.
+ * </p>
+ */
+public final class TickMetrics
+{
+    private static final int CAPACITY = 1_024;
+
+    private final Samples samples = new Samples(CAPACITY);
+    private final long[] scratch = new long[samples.getCapacity()];
+    private final AtomicInteger stalls = new AtomicInteger();
+    private final AtomicInteger overruns = new AtomicInteger();
+    private volatile long max;
+
+    /**
+     * Create metrics.
+     */
+    TickMetrics()
+    {
+        super();
+    }
+
+    /**
+     * Add simulated tick duration. Must only be called by server thread.
+     * 
+     * @param time The tick duration in nanoseconds.
+     */
+    void add(long time)
+    {
+        samples.add(time);
+        if (time > max)
+        {
+            max = time;
+        }
+    }
+
+    /**
+     * Count a tick waiting for clients. Must only be called by server thread.
+     */
+    void addStall()
+    {
+        stalls.lazySet(stalls.get() + 1);
+    }
+
+    /**
+     * Count a tick longer than tick period. Must only be called by server thread.
+     */
+    void addOverrun()
+    {
+        overruns.lazySet(overruns.get() + 1);
+    }
+
+    /**
+     * Get simulated ticks number.
+     * 
+     * @return The simulated ticks.
+     */
+    public int getTicks()
+    {
+        return samples.getTotal();
+    }
+
+    /**
+     * Get ticks waiting for clients number.
+     * 
+     * @return The stalled ticks.
+     */
+    public int getStalls()
+    {
+        return stalls.get();
+    }
+
+    /**
+     * Get ticks longer than tick period number.
+     * 
+     * @return The overrun ticks.
+     */
+    public int getOverruns()
+    {
+        return overruns.get();
+    }
+
+    /**
+     * Get longest simulated tick since start.
+     * 
+     * @return The longest tick duration in nanoseconds.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Get tick duration percentile of last simulated ticks.
+     * 
+     * @param percentile The percentile (0 to 100).
+     * @return The tick duration in nanoseconds, <code>0</code> if no ticks.
+     */
+    public synchronized long getPercentile(int percentile)
+    {
+        return samples.getPercentile(scratch, percentile);
+    }
+}
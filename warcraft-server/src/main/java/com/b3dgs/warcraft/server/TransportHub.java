@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2013-2019 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.b3dgs.warcraft.net.Transport;
+import com.b3dgs.warcraft.net.TransportTcp;
+
+/**
+ * Host transport, relaying each client packet to the other clients.
+ * <p>
+ * Clients are only connected to host, so their lockstep session goes through it. Host receives every client packet
+ * too, and its own packets are sent to all clients. Clients are polled in turn, so none can starve the others.
+ * </p>
+ */
+final class TransportHub implements Transport
+{
+    private final TransportTcp[] clients;
+    private int next;
+
+    /**
+     * Create hub.
+     * 
+     * @param clients The connected clients.
+     */
+    TransportHub(TransportTcp... clients)
+    {
+        super();
+
+        this.clients = clients.clone();
+    }
+
+    @Override
+    public void send(ByteBuffer packet) throws IOException
+    {
+        for (final TransportTcp client : clients)
+        {
+            client.send(packet.duplicate());
+        }
+    }
+
+    @Override
+    public boolean receive(ByteBuffer packet) throws IOException
+    {
+        for (int i = 0; i < clients.length; i++)
+        {
+            final int index = (next + i) % clients.length;
+            if (clients[index].receive(packet))
+            {
+                next = (index + 1) % clients.length;
+                for (int j = 0; j < clients.length; j++)
+                {
+                    if (j != index)
+                    {
+                        clients[j].send(packet.duplicate());
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close()
+    {
+        for (final TransportTcp client : clients)
+        {
+            client.close();
+        }
+    }
+}